@@ -0,0 +1,93 @@
+-- Bid update cost on products with large descriptions, before and after
+-- restricting the search_vector trigger to title/description changes.
+--
+-- Runs on a temp copy inside a transaction that is rolled back, against a
+-- database where schema.sql was applied:
+--   psql -d online_auction -f database/benchmarks/bid_update_search_vector.sql
+--
+-- Scenarios (same bid-style UPDATE of current_price/bid_count):
+--   1. before: BEFORE INSERT OR UPDATE trigger, full-row UPDATE (Hibernate
+--      without @DynamicUpdate sends the description back)
+--   2. new trigger only: full-row UPDATE, trigger skipped by its WHEN clause
+--   3. after: new trigger + @DynamicUpdate, only changed columns written
+
+BEGIN;
+
+CREATE TEMP TABLE bench_products (
+    id            BIGSERIAL PRIMARY KEY,
+    title         VARCHAR(255) NOT NULL,
+    description   TEXT NOT NULL,
+    current_price DECIMAL(15,2) NOT NULL,
+    bid_count     INTEGER NOT NULL DEFAULT 0,
+    search_vector TSVECTOR
+);
+
+CREATE TRIGGER bench_insert_trigger
+BEFORE INSERT ON bench_products
+FOR EACH ROW
+EXECUTE FUNCTION products_search_vector_update();
+
+-- 200 products with ~55KB descriptions (a seller who appended many times)
+INSERT INTO bench_products (title, description, current_price)
+SELECT 'Đồng hồ cơ cổ điển số ' || i,
+       repeat('Mô tả bổ sung: máy còn chạy tốt, mặt kính không trầy xước, bảo hành chính hãng. ', 650),
+       1000000
+FROM generate_series(1, 200) i;
+
+CREATE OR REPLACE FUNCTION pg_temp.bench_bids(label TEXT, full_row BOOLEAN) RETURNS void AS $$
+DECLARE
+    bids CONSTANT INT := 2000;
+    started TIMESTAMPTZ;
+    product_id BIGINT;
+    product_title TEXT;
+    product_description TEXT;
+BEGIN
+    started := clock_timestamp();
+    FOR i IN 1..bids LOOP
+        product_id := 1 + (i % 200);
+        IF full_row THEN
+            -- Values come back from the client, like a full-row Hibernate UPDATE
+            SELECT title, description INTO product_title, product_description
+            FROM bench_products WHERE id = product_id;
+            UPDATE bench_products
+            SET title = product_title, description = product_description,
+                current_price = current_price + 10000, bid_count = bid_count + 1
+            WHERE id = product_id;
+        ELSE
+            UPDATE bench_products
+            SET current_price = current_price + 10000, bid_count = bid_count + 1
+            WHERE id = product_id;
+        END IF;
+    END LOOP;
+    RAISE NOTICE '%: % ms per bid update', label,
+        round((extract(epoch FROM clock_timestamp() - started) * 1000 / bids)::numeric, 3);
+END;
+$$ LANGUAGE plpgsql;
+
+-- 1. Before
+CREATE TRIGGER bench_old_trigger
+BEFORE UPDATE ON bench_products
+FOR EACH ROW
+EXECUTE FUNCTION products_search_vector_update();
+
+SELECT pg_temp.bench_bids('before (trigger on every update, full-row update)', true);
+
+DROP TRIGGER bench_old_trigger ON bench_products;
+
+-- 2. and 3. After
+CREATE TRIGGER bench_new_trigger
+BEFORE UPDATE OF title, description ON bench_products
+FOR EACH ROW
+WHEN (OLD.title IS DISTINCT FROM NEW.title OR OLD.description IS DISTINCT FROM NEW.description)
+EXECUTE FUNCTION products_search_vector_update();
+
+SELECT pg_temp.bench_bids('new trigger, full-row update', true);
+SELECT pg_temp.bench_bids('after (new trigger, changed columns only)', false);
+
+-- Text changes must still be indexed
+UPDATE bench_products SET description = description || ' phiên bản giới hạn' WHERE id = 1;
+SELECT 'search_vector updated on description change' AS check,
+       search_vector @@ plainto_tsquery('simple', unaccent('gioi han')) AS ok
+FROM bench_products WHERE id = 1;
+
+ROLLBACK;
@@ -0,0 +1,116 @@
+-- Product listing cost at page 1, 100 and 1,000 (20 per page): OFFSET + COUNT(*)
+-- (Page) against keyset pagination (Slice, /search/cursor), plus the EXPLAIN
+-- estimate used for approximateTotal.
+--
+-- Runs on temp copies inside a transaction that is rolled back, against a
+-- database where schema.sql was applied:
+--   psql -d online_auction -f database/benchmarks/product_pagination.sql
+--
+-- Scenarios, each for a category listing and a full-text search:
+--   1. offset: ORDER BY end_time, id OFFSET n LIMIT 20, plus the COUNT(*) query
+--   2. keyset: (end_time, product_id) > (last end_time, last id) LIMIT 21, no count
+
+BEGIN;
+
+CREATE TEMP TABLE bench_products (
+    id            BIGSERIAL PRIMARY KEY,
+    category_id   INTEGER NOT NULL,
+    title         VARCHAR(255) NOT NULL,
+    description   TEXT NOT NULL,
+    search_vector TSVECTOR
+);
+
+CREATE TEMP TABLE bench_states (
+    product_id    BIGINT PRIMARY KEY,
+    current_price DECIMAL(15,2) NOT NULL,
+    end_time      TIMESTAMPTZ NOT NULL,
+    is_ended      BOOLEAN NOT NULL DEFAULT false
+);
+
+-- 200,000 active products in 20 categories; every product matches 'dong ho'
+-- so deep search pages exist
+INSERT INTO bench_products (category_id, title, description)
+SELECT 1 + (i % 20),
+       'Đồng hồ cơ cổ điển số ' || i,
+       'Máy còn chạy tốt, mặt kính không trầy xước, bảo hành chính hãng.'
+FROM generate_series(1, 200000) i;
+
+UPDATE bench_products
+SET search_vector = to_tsvector('simple', unaccent(title || ' ' || description));
+
+INSERT INTO bench_states (product_id, current_price, end_time)
+SELECT id, 1000000 + (id % 5000) * 1000, NOW() + (id % 10000) * INTERVAL '1 minute'
+FROM bench_products;
+
+CREATE INDEX ON bench_products USING GIN (search_vector);
+CREATE INDEX ON bench_products (category_id);
+CREATE INDEX ON bench_states (end_time, product_id) WHERE is_ended = false;
+ANALYZE bench_products;
+ANALYZE bench_states;
+
+CREATE OR REPLACE FUNCTION pg_temp.bench_page(label TEXT, filter TEXT, page INT) RETURNS void AS $$
+DECLARE
+    runs CONSTANT INT := 20;
+    page_size CONSTANT INT := 20;
+    started TIMESTAMPTZ;
+    offset_ms NUMERIC;
+    keyset_ms NUMERIC;
+    last_end TIMESTAMPTZ;
+    last_id BIGINT;
+    total BIGINT;
+    from_where TEXT := 'FROM bench_products p JOIN bench_states s ON s.product_id = p.id '
+            || 'WHERE s.is_ended = false AND ' || filter;
+BEGIN
+    -- Position the keyset cursor where the previous page ends (not timed)
+    IF page > 1 THEN
+        EXECUTE 'SELECT s.end_time, s.product_id ' || from_where
+                || ' ORDER BY s.end_time, s.product_id OFFSET $1 LIMIT 1'
+            INTO last_end, last_id USING page * page_size - page_size - 1;
+    END IF;
+
+    started := clock_timestamp();
+    FOR i IN 1..runs LOOP
+        EXECUTE 'SELECT COUNT(*) ' || from_where INTO total;
+        PERFORM * FROM pg_temp.bench_run('SELECT p.id ' || from_where
+                || ' ORDER BY s.end_time, s.product_id OFFSET ' || (page - 1) * page_size
+                || ' LIMIT ' || page_size);
+    END LOOP;
+    offset_ms := extract(epoch FROM clock_timestamp() - started) * 1000 / runs;
+
+    started := clock_timestamp();
+    FOR i IN 1..runs LOOP
+        IF last_id IS NULL THEN
+            PERFORM * FROM pg_temp.bench_run('SELECT p.id ' || from_where
+                    || ' ORDER BY s.end_time, s.product_id LIMIT ' || page_size + 1);
+        ELSE
+            PERFORM * FROM pg_temp.bench_run('SELECT p.id ' || from_where
+                    || ' AND (s.end_time, s.product_id) > (' || quote_literal(last_end) || '::timestamptz, ' || last_id || ')'
+                    || ' ORDER BY s.end_time, s.product_id LIMIT ' || page_size + 1);
+        END IF;
+    END LOOP;
+    keyset_ms := extract(epoch FROM clock_timestamp() - started) * 1000 / runs;
+
+    RAISE NOTICE '% page %: offset+count % ms, keyset % ms (total %)', label, page,
+        round(offset_ms, 2), round(keyset_ms, 2), total;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION pg_temp.bench_run(query TEXT) RETURNS SETOF BIGINT AS $$
+BEGIN
+    RETURN QUERY EXECUTE query;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT pg_temp.bench_page('category', 'p.category_id IN (3, 4)', page)
+FROM unnest(ARRAY[1, 100, 1000]) page;
+
+SELECT pg_temp.bench_page('search', 'p.search_vector @@ plainto_tsquery(''simple'', unaccent(''dong ho''))', page)
+FROM unnest(ARRAY[1, 100, 1000]) page;
+
+-- approximateTotal: planner estimate against the exact count
+EXPLAIN (FORMAT JSON) SELECT 1 FROM bench_products p JOIN bench_states s ON s.product_id = p.id
+WHERE s.is_ended = false AND p.category_id IN (3, 4);
+SELECT COUNT(*) AS exact_total FROM bench_products p JOIN bench_states s ON s.product_id = p.id
+WHERE s.is_ended = false AND p.category_id IN (3, 4);
+
+ROLLBACK;
@@ -0,0 +1,114 @@
+-- Keyword search on Postgres FTS at 100k active products: the native queries
+-- ProductService.searchProducts used before the in-memory index (and still
+-- uses while the index builds). The index side of the comparison is
+-- ProductSearchIndexTest.benchmarkAt100kActiveProducts, which builds the same
+-- data shape (6-word titles, 60-word descriptions, 20 categories) and runs
+-- the same queries (mvn test -Pbenchmark -Dtest=ProductSearchIndexTest).
+--
+-- Runs on temp copies inside a transaction that is rolled back, against a
+-- database where schema.sql was applied:
+--   psql -d online_auction -f database/benchmarks/product_search.sql
+
+BEGIN;
+
+CREATE TEMP TABLE bench_categories (
+    id        INTEGER PRIMARY KEY,
+    parent_id INTEGER
+);
+
+INSERT INTO bench_categories
+SELECT i, 1 + (i % 4) FROM generate_series(10, 29) i;
+
+CREATE TEMP TABLE bench_products (
+    id            BIGSERIAL PRIMARY KEY,
+    category_id   INTEGER NOT NULL,
+    title         VARCHAR(255) NOT NULL,
+    description   TEXT NOT NULL,
+    created_at    TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    search_vector TSVECTOR
+);
+
+CREATE TEMP TABLE bench_states (
+    product_id    BIGINT PRIMARY KEY,
+    current_price DECIMAL(15,2) NOT NULL,
+    bid_count     INTEGER NOT NULL,
+    end_time      TIMESTAMPTZ NOT NULL,
+    is_ended      BOOLEAN NOT NULL DEFAULT false
+);
+
+CREATE TEMP TABLE bench_words AS
+SELECT row_number() OVER () AS n, word
+FROM unnest(string_to_array('dong ho may anh dien thoai laptop ban phim chuot tai nghe sach truyen tranh giay '
+    || 'ao quan tui xach nhan vang bac kim cuong tranh son dau gom su co dien hiem moi nguyen hop '
+    || 'chinh hang bao hanh xach tay nhat ban han quoc my duc phap y', ' ')) word;
+
+INSERT INTO bench_products (category_id, title, description)
+SELECT 10 + (i % 20),
+       (SELECT string_agg(w.word, ' ') FROM generate_series(1, 6) g
+        JOIN bench_words w ON w.n = 1 + ((i * 7 + g * 13) % 50)),
+       (SELECT string_agg(w.word, ' ') FROM generate_series(1, 60) g
+        JOIN bench_words w ON w.n = 1 + ((i * 11 + g * 17) % 50)) || ' ma so ' || i
+FROM generate_series(1, 100000) i;
+
+UPDATE bench_products
+SET search_vector = setweight(to_tsvector('simple', unaccent(title)), 'A')
+                 || setweight(to_tsvector('simple', unaccent(description)), 'B');
+
+INSERT INTO bench_states (product_id, current_price, bid_count, end_time)
+SELECT id, 100000 + (id * 7919) % 10000000, id % 50, NOW() + (id % 100000) * INTERVAL '1 minute'
+FROM bench_products;
+
+CREATE INDEX ON bench_products USING GIN (search_vector);
+CREATE INDEX ON bench_states (is_ended, end_time);
+ANALYZE bench_categories;
+ANALYZE bench_products;
+ANALYZE bench_states;
+
+-- Same shape as ProductRepository.searchIdsByTitle / searchIdsByTitleAndCategory:
+-- page query sorted by end time plus the COUNT(*) query
+CREATE OR REPLACE FUNCTION pg_temp.bench_search(label TEXT, keyword TEXT, filter_category INT) RETURNS void AS $$
+DECLARE
+    runs CONSTANT INT := 50;
+    started TIMESTAMPTZ;
+    total BIGINT;
+    timings NUMERIC[] := '{}';
+    elapsed NUMERIC;
+BEGIN
+    FOR i IN 1..runs LOOP
+        started := clock_timestamp();
+        PERFORM p.id
+        FROM bench_products p
+        JOIN bench_states s ON s.product_id = p.id
+        JOIN bench_categories c ON c.id = p.category_id
+        WHERE p.search_vector @@ plainto_tsquery('simple', unaccent(keyword))
+          AND (filter_category IS NULL OR p.category_id = filter_category OR c.parent_id = filter_category)
+          AND s.is_ended = false
+        ORDER BY s.end_time
+        OFFSET (i % 5) * 20 LIMIT 20;
+
+        SELECT COUNT(*) INTO total
+        FROM bench_products p
+        JOIN bench_states s ON s.product_id = p.id
+        JOIN bench_categories c ON c.id = p.category_id
+        WHERE p.search_vector @@ plainto_tsquery('simple', unaccent(keyword))
+          AND (filter_category IS NULL OR p.category_id = filter_category OR c.parent_id = filter_category)
+          AND s.is_ended = false;
+
+        elapsed := extract(epoch FROM clock_timestamp() - started) * 1000;
+        timings := timings || elapsed;
+    END LOOP;
+
+    RAISE NOTICE '% (%): % hits, p50 % ms, p99 % ms', keyword, label, total,
+        round((SELECT percentile_cont(0.5) WITHIN GROUP (ORDER BY t) FROM unnest(timings) t)::numeric, 2),
+        round((SELECT percentile_cont(0.99) WITHIN GROUP (ORDER BY t) FROM unnest(timings) t)::numeric, 2);
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT pg_temp.bench_search('broad, 2 terms', 'dong ho', NULL);
+SELECT pg_temp.bench_search('broad, 2 terms, parent category', 'dong ho', 3);
+SELECT pg_temp.bench_search('narrow, 5 terms', 'dong ho co dien nhat ban', NULL);
+SELECT pg_temp.bench_search('rare term', 'ma so 4242', NULL);
+-- plainto_tsquery has no prefix matching; 'chinh h' only matches a literal 'h'
+SELECT pg_temp.bench_search('prefix (not supported, for reference)', 'chinh h', NULL);
+
+ROLLBACK;
@@ -0,0 +1,6 @@
+-- Add the auction state version (see schema.sql section 4.1), which orders
+-- bid change events. Run once, before starting the new version:
+--   psql -d online_auction -f database/migrations/product_auction_state_version.sql
+
+ALTER TABLE product_auction_states
+    ADD COLUMN state_version BIGINT NOT NULL DEFAULT 0;
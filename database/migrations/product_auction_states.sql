@@ -0,0 +1,42 @@
+-- Move the hot auction columns of an existing database out of products into
+-- product_auction_states (see schema.sql section 4.1). Run once, before
+-- starting the new version:
+--   psql -d online_auction -f database/migrations/product_auction_states.sql
+
+BEGIN;
+
+CREATE TABLE product_auction_states (
+    product_id            BIGINT PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+    current_price         DECIMAL(15,2) NOT NULL,
+    highest_bidder_id     BIGINT REFERENCES users(id),
+    bid_count             INTEGER NOT NULL DEFAULT 0,
+    view_count            INTEGER NOT NULL DEFAULT 0,
+    end_time              TIMESTAMPTZ NOT NULL,
+    is_ended              BOOLEAN NOT NULL DEFAULT false
+) WITH (fillfactor = 80);
+
+INSERT INTO product_auction_states (product_id, current_price, highest_bidder_id, bid_count, view_count, end_time, is_ended)
+SELECT id, current_price, highest_bidder_id, bid_count, view_count, end_time, is_ended
+FROM products;
+
+CREATE INDEX idx_auction_states_end_time ON product_auction_states(end_time ASC);
+CREATE INDEX idx_auction_states_price    ON product_auction_states(current_price);
+CREATE INDEX idx_auction_states_active   ON product_auction_states(is_ended, end_time);
+-- Keyset pagination of active products: (sort column, product_id) > cursor
+CREATE INDEX idx_auction_states_active_end_time  ON product_auction_states(end_time, product_id) WHERE is_ended = false;
+CREATE INDEX idx_auction_states_active_price     ON product_auction_states(current_price, product_id) WHERE is_ended = false;
+CREATE INDEX idx_auction_states_active_bid_count ON product_auction_states(bid_count, product_id) WHERE is_ended = false;
+
+-- Indexes on these columns are dropped with them
+ALTER TABLE products
+    DROP COLUMN current_price,
+    DROP COLUMN highest_bidder_id,
+    DROP COLUMN bid_count,
+    DROP COLUMN view_count,
+    DROP COLUMN end_time,
+    DROP COLUMN is_ended;
+
+COMMIT;
+
+-- Reclaim the space of the dropped columns (rewrites the table, takes a lock)
+VACUUM FULL ANALYZE products;
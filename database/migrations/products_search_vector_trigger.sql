@@ -0,0 +1,24 @@
+-- Replace the search_vector trigger of an existing database, which re-tokenized
+-- title and description on every UPDATE of products, with the two triggers of
+-- schema.sql section 4 (INSERT, and UPDATE of title or description only).
+-- Run once:
+--   psql -d online_auction -f database/migrations/products_search_vector_trigger.sql
+
+BEGIN;
+
+DROP TRIGGER IF EXISTS products_search_vector_trigger ON products;
+
+CREATE TRIGGER products_search_vector_insert_trigger
+BEFORE INSERT ON products
+FOR EACH ROW
+EXECUTE FUNCTION products_search_vector_update();
+
+-- Only re-tokenize when the text changed, not on bids, views or closing
+-- (see database/benchmarks/bid_update_search_vector.sql)
+CREATE TRIGGER products_search_vector_update_trigger
+BEFORE UPDATE OF title, description ON products
+FOR EACH ROW
+WHEN (OLD.title IS DISTINCT FROM NEW.title OR OLD.description IS DISTINCT FROM NEW.description)
+EXECUTE FUNCTION products_search_vector_update();
+
+COMMIT;
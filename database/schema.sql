@@ -91,7 +91,6 @@ CREATE TABLE products (
     description           TEXT NOT NULL,
     
     starting_price        DECIMAL(15,2) NOT NULL CHECK (starting_price > 0),
-    current_price         DECIMAL(15,2) NOT NULL,
     buy_now_price         DECIMAL(15,2),                    -- NULL = no buy-now
     price_step            DECIMAL(15,2) NOT NULL CHECK (price_step > 0),
     
@@ -99,15 +98,9 @@ CREATE TABLE products (
     allow_unrated_bidders BOOLEAN NOT NULL DEFAULT false,
     
     start_time            TIMESTAMPTZ NOT NULL DEFAULT NOW(),
-    end_time              TIMESTAMPTZ NOT NULL,
     
     winner_id             BIGINT REFERENCES users(id),
-    highest_bidder_id     BIGINT REFERENCES users(id),              -- current highest (for quick access)
-    
-    bid_count             INTEGER NOT NULL DEFAULT 0,
-    view_count            INTEGER NOT NULL DEFAULT 0,
     
-    is_ended              BOOLEAN NOT NULL DEFAULT false,
     created_at            TIMESTAMPTZ NOT NULL DEFAULT NOW(),
     updated_at            TIMESTAMPTZ NOT NULL DEFAULT NOW(),
 
@@ -118,11 +111,8 @@ CREATE TABLE products (
 -- Full-text search indexes
 CREATE INDEX idx_products_fts          ON products USING GIN(search_vector);
 CREATE INDEX idx_products_slug         ON products(slug);
-CREATE INDEX idx_products_end_time     ON products(end_time ASC);
 CREATE INDEX idx_products_created      ON products(created_at DESC);
-CREATE INDEX idx_products_price        ON products(current_price);
 CREATE INDEX idx_products_category     ON products(category_id);
-CREATE INDEX idx_products_active       ON products(is_ended, end_time);
 
 -- Trigger function to automatically update search_vector
 CREATE OR REPLACE FUNCTION products_search_vector_update() RETURNS trigger AS $$
@@ -134,11 +124,41 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql;
 
-CREATE TRIGGER products_search_vector_trigger
-BEFORE INSERT OR UPDATE ON products
+CREATE TRIGGER products_search_vector_insert_trigger
+BEFORE INSERT ON products
 FOR EACH ROW
 EXECUTE FUNCTION products_search_vector_update();
 
+-- Only re-tokenize when the text changed, not on bids, views or closing
+-- (see database/benchmarks/bid_update_search_vector.sql)
+CREATE TRIGGER products_search_vector_update_trigger
+BEFORE UPDATE OF title, description ON products
+FOR EACH ROW
+WHEN (OLD.title IS DISTINCT FROM NEW.title OR OLD.description IS DISTINCT FROM NEW.description)
+EXECUTE FUNCTION products_search_vector_update();
+
+-- 4.1. Product auction state (hot columns, updated on every bid/view)
+-- Kept out of the wide products row so a bid writes a small tuple and doesn't
+-- touch the products indexes
+CREATE TABLE product_auction_states (
+    product_id            BIGINT PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+    current_price         DECIMAL(15,2) NOT NULL,
+    highest_bidder_id     BIGINT REFERENCES users(id),              -- current highest (for quick access)
+    bid_count             INTEGER NOT NULL DEFAULT 0,
+    view_count            INTEGER NOT NULL DEFAULT 0,
+    end_time              TIMESTAMPTZ NOT NULL,                     -- moves forward on auto-extend
+    is_ended              BOOLEAN NOT NULL DEFAULT false,
+    state_version         BIGINT NOT NULL DEFAULT 0                 -- +1 per bid change, orders change events
+) WITH (fillfactor = 80); -- room for HOT updates of the counters
+
+CREATE INDEX idx_auction_states_end_time ON product_auction_states(end_time ASC);
+CREATE INDEX idx_auction_states_price    ON product_auction_states(current_price);
+CREATE INDEX idx_auction_states_active   ON product_auction_states(is_ended, end_time);
+-- Keyset pagination of active products: (sort column, product_id) > cursor
+CREATE INDEX idx_auction_states_active_end_time  ON product_auction_states(end_time, product_id) WHERE is_ended = false;
+CREATE INDEX idx_auction_states_active_price     ON product_auction_states(current_price, product_id) WHERE is_ended = false;
+CREATE INDEX idx_auction_states_active_bid_count ON product_auction_states(bid_count, product_id) WHERE is_ended = false;
+
 -- 5. Product Images (min 3 + 1 primary)
 CREATE TABLE product_images (
     id          BIGSERIAL PRIMARY KEY,
@@ -284,4 +304,21 @@ CREATE TABLE system_configs (
     value       TEXT NOT NULL,
     description TEXT,
     updated_at  TIMESTAMPTZ NOT NULL DEFAULT NOW()
-);
\ No newline at end of file
+);
+-- 16. Email outbox (queued in the same transaction as the event, sent by a background worker)
+CREATE TABLE email_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    dedup_key       VARCHAR(64) NOT NULL UNIQUE, -- SHA-256 of template + recipient + event reference
+    recipient       VARCHAR(255) NOT NULL,
+    template        VARCHAR(50) NOT NULL,
+    subject         VARCHAR(500) NOT NULL,
+    body            TEXT NOT NULL,
+    status          VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'SENT', 'FAILED')),
+    attempts        INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    last_error      TEXT,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    sent_at         TIMESTAMPTZ
+);
+
+CREATE INDEX idx_email_outbox_due ON email_outbox(status, next_attempt_at);
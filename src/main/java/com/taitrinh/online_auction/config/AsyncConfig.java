@@ -0,0 +1,97 @@
+package com.taitrinh.online_auction.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncConfig {
+
+    @Value("${email.executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${email.executor.core-pool-size:4}")
+    private int corePoolSize;
+
+    @Value("${email.executor.max-pool-size:8}")
+    private int maxPoolSize;
+
+    @Value("${email.executor.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${scheduling.pool-size:4}")
+    private int schedulingPoolSize;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Bounded executor the email outbox is drained on. When the queue is full the
+     * caller sends the email itself, which slows down the drain instead of
+     * queueing unbounded SMTP work in the heap. On shutdown in-flight sends are
+     * allowed to finish; anything cut off stays in the outbox and is retried.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("email-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("email-", 0).factory());
+        }
+
+        Counter rejected = Counter.builder("email.executor.rejected")
+                .description("Email tasks run on the caller thread because the queue was full")
+                .register(meterRegistry);
+        ThreadPoolExecutor.CallerRunsPolicy callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            log.warn("Email queue full ({} tasks), sending on caller thread", pool.getQueue().size());
+            callerRuns.rejectedExecution(task, pool);
+        });
+
+        Gauge.builder("email.executor.queue.size", executor, AsyncConfig::queueDepth)
+                .description("Email tasks waiting in the executor queue")
+                .register(meterRegistry);
+
+        return executor;
+    }
+
+    /**
+     * Scheduler the @Scheduled jobs run on. The STOMP broker registers a
+     * TaskScheduler of its own, so this one is picked by its name; without it
+     * every job would share a single thread and a long index rebuild would
+     * delay closing auctions.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(schedulingPoolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+
+    private static double queueDepth(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            // Executor not initialized yet
+            return 0;
+        }
+    }
+}
@@ -171,6 +171,21 @@ public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
                     log.debug("User {} authorized for chat channel of product {}", userId, productId);
                 }
 
+                // Per-user queues: only via /user/queue/..., which resolves to the caller's own
+                // sessions. The resolved /queue/...-user{sessionId} destinations are off limits.
+                if (destination != null && destination.startsWith("/queue/")) {
+                    log.warn("Direct subscription attempt to user queue: {}", destination);
+                    throw new SecurityException("Subscribe to /user/queue/... instead");
+                }
+                if (destination != null && destination.startsWith("/user/")) {
+                    Authentication auth = (Authentication) accessor.getUser();
+
+                    if (auth == null || !(auth.getPrincipal() instanceof UserDetailsImpl)) {
+                        log.warn("Unauthorized subscription attempt to user queue: {}", destination);
+                        throw new SecurityException("Authentication required for user queue");
+                    }
+                }
+
                 // Check if subscribing to order status channels (buyer and seller only)
                 if (destination != null && destination.matches("/topic/order/\\d+/status")) {
                     Authentication auth = (Authentication) accessor.getUser();
@@ -1,13 +1,21 @@
 package com.taitrinh.online_auction.config;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -18,16 +26,94 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
 
+    // Channel executors (inbound = client -> server, outbound = server -> client)
+    @Value("${websocket.executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${websocket.executor.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.executor.inbound.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.executor.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.executor.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.executor.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.executor.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.executor.broker.core-pool-size:4}")
+    private int brokerCorePoolSize;
+
+    @Value("${websocket.executor.broker.max-pool-size:8}")
+    private int brokerMaxPoolSize;
+
+    @Value("${websocket.executor.broker.queue-capacity:2000}")
+    private int brokerQueueCapacity;
+
+    // Per-session limits - sessions exceeding them are closed as slow consumers
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.heartbeat.interval-ms:10000}")
+    private long heartbeatIntervalMs;
+
     private final WebSocketAuthChannelInterceptor webSocketAuthChannelInterceptor;
+    private final WebSocketSessionMetrics webSocketSessionMetrics;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Dedicated scheduler for STOMP heartbeats so heartbeat ticks never wait
+     * behind application @Scheduled jobs. Not a bean: another TaskScheduler bean
+     * would compete with the one the @Scheduled jobs run on, so its lifecycle
+     * is handled here.
+     */
+    private final ThreadPoolTaskScheduler heartbeatScheduler = buildHeartbeatScheduler();
+
+    private static ThreadPoolTaskScheduler buildHeartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ws-heartbeat-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @PreDestroy
+    public void shutdownHeartbeatScheduler() {
+        heartbeatScheduler.shutdown();
+    }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple in-memory message broker
-        // Clients subscribe to /topic/* to receive messages
-        config.enableSimpleBroker("/topic");
+        // Clients subscribe to /topic/* to receive messages, and to
+        // /user/queue/* for messages addressed to them only
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[] { heartbeatIntervalMs, heartbeatIntervalMs })
+                .setTaskScheduler(heartbeatScheduler);
 
         // Prefix for messages from clients (if we add client->server messaging later)
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
+
+        // Outbound is served by a thread pool, keep per-session message order
+        config.setPreservePublishOrder(true);
+
+        config.configureBrokerChannel().taskExecutor(
+                buildChannelExecutor("broker", brokerCorePoolSize, brokerMaxPoolSize, brokerQueueCapacity));
     }
 
     @Override
@@ -37,11 +123,67 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOrigins(allowedOrigins.split(","))
                 .withSockJS();
+
+        // Inbound is served by a thread pool, keep per-session message order
+        registry.setPreserveReceiveOrder(true);
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         // Register our authentication interceptor
         registration.interceptors(webSocketAuthChannelInterceptor);
+        registration.taskExecutor(
+                buildChannelExecutor("inbound", inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(
+                buildChannelExecutor("outbound", outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(webSocketSessionMetrics);
+    }
+
+    /**
+     * Build a bounded channel executor. When the queue is full the submitting
+     * thread runs the task itself, which pushes back on the producer instead of
+     * growing the heap. Lifecycle (initialize/shutdown) is handled by Spring since
+     * the executor is exposed as the channel executor bean.
+     */
+    private ThreadPoolTaskExecutor buildChannelExecutor(String channel, int corePoolSize, int maxPoolSize,
+            int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("ws-" + channel + "-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("ws-" + channel + "-", 0).factory());
+        }
+
+        Gauge.builder("websocket.channel.queue.size", executor, WebSocketConfig::queueDepth)
+                .description("Messages waiting in the channel executor queue")
+                .tag("channel", channel)
+                .register(meterRegistry);
+
+        return executor;
+    }
+
+    private static double queueDepth(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            // Executor not initialized yet
+            return 0;
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.taitrinh.online_auction.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks WebSocket session lifecycle for monitoring.
+ * Sessions closed with SESSION_NOT_RELIABLE are the ones Spring terminated
+ * because they exceeded the send buffer or send time limit (slow consumers).
+ */
+@Component
+@Slf4j
+public class WebSocketSessionMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Counter droppedSessions;
+
+    public WebSocketSessionMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("websocket.sessions.active", activeSessions, AtomicInteger::get)
+                .description("Number of open WebSocket sessions")
+                .register(meterRegistry);
+        this.droppedSessions = Counter.builder("websocket.sessions.dropped")
+                .description("Sessions terminated for exceeding send buffer or send time limits")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                activeSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                activeSessions.decrementAndGet();
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    droppedSessions.increment();
+                    log.warn("Dropped slow WebSocket session {}: {}", session.getId(), closeStatus.getReason());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+}
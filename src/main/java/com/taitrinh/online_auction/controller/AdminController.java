@@ -22,6 +22,7 @@ import com.taitrinh.online_auction.dto.admin.AdminStatisticsOverviewResponse;
 import com.taitrinh.online_auction.dto.admin.BasicStatisticsResponse;
 import com.taitrinh.online_auction.dto.admin.CategoryRevenueResponse;
 import com.taitrinh.online_auction.dto.admin.ChangeUserRoleRequest;
+import com.taitrinh.online_auction.dto.admin.EmailOutboxStatsResponse;
 import com.taitrinh.online_auction.dto.admin.LeaderboardEntryResponse;
 import com.taitrinh.online_auction.dto.admin.PendingPaymentsResponse;
 import com.taitrinh.online_auction.dto.admin.SystemConfigResponse;
@@ -29,14 +30,17 @@ import com.taitrinh.online_auction.dto.admin.UpdateSystemConfigRequest;
 import com.taitrinh.online_auction.dto.admin.UpgradeRequestResponse;
 import com.taitrinh.online_auction.dto.admin.UserDetailResponse;
 import com.taitrinh.online_auction.dto.admin.UserListResponse;
+import com.taitrinh.online_auction.dto.admin.WatchedProductResponse;
 import com.taitrinh.online_auction.entity.SystemConfig;
 import com.taitrinh.online_auction.enums.TimePeriod;
 import com.taitrinh.online_auction.mapper.SystemConfigMapper;
 import com.taitrinh.online_auction.security.UserDetailsImpl;
 import com.taitrinh.online_auction.service.AdminStatisticsService;
 import com.taitrinh.online_auction.service.ConfigService;
+import com.taitrinh.online_auction.service.ProductViewerService;
 import com.taitrinh.online_auction.service.UpgradeRequestService;
 import com.taitrinh.online_auction.service.UserService;
+import com.taitrinh.online_auction.service.email.EmailOutboxService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -59,6 +63,8 @@ public class AdminController {
     private final ConfigService configService;
     private final SystemConfigMapper systemConfigMapper;
     private final AdminStatisticsService adminStatisticsService;
+    private final ProductViewerService productViewerService;
+    private final EmailOutboxService emailOutboxService;
 
     // ===== User Management =====
 
@@ -206,6 +212,22 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.ok(response, "Bảng xếp hạng đã được lấy thành công"));
     }
 
+    @GetMapping("/products/most-watched")
+    @Operation(summary = "Get most watched products (ADMIN only)", description = "Get products with the most live viewers right now (in-memory, reset on restart)")
+    public ResponseEntity<ApiResponse<List<WatchedProductResponse>>> getMostWatchedProducts(
+            @Parameter(description = "Number of products to return", example = "10") @RequestParam(defaultValue = "10") @Min(1) int limit) {
+
+        List<WatchedProductResponse> products = productViewerService.getMostWatched(limit);
+        return ResponseEntity.ok(ApiResponse.ok(products, "Danh sách sản phẩm được xem nhiều nhất đã được lấy thành công"));
+    }
+
+    @GetMapping("/email-outbox")
+    @Operation(summary = "Get email outbox backlog (ADMIN only)", description = "Get the number of pending, failed and recently sent emails in the outbox")
+    public ResponseEntity<ApiResponse<EmailOutboxStatsResponse>> getEmailOutboxStats() {
+        EmailOutboxStatsResponse stats = emailOutboxService.getStats();
+        return ResponseEntity.ok(ApiResponse.ok(stats, "Thống kê hàng đợi email đã được lấy thành công"));
+    }
+
     // ===== System Configuration =====
 
     @GetMapping("/configs")
@@ -11,12 +11,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.taitrinh.online_auction.dto.ApiResponse;
 import com.taitrinh.online_auction.dto.bid.BidRequest;
 import com.taitrinh.online_auction.dto.bid.BidResponse;
 import com.taitrinh.online_auction.security.UserDetailsImpl;
 import com.taitrinh.online_auction.service.BidService;
+import com.taitrinh.online_auction.service.ResourceVersions;
+import com.taitrinh.online_auction.util.ConditionalGetUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -31,6 +34,7 @@ import lombok.RequiredArgsConstructor;
 public class BidController {
 
     private final BidService bidService;
+    private final ResourceVersions resourceVersions;
 
     @Operation(summary = "Place an automatic bid", description = "Place a bid with your maximum willing amount. System will automatically outbid others up to this amount.", security = @SecurityRequirement(name = "Bearer Authentication"))
     @PostMapping("/products/{productId}/bids")
@@ -47,11 +51,14 @@ public class BidController {
     @GetMapping("/products/{productId}/bids")
     public ResponseEntity<ApiResponse<List<BidResponse>>> getBidHistory(
             @PathVariable Long productId,
-            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            WebRequest webRequest) {
 
         Long viewerId = userDetails != null ? userDetails.getUserId() : null;
-        List<BidResponse> bids = bidService.getBidHistory(productId, viewerId);
-        return ResponseEntity.ok(ApiResponse.ok(bids));
+        String eTag = resourceVersions.eTagForViewer("bids", viewerId, productId,
+                resourceVersions.getProductVersion(productId));
+        return ConditionalGetUtil.forViewer(webRequest, eTag, viewerId,
+                () -> ApiResponse.ok(bidService.getBidHistory(productId, viewerId)));
     }
 
     @Operation(summary = "[SELLER] Reject a bidder", description = "Remove all bids from a specific bidder. Only product seller can do this. Recalculates highest bidder.", security = @SecurityRequirement(name = "Bearer Authentication"))
@@ -2,6 +2,7 @@ package com.taitrinh.online_auction.controller;
 
 import java.util.List;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,11 +14,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.taitrinh.online_auction.dto.ApiResponse;
+import com.taitrinh.online_auction.dto.category.CategoryActiveCountResponse;
 import com.taitrinh.online_auction.dto.category.CategoryResponse;
 import com.taitrinh.online_auction.dto.category.CreateCategoryRequest;
 import com.taitrinh.online_auction.service.CategoryService;
+import com.taitrinh.online_auction.util.ConditionalGetUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,43 +37,54 @@ public class CategoryController {
 
     private final CategoryService categoryService;
 
-    @GetMapping
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get all categories", description = "Retrieve all categories in 2-level hierarchy (parent -> children)")
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAllCategories() {
-        List<CategoryResponse> categories = categoryService.getAllCategoriesHierarchy();
-        return ResponseEntity.ok(ApiResponse.ok(categories, "Danh mục đã được lấy thành công"));
+    public ResponseEntity<byte[]> getAllCategories(WebRequest webRequest) {
+        return ConditionalGetUtil.shared(webRequest, categoryService.getETag(),
+                () -> categoryService.getAllCategoriesHierarchyResponseBody("Danh mục đã được lấy thành công"));
+    }
+
+    @GetMapping("/active-counts")
+    @Operation(summary = "Get active auction counts", description = "Number of active auctions in every category; parent categories include their sub-categories (for category navigation)")
+    public ResponseEntity<ApiResponse<List<CategoryActiveCountResponse>>> getActiveCounts(WebRequest webRequest) {
+        return ConditionalGetUtil.shared(webRequest, categoryService.getETag(),
+                () -> ApiResponse.ok(categoryService.getActiveCounts(),
+                        "Số lượng sản phẩm đang đấu giá theo danh mục đã được lấy thành công"));
     }
 
     @GetMapping("/parents")
     @Operation(summary = "Get all parent categories", description = "Retrieve all top-level categories without children")
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getParentCategories() {
-        List<CategoryResponse> categories = categoryService.getAllParentCategories();
-        return ResponseEntity.ok(ApiResponse.ok(categories, "Danh mục cha đã được lấy thành công"));
+    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getParentCategories(WebRequest webRequest) {
+        return ConditionalGetUtil.shared(webRequest, categoryService.getETag(),
+                () -> ApiResponse.ok(categoryService.getAllParentCategories(), "Danh mục cha đã được lấy thành công"));
     }
 
     /* We don't use this endpoint on product, but the endpoint below */
     @GetMapping("/id/{id}")
     @Operation(summary = "Get category by ID", description = "Retrieve a specific category with its children")
     public ResponseEntity<ApiResponse<CategoryResponse>> getCategoryById(
-            @Parameter(description = "Category ID", example = "1") @PathVariable Integer id) {
-        CategoryResponse category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(ApiResponse.ok(category, "Danh mục đã được lấy thành công"));
+            @Parameter(description = "Category ID", example = "1") @PathVariable Integer id,
+            WebRequest webRequest) {
+        return ConditionalGetUtil.shared(webRequest, categoryService.getETag(),
+                () -> ApiResponse.ok(categoryService.getCategoryById(id), "Danh mục đã được lấy thành công"));
     }
 
     @GetMapping("/slug")
     @Operation(summary = "Get category by slug", description = "Retrieve a specific category by its slug. Supports hierarchical slugs with forward slashes (e.g., 'dien-tu/dien-thoai-di-dong')")
     public ResponseEntity<ApiResponse<CategoryResponse>> getCategoryBySlug(
-            @Parameter(description = "Category slug (can include forward slashes for hierarchical categories)", example = "dien-tu/dien-thoai-di-dong") @RequestParam String slug) {
-        CategoryResponse category = categoryService.getCategoryBySlug(slug);
-        return ResponseEntity.ok(ApiResponse.ok(category, "Danh mục đã được lấy thành công"));
+            @Parameter(description = "Category slug (can include forward slashes for hierarchical categories)", example = "dien-tu/dien-thoai-di-dong") @RequestParam String slug,
+            WebRequest webRequest) {
+        return ConditionalGetUtil.shared(webRequest, categoryService.getETag(),
+                () -> ApiResponse.ok(categoryService.getCategoryBySlug(slug), "Danh mục đã được lấy thành công"));
     }
 
     @GetMapping("/{parentId}/sub-categories")
     @Operation(summary = "Get sub-categories", description = "Retrieve all sub-categories of a parent category")
     public ResponseEntity<ApiResponse<List<CategoryResponse>>> getSubCategories(
-            @Parameter(description = "Parent category ID", example = "1") @PathVariable Integer parentId) {
-        List<CategoryResponse> subCategories = categoryService.getSubCategories(parentId);
-        return ResponseEntity.ok(ApiResponse.ok(subCategories, "Sub-categories đã được lấy thành công"));
+            @Parameter(description = "Parent category ID", example = "1") @PathVariable Integer parentId,
+            WebRequest webRequest) {
+        return ConditionalGetUtil.shared(webRequest, categoryService.getETag(),
+                () -> ApiResponse.ok(categoryService.getSubCategories(parentId), "Sub-categories đã được lấy thành công"));
     }
 
     @PostMapping
@@ -13,12 +13,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.taitrinh.online_auction.dto.ApiResponse;
 import com.taitrinh.online_auction.dto.comment.CommentResponse;
 import com.taitrinh.online_auction.dto.comment.CreateCommentRequest;
 import com.taitrinh.online_auction.security.UserDetailsImpl;
 import com.taitrinh.online_auction.service.CommentService;
+import com.taitrinh.online_auction.service.ResourceVersions;
+import com.taitrinh.online_auction.util.ConditionalGetUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -34,18 +37,22 @@ import lombok.RequiredArgsConstructor;
 public class CommentController {
 
     private final CommentService commentService;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping("/product/{productId}")
     @Operation(summary = "Get comments for a product", description = "Retrieve all Q&A comments for a product in threaded format. "
             + "Authentication is optional - sellers see unmasked commenter names on their products.", security = @SecurityRequirement(name = "Bearer Authentication"))
     public ResponseEntity<ApiResponse<List<CommentResponse>>> getProductComments(
             @Parameter(description = "Product ID", example = "1") @PathVariable Long productId,
-            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            WebRequest webRequest) {
 
         Long viewerId = userDetails != null ? userDetails.getUserId() : null;
-        List<CommentResponse> comments = commentService.getProductComments(productId, viewerId);
-        return ResponseEntity.ok(ApiResponse.ok(comments,
-                "Danh sách câu hỏi và câu trả lời đã được lấy thành công"));
+        String eTag = resourceVersions.eTagForViewer("comments", viewerId, productId,
+                resourceVersions.getCommentsVersion(productId));
+        return ConditionalGetUtil.forViewer(webRequest, eTag, viewerId,
+                () -> ApiResponse.ok(commentService.getProductComments(productId, viewerId),
+                        "Danh sách câu hỏi và câu trả lời đã được lấy thành công"));
     }
 
     @PostMapping
@@ -5,6 +5,7 @@ import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -13,12 +14,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -27,13 +31,22 @@ import com.taitrinh.online_auction.dto.product.BidHistoryResponse;
 import com.taitrinh.online_auction.dto.product.CreateProductRequest;
 import com.taitrinh.online_auction.dto.product.CreateProductResponse;
 import com.taitrinh.online_auction.dto.product.CreateProductWithFilesRequest;
+import com.taitrinh.online_auction.dto.product.CursorSliceResponse;
 import com.taitrinh.online_auction.dto.product.DescriptionLogResponse;
+import com.taitrinh.online_auction.dto.product.ProductEventsResponse;
 import com.taitrinh.online_auction.dto.product.ProductDetailResponse;
 import com.taitrinh.online_auction.dto.product.ProductListResponse;
 import com.taitrinh.online_auction.dto.product.ProductSearchRequest;
+import com.taitrinh.online_auction.dto.product.SearchFacetResponse;
+import com.taitrinh.online_auction.dto.product.SuggestionResponse;
 import com.taitrinh.online_auction.dto.product.UpdateProductDescriptionRequest;
 import com.taitrinh.online_auction.security.UserDetailsImpl;
+import com.taitrinh.online_auction.service.ProductEventLogService;
+import com.taitrinh.online_auction.service.ProductEventStreamService;
+import com.taitrinh.online_auction.service.ProductLeaderboards;
 import com.taitrinh.online_auction.service.ProductService;
+import com.taitrinh.online_auction.service.ResourceVersions;
+import com.taitrinh.online_auction.util.ConditionalGetUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -44,6 +57,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 
@@ -54,28 +68,29 @@ import lombok.RequiredArgsConstructor;
 public class ProductController {
 
         private final ProductService productService;
+        private final ProductEventLogService productEventLogService;
+        private final ProductEventStreamService productEventStreamService;
+        private final ProductLeaderboards productLeaderboards;
+        private final ResourceVersions resourceVersions;
 
-        @GetMapping("/top/ending-soon")
+        @GetMapping(value = "/top/ending-soon", produces = MediaType.APPLICATION_JSON_VALUE)
         @Operation(summary = "Get top 5 products ending soon", description = "Retrieve 5 products with nearest end time (for homepage)")
-        public ResponseEntity<ApiResponse<List<ProductListResponse>>> getTop5EndingSoon() {
-                List<ProductListResponse> products = productService.getTop5EndingSoon();
-                return ResponseEntity.ok(ApiResponse.ok(products,
+        public ResponseEntity<byte[]> getTop5EndingSoon() {
+                return ResponseEntity.ok(productLeaderboards.getResponseBody(ProductLeaderboards.Board.ENDING_SOON,
                                 "Top 5 sản phẩm sắp kết thúc đã được lấy thành công"));
         }
 
-        @GetMapping("/top/most-bids")
+        @GetMapping(value = "/top/most-bids", produces = MediaType.APPLICATION_JSON_VALUE)
         @Operation(summary = "Get top 5 products with most bids", description = "Retrieve 5 products with highest bid count (for homepage)")
-        public ResponseEntity<ApiResponse<List<ProductListResponse>>> getTop5ByBidCount() {
-                List<ProductListResponse> products = productService.getTop5ByBidCount();
-                return ResponseEntity.ok(ApiResponse.ok(products,
+        public ResponseEntity<byte[]> getTop5ByBidCount() {
+                return ResponseEntity.ok(productLeaderboards.getResponseBody(ProductLeaderboards.Board.MOST_BIDS,
                                 "Top 5 sản phẩm với số lượng đấu giá cao nhất đã được lấy thành công"));
         }
 
-        @GetMapping("/top/highest-price")
+        @GetMapping(value = "/top/highest-price", produces = MediaType.APPLICATION_JSON_VALUE)
         @Operation(summary = "Get top 5 products with highest price", description = "Retrieve 5 products with highest current price (for homepage)")
-        public ResponseEntity<ApiResponse<List<ProductListResponse>>> getTop5ByPrice() {
-                List<ProductListResponse> products = productService.getTop5ByPrice();
-                return ResponseEntity.ok(ApiResponse.ok(products,
+        public ResponseEntity<byte[]> getTop5ByPrice() {
+                return ResponseEntity.ok(productLeaderboards.getResponseBody(ProductLeaderboards.Board.HIGHEST_PRICE,
                                 "Top 5 sản phẩm với giá cao nhất đã được lấy thành công"));
         }
 
@@ -101,6 +116,30 @@ public class ProductController {
                                 "Sản phẩm trong danh mục đã được lấy thành công"));
         }
 
+        @GetMapping("/category/{categoryId}/cursor")
+        @Operation(summary = "Get products by category (cursor pagination)", description = "Same as /category/{categoryId}, "
+                        + "but paginated with a cursor instead of a page number and without a total count. "
+                        + "Pass the returned nextCursor to get the next slice. "
+                        + "Set includeTotal=true for an approximate total (planner estimate).")
+        public ResponseEntity<ApiResponse<CursorSliceResponse<ProductListResponse>>> getProductsByCategoryCursor(
+                        @Parameter(description = "Category ID (works with both parent and leaf categories)", example = "1") @PathVariable Integer categoryId,
+
+                        @Parameter(description = "Cursor from the previous slice (omit for the first slice)") @RequestParam(required = false) String cursor,
+
+                        @Parameter(description = "Slice size", example = "20") @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size,
+
+                        @Parameter(description = "Sort field (endTime, currentPrice, createdAt, bidCount)", example = "endTime") @RequestParam(defaultValue = "endTime") String sortBy,
+
+                        @Parameter(description = "Sort direction (asc/desc)", example = "asc") @RequestParam(defaultValue = "asc") String sortDirection,
+
+                        @Parameter(description = "Include an approximate total", example = "false") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+                CursorSliceResponse<ProductListResponse> products = productService.getProductsByCategoryCursor(
+                                categoryId, cursor, size, sortBy, sortDirection, includeTotal);
+                return ResponseEntity.ok(ApiResponse.ok(products,
+                                "Sản phẩm trong danh mục đã được lấy thành công"));
+        }
+
         @GetMapping("/search")
         @Operation(summary = "Search products", description = "Search products by keyword and/or category with pagination and sorting. "
                         +
@@ -132,6 +171,57 @@ public class ProductController {
                                 "Tìm kiếm sản phẩm đã hoàn thành thành công"));
         }
 
+        @GetMapping("/suggest")
+        @Operation(summary = "Get search suggestions", description = "Typeahead for the search box: categories and active products "
+                        + "whose name has a word starting with the query (accents ignored)")
+        public ResponseEntity<ApiResponse<List<SuggestionResponse>>> suggest(
+                        @Parameter(description = "Partially typed query", example = "dong h") @RequestParam String q,
+
+                        @Parameter(description = "Maximum number of suggestions", example = "8") @RequestParam(defaultValue = "8") @Min(1) @Max(20) Integer limit,
+
+                        @Parameter(description = "Product ranking (bidCount, createdAt)", example = "bidCount") @RequestParam(defaultValue = "bidCount") String sortBy) {
+
+                List<SuggestionResponse> suggestions = productService.suggest(q, limit, sortBy);
+                return ResponseEntity.ok(ApiResponse.ok(suggestions, "Gợi ý tìm kiếm đã được lấy thành công"));
+        }
+
+        @GetMapping("/search/facets")
+        @Operation(summary = "Get search facets", description = "Number of active products matching the keyword in each category, "
+                        + "largest first (for category filters next to search results)")
+        public ResponseEntity<ApiResponse<List<SearchFacetResponse>>> getSearchFacets(
+                        @Parameter(description = "Search keyword", example = "iPhone") @RequestParam String keyword) {
+
+                List<SearchFacetResponse> facets = productService.getSearchFacets(keyword);
+                return ResponseEntity.ok(ApiResponse.ok(facets,
+                                "Thống kê kết quả tìm kiếm theo danh mục đã được lấy thành công"));
+        }
+
+        @GetMapping("/search/cursor")
+        @Operation(summary = "Search products (cursor pagination)", description = "Same filters and sorting as /search, "
+                        + "but paginated with a cursor instead of a page number and without a total count, "
+                        + "so deep pages and infinite scroll stay fast. Pass the returned nextCursor to get the next slice. "
+                        + "Set includeTotal=true for an approximate total (planner estimate).")
+        public ResponseEntity<ApiResponse<CursorSliceResponse<ProductListResponse>>> searchProductsByCursor(
+                        @Parameter(description = "Search keyword", example = "iPhone") @RequestParam(required = false) String keyword,
+
+                        @Parameter(description = "Category ID to filter", example = "5") @RequestParam(required = false) Integer categoryId,
+
+                        @Parameter(description = "Cursor from the previous slice (omit for the first slice)") @RequestParam(required = false) String cursor,
+
+                        @Parameter(description = "Slice size", example = "20") @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size,
+
+                        @Parameter(description = "Sort field (endTime, currentPrice, createdAt, bidCount)", example = "endTime") @RequestParam(defaultValue = "endTime") String sortBy,
+
+                        @Parameter(description = "Sort direction (asc/desc)", example = "asc") @RequestParam(defaultValue = "asc") String sortDirection,
+
+                        @Parameter(description = "Include an approximate total", example = "false") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+                CursorSliceResponse<ProductListResponse> products = productService.searchProductsByCursor(
+                                keyword, categoryId, cursor, size, sortBy, sortDirection, includeTotal);
+                return ResponseEntity.ok(ApiResponse.ok(products,
+                                "Tìm kiếm sản phẩm đã hoàn thành thành công"));
+        }
+
         /* We don't use this endpoint on product, but the endpoint below */
         @GetMapping("/id/{id}")
         @Operation(summary = "Get product details by ID", description = "(For developer only) Retrieve complete information about a specific product including images, "
@@ -155,13 +245,15 @@ public class ProductController {
         public ResponseEntity<ApiResponse<ProductDetailResponse>> getProductDetailBySlug(
                         @Parameter(description = "Product slug", example = "iphone-15-pro-max") @PathVariable String slug,
                         @Parameter(description = "Increment view count", example = "false") @RequestParam(defaultValue = "false") boolean incrementViewCount,
-                        @AuthenticationPrincipal UserDetailsImpl userDetails) {
+                        @AuthenticationPrincipal UserDetailsImpl userDetails,
+                        WebRequest webRequest) {
 
                 Long viewerId = userDetails != null ? userDetails.getUserId() : null;
-                ProductDetailResponse product = productService.getProductDetailBySlug(slug, viewerId,
-                                incrementViewCount);
-                return ResponseEntity.ok(ApiResponse.ok(product,
-                                "Chi tiết sản phẩm đã được lấy thành công"));
+                // Page views must reach the service to be counted, only refreshes are answered with a 304
+                String eTag = incrementViewCount ? null : productService.getProductDetailETag(slug, viewerId);
+                return ConditionalGetUtil.forViewer(webRequest, eTag, viewerId,
+                                () -> ApiResponse.ok(productService.getProductDetailBySlug(slug, viewerId,
+                                                incrementViewCount), "Chi tiết sản phẩm đã được lấy thành công"));
         }
 
         @GetMapping("/{id}/related")
@@ -179,12 +271,41 @@ public class ProductController {
                         + "Authentication is optional - bidders see their own full name, sellers see all names unmasked, others see masked names.", security = @SecurityRequirement(name = "Bearer Authentication"))
         public ResponseEntity<ApiResponse<List<BidHistoryResponse>>> getBidHistory(
                         @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
-                        @AuthenticationPrincipal UserDetailsImpl userDetails) {
+                        @AuthenticationPrincipal UserDetailsImpl userDetails,
+                        WebRequest webRequest) {
 
                 Long viewerId = userDetails != null ? userDetails.getUserId() : null;
-                List<BidHistoryResponse> bidHistory = productService.getBidHistory(id, viewerId);
-                return ResponseEntity.ok(ApiResponse.ok(bidHistory,
-                                "Lịch sử đấu giá đã được lấy thành công"));
+                String eTag = resourceVersions.eTagForViewer("bid-history", viewerId, id,
+                                resourceVersions.getProductVersion(id));
+                return ConditionalGetUtil.forViewer(webRequest, eTag, viewerId,
+                                () -> ApiResponse.ok(productService.getBidHistory(id, viewerId),
+                                                "Lịch sử đấu giá đã được lấy thành công"));
+        }
+
+        @GetMapping("/{id}/events")
+        @Operation(summary = "Get missed realtime events", description = "Retrieve bid and comment events published after the given sequence number (as received over WebSocket). "
+                        + "Use after a reconnect instead of refetching bid history and product detail. "
+                        + "If fullRefetchRequired is true the missed events are no longer buffered and a full refetch is needed.")
+        public ResponseEntity<ApiResponse<ProductEventsResponse>> getEventsSince(
+                        @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
+                        @Parameter(description = "Last sequence number received by the client", example = "1733040000042") @RequestParam(defaultValue = "0") @Min(0) Long since) {
+
+                ProductEventsResponse events = productEventLogService.getEventsSince(id, since);
+                return ResponseEntity.ok(ApiResponse.ok(events,
+                                "Sự kiện của sản phẩm đã được lấy thành công"));
+        }
+
+        @GetMapping(value = "/{id}/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        @Operation(summary = "Stream realtime events (SSE)", description = "Server-Sent Events stream of the public bid and comment events of a product, for read-only watchers. "
+                        + "Event names are 'bids' and 'comments' with the same payloads as the WebSocket topics, event id is the sequence number. "
+                        + "On reconnect the missed events are replayed, or a 'refetch' event is sent if they are no longer buffered. "
+                        + "Only running auctions can be streamed: 404 for unknown products, 410 once the auction has ended.")
+        public SseEmitter streamEvents(
+                        @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
+                        @Parameter(description = "Sent automatically by EventSource on reconnect") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                        @Parameter(description = "Last sequence number received (for the first connection, when the header can't be set)", example = "1733040000042") @RequestParam(required = false) Long lastEventId) {
+
+                return productEventStreamService.subscribe(id, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
         }
 
         @PostMapping
@@ -259,10 +380,13 @@ public class ProductController {
         @GetMapping("/{id}/description-history")
         @Operation(summary = "Get product description change history", description = "Retrieve all description changes for a product ordered by date (newest first). This endpoint shows the history of all description updates made by the seller.")
         public ResponseEntity<ApiResponse<List<DescriptionLogResponse>>> getDescriptionHistory(
-                        @Parameter(description = "Product ID", example = "1") @PathVariable Long id) {
+                        @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
+                        WebRequest webRequest) {
 
-                List<DescriptionLogResponse> history = productService.getDescriptionHistory(id);
-                return ResponseEntity.ok(ApiResponse.ok(history, "Lịch sử thay đổi mô tả đã được lấy thành công"));
+                String eTag = resourceVersions.eTag("description-history", id, resourceVersions.getProductVersion(id));
+                return ConditionalGetUtil.shared(webRequest, eTag,
+                                () -> ApiResponse.ok(productService.getDescriptionHistory(id),
+                                                "Lịch sử thay đổi mô tả đã được lấy thành công"));
         }
 
         @GetMapping("/{id}/description-history/count")
@@ -0,0 +1,29 @@
+package com.taitrinh.online_auction.dto.admin;
+
+import java.time.ZonedDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Email outbox backlog")
+public class EmailOutboxStatsResponse {
+
+    @Schema(description = "Emails waiting to be sent or retried", example = "12")
+    private Long pending;
+
+    @Schema(description = "Emails given up on after the maximum number of attempts", example = "0")
+    private Long failed;
+
+    @Schema(description = "Emails sent in the last hour", example = "340")
+    private Long sentLastHour;
+
+    @Schema(description = "Creation time of the oldest pending email, null if none")
+    private ZonedDateTime oldestPendingAt;
+}
@@ -0,0 +1,21 @@
+package com.taitrinh.online_auction.dto.admin;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Product with its number of live viewers")
+public class WatchedProductResponse {
+
+    @Schema(description = "Product ID", example = "1")
+    private Long productId;
+
+    @Schema(description = "Number of open WebSocket subscriptions to the product's bid channel", example = "37")
+    private Long viewerCount;
+}
@@ -0,0 +1,21 @@
+package com.taitrinh.online_auction.dto.category;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Number of active auctions in a category (including its sub-categories)")
+public class CategoryActiveCountResponse {
+
+    @Schema(description = "Category ID", example = "1")
+    private Integer categoryId;
+
+    @Schema(description = "Active auctions in the category and its sub-categories", example = "128")
+    private Long activeProductCount;
+}
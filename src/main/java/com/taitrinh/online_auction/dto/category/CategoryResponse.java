@@ -42,4 +42,7 @@ public class CategoryResponse {
 
     @Schema(description = "Number of sub-categories", example = "5")
     private Integer childrenCount;
+
+    @Schema(description = "Active auctions in this category and its sub-categories", example = "128")
+    private Long activeProductCount;
 }
@@ -0,0 +1,32 @@
+package com.taitrinh.online_auction.dto.product;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One slice of a cursor (keyset) paginated list, without a total count query")
+public class CursorSliceResponse<T> {
+
+    @Schema(description = "Items of this slice")
+    private List<T> content;
+
+    @Schema(description = "Requested slice size", example = "20")
+    private Integer size;
+
+    @Schema(description = "Whether more items follow this slice", example = "true")
+    private Boolean hasNext;
+
+    @Schema(description = "Cursor to request the next slice with (null on the last slice)", example = "ZW5kVGltZTphc2M6MjAyNS0xMi0xMCAxMDowMDowMCswNzoxMjM")
+    private String nextCursor;
+
+    @Schema(description = "Approximate total from planner statistics (only when requested, for badges - not exact)", example = "1200")
+    private Long approximateTotal;
+}
@@ -0,0 +1,28 @@
+package com.taitrinh.online_auction.dto.product;
+
+import java.util.List;
+
+import com.taitrinh.online_auction.dto.websocket.ProductEvent;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Product events missed since a given sequence number")
+public class ProductEventsResponse {
+
+    @Schema(description = "Latest sequence number of the product (null if no event since server start)", example = "1733040000042")
+    private Long latestSequence;
+
+    @Schema(description = "Missed BidEvent/CommentEvent payloads in sequence order, same shape as the WebSocket messages")
+    private List<ProductEvent> events;
+
+    @Schema(description = "True when the missed events are no longer buffered - refetch bid history and product detail instead", example = "false")
+    private Boolean fullRefetchRequired;
+}
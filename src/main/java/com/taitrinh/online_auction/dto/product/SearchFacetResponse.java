@@ -0,0 +1,21 @@
+package com.taitrinh.online_auction.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Number of active products matching a search in one category")
+public class SearchFacetResponse {
+
+    @Schema(description = "Category ID", example = "5")
+    private Integer categoryId;
+
+    @Schema(description = "Matching active products in the category", example = "42")
+    private Long count;
+}
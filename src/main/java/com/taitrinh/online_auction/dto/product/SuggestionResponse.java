@@ -0,0 +1,35 @@
+package com.taitrinh.online_auction.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Typeahead suggestion: an active product or a category")
+public class SuggestionResponse {
+
+    public enum Type {
+        PRODUCT,
+        CATEGORY
+    }
+
+    @Schema(description = "Suggestion type", example = "PRODUCT")
+    private Type type;
+
+    @Schema(description = "Product ID or category ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Product title or category name", example = "iPhone 15 Pro Max 256GB")
+    private String text;
+
+    @Schema(description = "Slug for the product or category URL", example = "iphone-15-pro-max-256gb-1")
+    private String slug;
+
+    @Schema(description = "Number of bids (products only)", example = "12")
+    private Integer bidCount;
+}
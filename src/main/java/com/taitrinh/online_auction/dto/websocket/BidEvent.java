@@ -14,7 +14,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class BidEvent {
+public class BidEvent implements ProductEvent {
 
     public enum EventType {
         NEW_BID,
@@ -29,6 +29,7 @@ public class BidEvent {
     private String highestBidder;
     private ZonedDateTime endTime;
     private Boolean isEnded;
+    private Long sequence; // Per-product sequence, set when published
 
     // Factory methods for easy event creation
     public static BidEvent newBid(Long productId, BidResponse bid, BigDecimal currentPrice, String highestBidder,
@@ -11,12 +11,13 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class CommentEvent {
+public class CommentEvent implements ProductEvent {
 
     private EventType type;
     private Long productId;
     private CommentResponse comment; // For NEW_COMMENT
     private Long commentId; // For DELETE_COMMENT
+    private Long sequence; // Per-product sequence, set when published
 
     public enum EventType {
         NEW_COMMENT,
@@ -0,0 +1,15 @@
+package com.taitrinh.online_auction.dto.websocket;
+
+/**
+ * Event published on a product's public channels (/topic/product/{id}/...).
+ * Every product event carries a per-product sequence number so a reconnecting
+ * client can ask for only the events it missed.
+ */
+public interface ProductEvent {
+
+    Long getProductId();
+
+    Long getSequence();
+
+    void setSequence(Long sequence);
+}
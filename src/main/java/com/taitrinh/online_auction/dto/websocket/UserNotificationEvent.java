@@ -0,0 +1,56 @@
+package com.taitrinh.online_auction.dto.websocket;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserNotificationEvent {
+
+    public enum EventType {
+        OUTBID,
+        WINNING,
+        BID_REJECTED
+    }
+
+    private EventType type;
+    private Long productId;
+    private String productTitle;
+    private String productSlug;
+    private BigDecimal currentPrice;
+    private ZonedDateTime timestamp;
+
+    // Factory methods for easy event creation
+    public static UserNotificationEvent outbid(Long productId, String productTitle, String productSlug,
+            BigDecimal currentPrice) {
+        return of(EventType.OUTBID, productId, productTitle, productSlug, currentPrice);
+    }
+
+    public static UserNotificationEvent winning(Long productId, String productTitle, String productSlug,
+            BigDecimal currentPrice) {
+        return of(EventType.WINNING, productId, productTitle, productSlug, currentPrice);
+    }
+
+    public static UserNotificationEvent bidRejected(Long productId, String productTitle, String productSlug) {
+        return of(EventType.BID_REJECTED, productId, productTitle, productSlug, null);
+    }
+
+    private static UserNotificationEvent of(EventType type, Long productId, String productTitle,
+            String productSlug, BigDecimal currentPrice) {
+        return UserNotificationEvent.builder()
+                .type(type)
+                .productId(productId)
+                .productTitle(productTitle)
+                .productSlug(productSlug)
+                .currentPrice(currentPrice)
+                .timestamp(ZonedDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.taitrinh.online_auction.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewerCountEvent {
+
+    private Long productId;
+    private Long viewerCount;
+}
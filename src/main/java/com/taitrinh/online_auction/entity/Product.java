@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -21,6 +22,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,12 +32,11 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "products", indexes = {
-        @Index(name = "idx_products_end_time", columnList = "end_time"),
         @Index(name = "idx_products_created", columnList = "created_at"),
-        @Index(name = "idx_products_price", columnList = "current_price"),
-        @Index(name = "idx_products_category", columnList = "category_id"),
-        @Index(name = "idx_products_active", columnList = "is_ended, end_time")
+        @Index(name = "idx_products_category", columnList = "category_id")
 })
+// Only write changed columns: a bid must not resend (and re-TOAST) the description
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -68,9 +69,6 @@ public class Product {
     @Column(name = "starting_price", nullable = false, precision = 15, scale = 2)
     private BigDecimal startingPrice;
 
-    @Column(name = "current_price", nullable = false, precision = 15, scale = 2)
-    private BigDecimal currentPrice;
-
     @Column(name = "buy_now_price", precision = 15, scale = 2)
     private BigDecimal buyNowPrice;
 
@@ -89,28 +87,14 @@ public class Product {
     @Builder.Default
     private ZonedDateTime startTime = ZonedDateTime.now();
 
-    @Column(name = "end_time", nullable = false)
-    private ZonedDateTime endTime;
-
     @ManyToOne
     @JoinColumn(name = "winner_id")
     private User winner;
 
-    @ManyToOne
-    @JoinColumn(name = "highest_bidder_id")
-    private User highestBidder;
-
-    @Column(name = "bid_count", nullable = false)
-    @Builder.Default
-    private Integer bidCount = 0;
-
-    @Column(name = "view_count", nullable = false)
-    @Builder.Default
-    private Integer viewCount = 0;
-
-    @Column(name = "is_ended", nullable = false)
-    @Builder.Default
-    private Boolean isEnded = false;
+    // Price, highest bidder, counters, end time and ended flag live in their own
+    // narrow row, so a bid doesn't rewrite the listing data
+    @OneToOne(mappedBy = "product", cascade = CascadeType.ALL, optional = false)
+    private ProductAuctionState auctionState;
 
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -132,6 +116,76 @@ public class Product {
     @Builder.Default
     private List<DescriptionLog> descriptionLogs = new ArrayList<>();
 
+    // Auction state accessors, delegating to auctionState. Getters read null
+    // without one, setters fail (a new product needs initAuctionState)
+
+    public BigDecimal getCurrentPrice() {
+        return auctionState != null ? auctionState.getCurrentPrice() : null;
+    }
+
+    public void setCurrentPrice(BigDecimal currentPrice) {
+        requireAuctionState().setCurrentPrice(currentPrice);
+    }
+
+    public User getHighestBidder() {
+        return auctionState != null ? auctionState.getHighestBidder() : null;
+    }
+
+    public void setHighestBidder(User highestBidder) {
+        requireAuctionState().setHighestBidder(highestBidder);
+    }
+
+    public Integer getBidCount() {
+        return auctionState != null ? auctionState.getBidCount() : null;
+    }
+
+    public void setBidCount(Integer bidCount) {
+        requireAuctionState().setBidCount(bidCount);
+    }
+
+    public Integer getViewCount() {
+        return auctionState != null ? auctionState.getViewCount() : null;
+    }
+
+    public void setViewCount(Integer viewCount) {
+        requireAuctionState().setViewCount(viewCount);
+    }
+
+    public ZonedDateTime getEndTime() {
+        return auctionState != null ? auctionState.getEndTime() : null;
+    }
+
+    public void setEndTime(ZonedDateTime endTime) {
+        requireAuctionState().setEndTime(endTime);
+    }
+
+    public Boolean getIsEnded() {
+        return auctionState != null ? auctionState.getIsEnded() : null;
+    }
+
+    public void setIsEnded(Boolean isEnded) {
+        requireAuctionState().setIsEnded(isEnded);
+    }
+
+    private ProductAuctionState requireAuctionState() {
+        if (auctionState == null) {
+            throw new IllegalStateException("Product " + id + " has no auction state, call initAuctionState first");
+        }
+        return auctionState;
+    }
+
+    /**
+     * Attach a fresh auction state (new product: price at starting price, no
+     * bids)
+     */
+    public void initAuctionState(ZonedDateTime endTime) {
+        this.auctionState = ProductAuctionState.builder()
+                .product(this)
+                .currentPrice(startingPrice)
+                .endTime(endTime)
+                .build();
+    }
+
     // Helper methods
 
     /**
@@ -150,6 +204,7 @@ public class Product {
      * left")
      */
     public boolean isEnding() {
+        ZonedDateTime endTime = getEndTime();
         return endTime != null &&
                 endTime.isBefore(ZonedDateTime.now().plusDays(3));
     }
@@ -169,14 +224,17 @@ public class Product {
      */
     public boolean isEnded() {
         // If manually ended (buy now, cancelled, etc.), respect the database flag
+        Boolean isEnded = getIsEnded();
         if (isEnded != null && isEnded) {
             return true;
         }
         // Otherwise, check if the auction time has naturally expired
+        ZonedDateTime endTime = getEndTime();
         return endTime != null && endTime.isBefore(ZonedDateTime.now());
     }
 
     public boolean shouldAutoExtend(Integer globalExtendTriggerMin) {
+        ZonedDateTime endTime = getEndTime();
         return autoExtend &&
                 endTime != null &&
                 globalExtendTriggerMin != null &&
@@ -0,0 +1,82 @@
+package com.taitrinh.online_auction.entity;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+import org.hibernate.annotations.DynamicUpdate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Fast-changing auction state of a product, split off the wide products row
+ * (title, TEXT description, search vector) so that bids and views only write
+ * this narrow row. Shares the product's primary key.
+ */
+@Entity
+@Table(name = "product_auction_states", indexes = {
+        @Index(name = "idx_auction_states_end_time", columnList = "end_time"),
+        @Index(name = "idx_auction_states_price", columnList = "current_price"),
+        @Index(name = "idx_auction_states_active", columnList = "is_ended, end_time"),
+        // Partial (WHERE is_ended = false) in schema.sql
+        @Index(name = "idx_auction_states_active_end_time", columnList = "end_time, product_id"),
+        @Index(name = "idx_auction_states_active_price", columnList = "current_price, product_id"),
+        @Index(name = "idx_auction_states_active_bid_count", columnList = "bid_count, product_id")
+})
+@DynamicUpdate
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductAuctionState {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @Column(name = "current_price", nullable = false, precision = 15, scale = 2)
+    private BigDecimal currentPrice;
+
+    @ManyToOne
+    @JoinColumn(name = "highest_bidder_id")
+    private User highestBidder;
+
+    @Column(name = "bid_count", nullable = false)
+    @Builder.Default
+    private Integer bidCount = 0;
+
+    @Column(name = "view_count", nullable = false)
+    @Builder.Default
+    private Integer viewCount = 0;
+
+    // Moves forward on auto-extend
+    @Column(name = "end_time", nullable = false)
+    private ZonedDateTime endTime;
+
+    @Column(name = "is_ended", nullable = false)
+    @Builder.Default
+    private Boolean isEnded = false;
+
+    // Incremented in the database by each bid change (ProductRepository.incrementStateVersion)
+    @Column(name = "state_version", nullable = false, insertable = false, updatable = false)
+    private Long stateVersion;
+}
@@ -0,0 +1,17 @@
+package com.taitrinh.online_auction.event;
+
+/**
+ * Published when a category is created, renamed or moved, or deleted.
+ * Listeners use {@code @TransactionalEventListener(phase = AFTER_COMMIT)}.
+ *
+ * @param parentId parent after the change (null for a top-level category or
+ *                 on delete)
+ */
+public record CategoryChangedEvent(Integer categoryId, Type type, Integer parentId) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,39 @@
+package com.taitrinh.online_auction.event;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * Published when a product is created, bid on, has its description appended,
+ * ends or is deleted. Listeners that keep in-memory views of products use
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)}, so they only see
+ * committed changes.
+ *
+ * @param currentPrice price after the change (BID only)
+ * @param bidCount     bid count after the change (BID only)
+ * @param endTime      end time after the change, may have been auto-extended
+ *                     (BID only)
+ * @param stateVersion version of the auction state after the change, higher
+ *                     for later commits; listeners drop a BID older than the
+ *                     one they applied (BID only)
+ */
+public record ProductChangedEvent(Long productId, Type type, BigDecimal currentPrice, Integer bidCount,
+        ZonedDateTime endTime, Long stateVersion) {
+
+    public enum Type {
+        CREATED,
+        BID,
+        DESCRIPTION_UPDATED,
+        ENDED,
+        DELETED
+    }
+
+    public static ProductChangedEvent of(Long productId, Type type) {
+        return new ProductChangedEvent(productId, type, null, null, null, null);
+    }
+
+    public static ProductChangedEvent bid(Long productId, BigDecimal currentPrice, Integer bidCount,
+            ZonedDateTime endTime, Long stateVersion) {
+        return new ProductChangedEvent(productId, Type.BID, currentPrice, bidCount, endTime, stateVersion);
+    }
+}
@@ -16,12 +16,14 @@ public interface CategoryMapper {
     @Mapping(target = "isParent", expression = "java(category.isParent())")
     @Mapping(target = "childrenCount", expression = "java(category.getChildren() != null ? category.getChildren().size() : 0)")
     @Mapping(target = "children", ignore = true)
+    @Mapping(target = "activeProductCount", ignore = true)
     CategoryResponse toResponse(Category category);
 
     @Mapping(target = "parentId", source = "parent.id")
     @Mapping(target = "isParent", expression = "java(category.isParent())")
     @Mapping(target = "childrenCount", expression = "java(category.getChildren() != null ? category.getChildren().size() : 0)")
     @Mapping(target = "children", source = "children", qualifiedByName = "mapChildren")
+    @Mapping(target = "activeProductCount", ignore = true)
     CategoryResponse toResponseWithChildren(Category category);
 
     @Named("mapChildren")
@@ -104,28 +104,40 @@ public abstract class ProductMapper {
         // First get the base response with masked names
         ProductDetailResponse response = toDetailResponse(product);
 
+        User highestBidder = product.getHighestBidder();
+        User winner = product.getWinner();
+        unmaskNames(response, viewerId, isSeller,
+                highestBidder != null ? highestBidder.getId() : null,
+                highestBidder != null ? highestBidder.getFullName() : null,
+                winner != null ? winner.getId() : null,
+                winner != null ? winner.getFullName() : null);
+        return response;
+    }
+
+    // Unmask the names on a masked detail response that the viewer may see
+    // (also applied to cached responses, see ProductDetailCache)
+    public void unmaskNames(ProductDetailResponse response, Long viewerId, boolean isSeller,
+            Long highestBidderId, String highestBidderFullName, Long winnerId, String winnerFullName) {
         if (viewerId == null && !isSeller) {
-            return response;
+            return;
         }
 
         // Unmask highest bidder name if seller viewing OR if viewer is the highest
         // bidder themselves
-        if (product.getHighestBidder() != null) {
-            boolean isHighestBidder = viewerId != null && viewerId.equals(product.getHighestBidder().getId());
+        if (highestBidderId != null) {
+            boolean isHighestBidder = viewerId != null && viewerId.equals(highestBidderId);
             if (isSeller || isHighestBidder) {
-                response.setHighestBidderName(product.getHighestBidder().getFullName());
+                response.setHighestBidderName(highestBidderFullName);
             }
         }
 
         // Unmask winner name if seller viewing OR if viewer is the winner themselves
-        if (product.getWinner() != null) {
-            boolean isWinner = viewerId != null && viewerId.equals(product.getWinner().getId());
+        if (winnerId != null) {
+            boolean isWinner = viewerId != null && viewerId.equals(winnerId);
             if (isSeller || isWinner) {
-                response.setWinnerName(product.getWinner().getFullName());
+                response.setWinnerName(winnerFullName);
             }
         }
-
-        return response;
     }
 
     // Map User to UserBasicInfo
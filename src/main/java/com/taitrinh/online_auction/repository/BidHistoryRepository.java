@@ -16,13 +16,14 @@ import com.taitrinh.online_auction.entity.User;
 @Repository
 public interface BidHistoryRepository extends JpaRepository<BidHistory, Long> {
 
-        // Get bid history for a product, ordered by bid time descending (newest first)
-        @Query("SELECT b FROM BidHistory b WHERE b.product.id = :productId ORDER BY b.createdAt DESC")
+        // Get bid history for a product, ordered by bid time descending (newest first),
+        // with the bidders
+        @Query("SELECT b FROM BidHistory b JOIN FETCH b.bidder WHERE b.product.id = :productId ORDER BY b.createdAt DESC")
         List<BidHistory> findByProductIdOrderByCreatedAtDesc(@Param("productId") Long productId);
 
         // Find bid history for a bidder where product is not ended
         @Query("SELECT b FROM BidHistory b " +
-                        "WHERE b.bidder.id = :bidderId AND b.product.isEnded = false " +
+                        "WHERE b.bidder.id = :bidderId AND b.product.auctionState.isEnded = false " +
                         "ORDER BY b.createdAt DESC")
         Page<BidHistory> findByBidder_IdAndProduct_IsEndedFalse(@Param("bidderId") Long bidderId, Pageable pageable);
 
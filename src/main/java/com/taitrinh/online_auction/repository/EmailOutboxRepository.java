@@ -0,0 +1,57 @@
+package com.taitrinh.online_auction.repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.taitrinh.online_auction.entity.EmailOutbox;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Queue an email unless one with the same dedup key exists. ON CONFLICT
+     * instead of a unique violation, which would abort the caller's transaction.
+     *
+     * @return 1 if queued, 0 if it was a duplicate
+     */
+    @Modifying
+    @Query(value = "INSERT INTO email_outbox (dedup_key, recipient, template, subject, body, status, attempts, next_attempt_at, created_at) "
+            + "VALUES (:dedupKey, :recipient, :template, :subject, :body, 'PENDING', 0, NOW(), NOW()) "
+            + "ON CONFLICT (dedup_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("dedupKey") String dedupKey,
+            @Param("recipient") String recipient,
+            @Param("template") String template,
+            @Param("subject") String subject,
+            @Param("body") String body);
+
+    /**
+     * Lock due emails. SKIP LOCKED lets several instances drain concurrently
+     * without picking the same rows.
+     */
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= NOW() "
+            + "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> findDueForUpdate(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :sentAt, e.lastError = null WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("status") EmailOutbox.Status status,
+            @Param("sentAt") ZonedDateTime sentAt);
+
+    long countByStatus(EmailOutbox.Status status);
+
+    long countByStatusAndSentAtAfter(EmailOutbox.Status status, ZonedDateTime after);
+
+    Optional<EmailOutbox> findFirstByStatusOrderByCreatedAtAsc(EmailOutbox.Status status);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteByStatusAndSentAtBefore(@Param("status") EmailOutbox.Status status,
+            @Param("before") ZonedDateTime before);
+}
@@ -0,0 +1,130 @@
+package com.taitrinh.online_auction.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.taitrinh.online_auction.dto.product.ProductListResponse;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Read path for product cards (list/grid items). Loads the auction state,
+ * category, seller, highest bidder and thumbnail of a page of products in one
+ * statement and maps the rows straight to {@link ProductListResponse}, instead
+ * of mapping entities and lazy-loading those per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductCardRepository {
+
+    // Name masking and rating match ProductMapper.maskUserName and
+    // User.getRatingPercentage. The thumbnail is the primary image, else the first.
+    private static final String CARDS_SQL = """
+            SELECT p.id, p.title, p.slug, img.url AS thumbnail_url,
+                   p.starting_price, s.current_price, p.buy_now_price,
+                   p.allow_unrated_bidders, p.auto_extend,
+                   c.id AS category_id, c.name AS category_name, c.slug AS category_slug,
+                   seller.id AS seller_id, seller.full_name AS seller_name, seller.avatar_url AS seller_avatar_url,
+                   CASE WHEN seller.positive_rating + seller.negative_rating = 0 THEN 0.0
+                        ELSE seller.positive_rating * 100.0 / (seller.positive_rating + seller.negative_rating)
+                   END::double precision AS seller_rating,
+                   bidder.id AS highest_bidder_id,
+                   '****' || right(bidder.full_name, 4) AS highest_bidder_name,
+                   CASE WHEN bidder.id IS NULL THEN NULL
+                        WHEN bidder.positive_rating + bidder.negative_rating = 0 THEN 0.0
+                        ELSE bidder.positive_rating * 100.0 / (bidder.positive_rating + bidder.negative_rating)
+                   END::double precision AS highest_bidder_rating,
+                   s.bid_count, p.created_at, s.end_time,
+                   p.created_at > NOW() - make_interval(mins => :newHighlightMin) AS is_new
+            FROM products p
+            JOIN product_auction_states s ON s.product_id = p.id
+            JOIN categories c ON c.id = p.category_id
+            JOIN users seller ON seller.id = p.seller_id
+            LEFT JOIN users bidder ON bidder.id = s.highest_bidder_id
+            LEFT JOIN LATERAL (
+                SELECT i.url FROM product_images i
+                WHERE i.product_id = p.id
+                ORDER BY i.is_primary DESC, i.sort_order, i.id
+                LIMIT 1
+            ) img ON true
+            WHERE p.id IN (:ids)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Load the cards for the given product ids, in the same order as the ids
+     * (ids that no longer exist are skipped)
+     *
+     * @param newHighlightMin minutes a product counts as new
+     */
+    public List<ProductListResponse> findCardsByIds(List<Long> ids, int newHighlightMin) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("newHighlightMin", newHighlightMin);
+
+        Map<Long, ProductListResponse> cardsById = new HashMap<>();
+        jdbcTemplate.query(CARDS_SQL, params, rs -> {
+            ProductListResponse card = mapCard(rs);
+            cardsById.put(card.getId(), card);
+        });
+
+        List<ProductListResponse> cards = new ArrayList<>(cardsById.size());
+        for (Long id : ids) {
+            ProductListResponse card = cardsById.get(id);
+            if (card != null) {
+                cards.add(card);
+            }
+        }
+        return cards;
+    }
+
+    private ProductListResponse mapCard(ResultSet rs) throws SQLException {
+        return ProductListResponse.builder()
+                .id(rs.getLong("id"))
+                .title(rs.getString("title"))
+                .slug(rs.getString("slug"))
+                .thumbnailUrl(rs.getString("thumbnail_url"))
+                .startingPrice(rs.getBigDecimal("starting_price"))
+                .currentPrice(rs.getBigDecimal("current_price"))
+                .buyNowPrice(rs.getBigDecimal("buy_now_price"))
+                .allowUnratedBidders(rs.getBoolean("allow_unrated_bidders"))
+                .autoExtend(rs.getBoolean("auto_extend"))
+                .categoryId(rs.getInt("category_id"))
+                .categoryName(rs.getString("category_name"))
+                .categorySlug(rs.getString("category_slug"))
+                .sellerId(rs.getLong("seller_id"))
+                .sellerName(rs.getString("seller_name"))
+                .sellerAvatarUrl(rs.getString("seller_avatar_url"))
+                .sellerRating(rs.getDouble("seller_rating"))
+                .highestBidderId(rs.getObject("highest_bidder_id", Long.class))
+                .highestBidderName(rs.getString("highest_bidder_name"))
+                .highestBidderRating(rs.getObject("highest_bidder_rating", Double.class))
+                .bidCount(rs.getInt("bid_count"))
+                .createdAt(toZonedDateTime(rs, "created_at"))
+                .endTime(toZonedDateTime(rs, "end_time"))
+                .isNew(rs.getBoolean("is_new"))
+                .build();
+    }
+
+    // Same zone as the entities loaded by Hibernate
+    private static ZonedDateTime toZonedDateTime(ResultSet rs, String column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value != null ? value.atZoneSameInstant(ZoneId.systemDefault()) : null;
+    }
+}
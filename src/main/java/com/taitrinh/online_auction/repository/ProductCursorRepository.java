@@ -0,0 +1,173 @@
+package com.taitrinh.online_auction.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Keyset (cursor) pagination over active products. Each slice continues after
+ * the (sort value, id) of the previous one instead of skipping OFFSET rows, and
+ * no COUNT(*) is run - deep pages cost the same as the first one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductCursorRepository {
+
+    /**
+     * Sortable fields, with their column, the id column of the same table used
+     * as tie-breaker (so (column, id) is one composite index) and SQL type
+     * (cursor values are sent back as text and cast to it)
+     */
+    public enum SortKey {
+        END_TIME("endTime", "s.end_time", "s.product_id", "timestamptz"),
+        CURRENT_PRICE("currentPrice", "s.current_price", "s.product_id", "numeric"),
+        CREATED_AT("createdAt", "p.created_at", "p.id", "timestamptz"),
+        BID_COUNT("bidCount", "s.bid_count", "s.product_id", "integer");
+
+        private final String field;
+        private final String column;
+        private final String idColumn;
+        private final String sqlType;
+
+        SortKey(String field, String column, String idColumn, String sqlType) {
+            this.field = field;
+            this.column = column;
+            this.idColumn = idColumn;
+            this.sqlType = sqlType;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public static SortKey fromField(String field) {
+            for (SortKey key : values()) {
+                if (key.field.equals(field)) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort field: " + field);
+        }
+    }
+
+    /**
+     * Position after the last item of a slice. Encoded as an opaque URL-safe
+     * string; the sort field and direction are included so a cursor can't be
+     * replayed with a different order.
+     */
+    public record Cursor(SortKey sortKey, boolean descending, String sortValue, long id) {
+
+        public String encode() {
+            String raw = sortKey.field + "|" + (descending ? "desc" : "asc") + "|" + id + "|" + sortValue;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String encoded) {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new Cursor(SortKey.fromField(parts[0]), "desc".equals(parts[1]), parts[3],
+                    Long.parseLong(parts[2]));
+        }
+    }
+
+    public record KeysetSlice(List<Long> ids, boolean hasNext, Cursor nextCursor) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Ids of the next slice of active products
+     *
+     * @param keyword     full-text filter (null for none)
+     * @param categoryIds category filter (null for none)
+     * @param after       cursor of the previous slice (null for the first one)
+     */
+    public KeysetSlice findActiveIds(String keyword, List<Integer> categoryIds, SortKey sortKey,
+            boolean descending, Cursor after, int size) {
+        MapSqlParameterSource params = filterParams(keyword, categoryIds);
+        StringBuilder sql = new StringBuilder("SELECT p.id, ")
+                .append(sortKey.column).append("::text AS sort_value ")
+                .append(fromWhere(keyword, categoryIds));
+
+        if (after != null) {
+            // Row comparison on two columns of one table, a single range condition on
+            // its (sort column, id) index
+            sql.append(" AND (").append(sortKey.column).append(", ").append(sortKey.idColumn).append(") ")
+                    .append(descending ? "<" : ">")
+                    .append(" (CAST(:afterValue AS ").append(sortKey.sqlType).append("), :afterId)");
+            params.addValue("afterValue", after.sortValue())
+                    .addValue("afterId", after.id());
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(sortKey.column).append(direction)
+                .append(", ").append(sortKey.idColumn).append(direction)
+                .append(" LIMIT :limit");
+        // One extra row tells whether another slice follows
+        params.addValue("limit", size + 1);
+
+        List<Long> ids = new ArrayList<>(size + 1);
+        List<String> sortValues = new ArrayList<>(size + 1);
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            ids.add(rs.getLong("id"));
+            sortValues.add(rs.getString("sort_value"));
+        });
+
+        boolean hasNext = ids.size() > size;
+        if (!hasNext) {
+            return new KeysetSlice(ids, false, null);
+        }
+        Cursor next = new Cursor(sortKey, descending, sortValues.get(size - 1), ids.get(size - 1));
+        return new KeysetSlice(ids.subList(0, size), true, next);
+    }
+
+    /**
+     * Row estimate from the planner (EXPLAIN, nothing is counted). Good enough
+     * for "about N results" badges; accuracy depends on how fresh ANALYZE is.
+     */
+    public long estimateActiveCount(String keyword, List<Integer> categoryIds) {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN (FORMAT JSON) SELECT 1 " + fromWhere(keyword, categoryIds),
+                filterParams(keyword, categoryIds), String.class);
+        JsonNode root = jsonMapper.readTree(plan);
+        return root.get(0).get("Plan").get("Plan Rows").asLong();
+    }
+
+    private String fromWhere(String keyword, List<Integer> categoryIds) {
+        StringBuilder sql = new StringBuilder("FROM products p ")
+                .append("JOIN product_auction_states s ON s.product_id = p.id ")
+                .append("WHERE s.is_ended = false");
+        if (keyword != null) {
+            sql.append(" AND p.search_vector @@ plainto_tsquery('simple', unaccent(:keyword))");
+        }
+        if (categoryIds != null) {
+            sql.append(" AND p.category_id = ANY(:categoryIds)");
+        }
+        return sql.toString();
+    }
+
+    private MapSqlParameterSource filterParams(String keyword, List<Integer> categoryIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (keyword != null) {
+            params.addValue("keyword", keyword);
+        }
+        if (categoryIds != null) {
+            // Bound as one int[] parameter, so the statement is the same for any number of ids
+            params.addValue("categoryIds", categoryIds.toArray(Integer[]::new));
+        }
+        return params;
+    }
+}
@@ -1,8 +1,10 @@
 package com.taitrinh.online_auction.repository;
 
+import java.time.ZonedDateTime;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.taitrinh.online_auction.entity.SystemConfig;
@@ -11,4 +13,11 @@ import com.taitrinh.online_auction.entity.SystemConfig;
 public interface SystemConfigRepository extends JpaRepository<SystemConfig, String> {
 
     Optional<SystemConfig> findByKey(String key);
+
+    /**
+     * Latest updated_at across all configs, polled to detect changes made by
+     * other instances
+     */
+    @Query("SELECT MAX(c.updatedAt) FROM SystemConfig c")
+    Optional<ZonedDateTime> findLatestUpdatedAt();
 }
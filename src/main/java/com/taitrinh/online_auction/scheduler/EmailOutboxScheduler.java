@@ -0,0 +1,119 @@
+package com.taitrinh.online_auction.scheduler;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.taitrinh.online_auction.entity.EmailOutbox;
+import com.taitrinh.online_auction.service.email.EmailOutboxService;
+
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the email outbox
+ * Claims due emails in batches, sends them in parallel on the email executor
+ * and records the outcome. Stays under the provider's per-minute quota.
+ */
+@Component
+@Slf4j
+public class EmailOutboxScheduler {
+
+    private final EmailOutboxService emailOutboxService;
+    private final ThreadPoolTaskExecutor emailTaskExecutor;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.per-minute-quota:300}")
+    private int perMinuteQuota;
+
+    @Value("${email.outbox.retention-days:7}")
+    private int retentionDays;
+
+    // Quota window, only touched by the scheduler thread
+    private long windowStart = System.nanoTime();
+    private int sentInWindow;
+
+    public EmailOutboxScheduler(EmailOutboxService emailOutboxService,
+            @Qualifier("emailTaskExecutor") ThreadPoolTaskExecutor emailTaskExecutor) {
+        this.emailOutboxService = emailOutboxService;
+        this.emailTaskExecutor = emailTaskExecutor;
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:2000}")
+    public void drain() {
+        int limit = Math.min(batchSize, remainingQuota());
+        if (limit <= 0) {
+            return;
+        }
+
+        List<EmailOutbox> batch = emailOutboxService.claimDue(limit);
+        if (batch.isEmpty()) {
+            return;
+        }
+        sentInWindow += batch.size();
+
+        List<CompletableFuture<String>> results = batch.stream()
+                .map(email -> CompletableFuture.supplyAsync(() -> deliver(email), emailTaskExecutor))
+                .toList();
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Long id = batch.get(i).getId();
+            String error = results.get(i).join();
+            if (error == null) {
+                sentIds.add(id);
+            } else {
+                emailOutboxService.markFailed(id, error);
+            }
+        }
+        emailOutboxService.markSent(sentIds);
+        log.debug("Email outbox: sent {}/{}", sentIds.size(), batch.size());
+    }
+
+    /**
+     * Remove sent emails after the retention period
+     * Runs daily at 03:00
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void deleteOldSentEmails() {
+        int deleted = emailOutboxService.deleteSentBefore(ZonedDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Deleted {} sent email(s) older than {} days from the outbox", deleted, retentionDays);
+        }
+    }
+
+    /**
+     * @return null if sent, otherwise the error to record
+     */
+    private String deliver(EmailOutbox email) {
+        try {
+            emailOutboxService.deliver(email);
+            return null;
+        } catch (MessagingException | MailException e) {
+            return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+    }
+
+    private int remainingQuota() {
+        if (perMinuteQuota <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        long now = System.nanoTime();
+        if (now - windowStart >= TimeUnit.MINUTES.toNanos(1)) {
+            windowStart = now;
+            sentInWindow = 0;
+        }
+        return perMinuteQuota - sentInWindow;
+    }
+}
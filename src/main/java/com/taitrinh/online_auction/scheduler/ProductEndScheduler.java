@@ -3,11 +3,13 @@ package com.taitrinh.online_auction.scheduler;
 import java.time.ZonedDateTime;
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.taitrinh.online_auction.entity.Product;
+import com.taitrinh.online_auction.event.ProductChangedEvent;
 import com.taitrinh.online_auction.repository.ProductRepository;
 import com.taitrinh.online_auction.service.email.ProductEmailService;
 
@@ -26,6 +28,7 @@ public class ProductEndScheduler {
 
     private final ProductRepository productRepository;
     private final ProductEmailService productEmailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Process products that ended in the last minute
@@ -64,6 +67,7 @@ public class ProductEndScheduler {
         // Mark product as ended
         product.setIsEnded(true);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product.getId(), ProductChangedEvent.Type.ENDED));
 
         log.info("Product {} marked as ended", product.getId());
 
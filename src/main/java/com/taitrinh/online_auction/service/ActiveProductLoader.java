@@ -0,0 +1,387 @@
+package com.taitrinh.online_auction.service;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads active (not ended) products once for every in-memory read model
+ * (category counts, leaderboards, search and suggestion indexes). A full load
+ * is one scan streamed to all subscribers, and a created or changed product
+ * is one SELECT handed to all of them, instead of a scan and a SELECT per
+ * model.
+ *
+ * Subscribers are updated from {@link ProductChangedEvent} after commit, one
+ * change at a time under a single lock. Products changed while a full load
+ * reads are re-read once it is installed, and a row read while its product
+ * changed is not applied as is. BID events may be handled out of commit
+ * order, so one older than the auction state version already applied is
+ * dropped. Reloaded periodically for changes made on other instances, and
+ * retried sooner while no load has succeeded.
+ */
+@Service
+@Slf4j
+public class ActiveProductLoader {
+
+    private static final String LOAD_SQL = "SELECT p.id, p.title, p.slug, p.description, p.category_id, "
+            + "c.parent_id, s.current_price, s.bid_count, s.end_time, p.created_at, s.state_version "
+            + "FROM products p "
+            + "JOIN product_auction_states s ON s.product_id = p.id "
+            + "JOIN categories c ON c.id = p.category_id "
+            + "WHERE s.is_ended = false";
+
+    // A product is re-read this often while it keeps changing, then the last row is applied
+    private static final int MAX_READS = 3;
+
+    /**
+     * An active product as read from the database. Subscribers keep only the
+     * fields they need (the description is only tokenized).
+     */
+    public record ActiveProduct(long id, String title, String slug, String description, int categoryId,
+            Integer parentCategoryId, BigDecimal currentPrice, int bidCount, ZonedDateTime endTime,
+            ZonedDateTime createdAt, long stateVersion) {
+    }
+
+    /**
+     * An in-memory read model of active products. Changes are delivered one at
+     * a time, under the loader's lock; before the first load is installed they
+     * can be ignored.
+     */
+    public interface Subscriber {
+
+        /**
+         * Start a full load into new state, installed when the scan is done
+         */
+        Load startLoad();
+
+        /**
+         * A product was created or read again
+         */
+        void put(ActiveProduct product);
+
+        /**
+         * A product ended, was deleted or is no longer active
+         */
+        void remove(long productId);
+
+        /**
+         * Price, bid count and (auto-extended) end time after a bid
+         */
+        void updateAuctionState(long productId, BigDecimal currentPrice, int bidCount, ZonedDateTime endTime);
+    }
+
+    /**
+     * State being loaded by a full scan
+     */
+    public interface Load {
+
+        void add(ActiveProduct product);
+
+        /**
+         * The scan is done. Runs outside the lock, for the heavy work (sorting,
+         * top lists).
+         */
+        default void complete() {
+        }
+
+        /**
+         * Replace the current state with the loaded one
+         */
+        void install();
+    }
+
+    /**
+     * A product row being read outside the lock. A change to the product
+     * meanwhile makes the row stale.
+     */
+    private static final class PendingRead {
+        boolean changed;
+        boolean removed;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean loaded;
+    // Full loads never overlap
+    private final Object loadLock = new Object();
+
+    // Changes to subscribers serialize on this
+    private final Object lock = new Object();
+    // Products changed while a load was reading, re-read after the swap
+    private Set<Long> changedDuringLoad;
+    // Rows being read by reload outside the lock, by product
+    private final Map<Long, List<PendingRead>> pendingReads = new HashMap<>();
+    // Auction state version applied to the subscribers, by product
+    private Map<Long, Long> stateVersions = new HashMap<>();
+
+    public ActiveProductLoader(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Stream the full load instead of buffering every description
+        this.jdbcTemplate.setFetchSize(1000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Receive full loads and changes. Read models subscribe when they are
+     * created, before the startup load.
+     */
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Load now if no load has succeeded yet, for read models that can't answer
+     * without their state. Throws if the load fails.
+     */
+    public void ensureLoaded() {
+        if (!loaded) {
+            synchronized (loadLock) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    // ===== Maintenance =====
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            switch (event.type()) {
+                case CREATED, DESCRIPTION_UPDATED -> reload(event.productId());
+                case BID -> {
+                    if (event.currentPrice() != null && event.bidCount() != null && event.endTime() != null
+                            && event.stateVersion() != null) {
+                        updateAuctionState(event);
+                    } else {
+                        reload(event.productId());
+                    }
+                }
+                case ENDED, DELETED -> remove(event.productId());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to update active products for product {}, fixed on the next reload",
+                    event.productId(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!subscribers.isEmpty()) {
+            tryLoad();
+        }
+    }
+
+    /**
+     * Retry a failed startup load instead of waiting for the periodic one
+     */
+    @Scheduled(fixedDelayString = "${active-products.retry-interval-ms:60000}", initialDelayString = "${active-products.retry-interval-ms:60000}")
+    public void retryFailedLoad() {
+        if (!loaded && !subscribers.isEmpty()) {
+            tryLoad();
+        }
+    }
+
+    /**
+     * Full reload, picks up products created or ended on other instances and
+     * repairs any update that failed
+     */
+    @Scheduled(fixedDelayString = "${active-products.reload-interval-ms:600000}", initialDelayString = "${active-products.reload-interval-ms:600000}")
+    public void scheduledReload() {
+        if (loaded) {
+            tryLoad();
+        }
+    }
+
+    private void tryLoad() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.error("Failed to load active products, {}", loaded
+                    ? "keeping the previous state" : "retrying in the background", e);
+        }
+    }
+
+    void load() {
+        synchronized (loadLock) {
+            synchronized (lock) {
+                changedDuringLoad = new HashSet<>();
+            }
+            try {
+                long started = System.nanoTime();
+                List<Load> loads = subscribers.stream().map(Subscriber::startLoad).toList();
+                Map<Long, Long> loadedVersions = new HashMap<>();
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(LOAD_SQL, rs -> {
+                    ActiveProduct product = mapProduct(rs);
+                    for (Load load : loads) {
+                        load.add(product);
+                    }
+                    loadedVersions.put(product.id(), product.stateVersion());
+                }));
+                loads.forEach(Load::complete);
+
+                Set<Long> changed;
+                synchronized (lock) {
+                    loads.forEach(Load::install);
+                    stateVersions = loadedVersions;
+                    loaded = true;
+                    changed = changedDuringLoad;
+                    changedDuringLoad = null;
+                }
+                changed.forEach(this::reload);
+
+                log.info("Loaded {} active products into {} read models in {} ms", loadedVersions.size(),
+                        loads.size(), (System.nanoTime() - started) / 1_000_000);
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    changedDuringLoad = null;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Read a product and hand it to the subscribers. The row is read outside
+     * the lock, so it is only applied if the product didn't change meanwhile:
+     * an end or delete stands (an ended product is never re-added), any other
+     * change reads the row again. A row older than the auction state already
+     * applied (a BID handled while it was read) is read again too, and never
+     * applied.
+     */
+    private void reload(Long productId) {
+        for (int attempt = 1;; attempt++) {
+            PendingRead read = new PendingRead();
+            synchronized (lock) {
+                pendingReads.computeIfAbsent(productId, k -> new ArrayList<>(1)).add(read);
+            }
+            List<ActiveProduct> rows;
+            try {
+                rows = jdbcTemplate.query(LOAD_SQL + " AND p.id = ?", (rs, rowNum) -> mapProduct(rs), productId);
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    endRead(productId, read);
+                }
+                throw e;
+            }
+
+            synchronized (lock) {
+                endRead(productId, read);
+                if (read.removed) {
+                    return;
+                }
+                Long applied = stateVersions.get(productId);
+                boolean older = !rows.isEmpty() && applied != null && rows.get(0).stateVersion() < applied;
+                if ((read.changed || older) && attempt < MAX_READS) {
+                    continue;
+                }
+                if (rows.isEmpty()) {
+                    markChanged(productId, true);
+                    stateVersions.remove(productId);
+                    subscribers.forEach(subscriber -> subscriber.remove(productId));
+                } else if (!older) {
+                    ActiveProduct product = rows.get(0);
+                    markChanged(productId, false);
+                    stateVersions.put(productId, product.stateVersion());
+                    subscribers.forEach(subscriber -> subscriber.put(product));
+                }
+                return;
+            }
+        }
+    }
+
+    private void updateAuctionState(ProductChangedEvent event) {
+        synchronized (lock) {
+            Long applied = stateVersions.get(event.productId());
+            if (applied != null && event.stateVersion() <= applied) {
+                return;
+            }
+            stateVersions.put(event.productId(), event.stateVersion());
+            markChanged(event.productId(), false);
+            subscribers.forEach(subscriber -> subscriber.updateAuctionState(event.productId(),
+                    event.currentPrice(), event.bidCount(), event.endTime()));
+        }
+    }
+
+    private void remove(Long productId) {
+        synchronized (lock) {
+            markChanged(productId, true);
+            stateVersions.remove(productId);
+            subscribers.forEach(subscriber -> subscriber.remove(productId));
+        }
+    }
+
+    // Caller holds lock
+    private void markChanged(Long productId, boolean removed) {
+        if (changedDuringLoad != null) {
+            changedDuringLoad.add(productId);
+        }
+        List<PendingRead> reads = pendingReads.get(productId);
+        if (reads != null) {
+            for (PendingRead read : reads) {
+                read.changed = true;
+                read.removed |= removed;
+            }
+        }
+    }
+
+    // Caller holds lock
+    private void endRead(Long productId, PendingRead read) {
+        pendingReads.computeIfPresent(productId, (id, reads) -> {
+            reads.remove(read);
+            return reads.isEmpty() ? null : reads;
+        });
+    }
+
+    private static ActiveProduct mapProduct(ResultSet rs) throws SQLException {
+        return new ActiveProduct(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getString("slug"),
+                rs.getString("description"),
+                rs.getInt("category_id"),
+                rs.getObject("parent_id", Integer.class),
+                rs.getBigDecimal("current_price"),
+                rs.getInt("bid_count"),
+                toZonedDateTime(rs.getObject("end_time", OffsetDateTime.class)),
+                toZonedDateTime(rs.getObject("created_at", OffsetDateTime.class)),
+                rs.getLong("state_version"));
+    }
+
+    private static ZonedDateTime toZonedDateTime(OffsetDateTime value) {
+        return value != null ? value.atZoneSameInstant(ZoneId.systemDefault()) : null;
+    }
+}
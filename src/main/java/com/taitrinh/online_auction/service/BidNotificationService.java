@@ -18,30 +18,40 @@ import lombok.extern.slf4j.Slf4j;
 public class BidNotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final ProductEventLogService productEventLogService;
+    private final ProductEventStreamService productEventStreamService;
 
     /**
      * Notify all subscribers about a new bid (public channel - masked names)
+     *
+     * @return the sequence of the event, for the seller copy
      */
-    public void notifyNewBid(Long productId, BidResponse bid, BigDecimal currentPrice, String highestBidder,
+    public long notifyNewBid(Long productId, BidResponse bid, BigDecimal currentPrice, String highestBidder,
             ZonedDateTime endTime) {
         log.debug("Broadcasting new bid for product: {} bidder: {}", productId, bid.getBidderId());
 
         BidEvent event = BidEvent.newBid(productId, bid, currentPrice, highestBidder, endTime);
         String destination = "/topic/product/" + productId + "/bids";
 
-        messagingTemplate.convertAndSend(destination, event);
+        long sequence = productEventLogService.appendAndPublish(event, () -> {
+            messagingTemplate.convertAndSend(destination, event);
+            productEventStreamService.publish(event);
+        });
 
         log.info("Broadcasted new bid to public channel: {}", destination);
+        return sequence;
     }
 
     /**
      * Notify product seller about a new bid (seller channel - unmasked names)
+     * Carries the sequence of the matching public event, it is not logged again
      */
     public void notifyNewBidToSeller(Long productId, BidResponse bid, BigDecimal currentPrice, String highestBidder,
-            ZonedDateTime endTime) {
+            ZonedDateTime endTime, long sequence) {
         log.debug("Broadcasting new bid to seller for product: {} bidder: {}", productId, bid.getBidderId());
 
         BidEvent event = BidEvent.newBid(productId, bid, currentPrice, highestBidder, endTime);
+        event.setSequence(sequence);
         String destination = "/topic/product/" + productId + "/bids/seller";
 
         messagingTemplate.convertAndSend(destination, event);
@@ -65,35 +75,46 @@ public class BidNotificationService {
         String publicDestination = "/topic/product/" + productId + "/bids";
         String sellerDestination = "/topic/product/" + productId + "/bids/seller";
 
-        messagingTemplate.convertAndSend(publicDestination, event);
-        messagingTemplate.convertAndSend(sellerDestination, event);
+        productEventLogService.appendAndPublish(event, () -> {
+            messagingTemplate.convertAndSend(publicDestination, event);
+            messagingTemplate.convertAndSend(sellerDestination, event);
+            productEventStreamService.publish(event);
+        });
 
         log.info("Broadcasted bid rejection to both channels");
     }
 
     /**
      * Notify public channel that product was bought via Buy Now (masked names)
+     *
+     * @return the sequence of the event, for the seller copy
      */
-    public void notifyProductBoughtNowToPublic(Long productId, BidResponse bid, BigDecimal finalPrice,
+    public long notifyProductBoughtNowToPublic(Long productId, BidResponse bid, BigDecimal finalPrice,
             String winnerName) {
         log.debug("Broadcasting buy now event to public channel for product: {}", productId);
 
         BidEvent event = BidEvent.productBoughtNow(productId, bid, finalPrice, winnerName);
         String destination = "/topic/product/" + productId + "/bids";
 
-        messagingTemplate.convertAndSend(destination, event);
+        long sequence = productEventLogService.appendAndPublish(event, () -> {
+            messagingTemplate.convertAndSend(destination, event);
+            productEventStreamService.publish(event);
+        });
 
         log.info("Broadcasted buy now to public channel: {}", destination);
+        return sequence;
     }
 
     /**
      * Notify seller channel that product was bought via Buy Now (unmasked names)
+     * Carries the sequence of the matching public event, it is not logged again
      */
     public void notifyProductBoughtNowToSeller(Long productId, BidResponse bid, BigDecimal finalPrice,
-            String winnerName) {
+            String winnerName, long sequence) {
         log.debug("Broadcasting buy now event to seller channel for product: {}", productId);
 
         BidEvent event = BidEvent.productBoughtNow(productId, bid, finalPrice, winnerName);
+        event.setSequence(sequence);
         String destination = "/topic/product/" + productId + "/bids/seller";
 
         messagingTemplate.convertAndSend(destination, event);
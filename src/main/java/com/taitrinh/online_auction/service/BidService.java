@@ -4,15 +4,19 @@ import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.taitrinh.online_auction.dto.bid.BidRequest;
 import com.taitrinh.online_auction.dto.bid.BidResponse;
+import com.taitrinh.online_auction.dto.websocket.UserNotificationEvent;
 import com.taitrinh.online_auction.entity.BidHistory;
 import com.taitrinh.online_auction.entity.BlockedBidder;
 import com.taitrinh.online_auction.entity.Product;
 import com.taitrinh.online_auction.entity.User;
+import com.taitrinh.online_auction.event.ProductChangedEvent;
 import com.taitrinh.online_auction.exception.InvalidBidAmountException;
 import com.taitrinh.online_auction.exception.ProductEndedException;
 import com.taitrinh.online_auction.exception.ResourceNotFoundException;
@@ -22,8 +26,11 @@ import com.taitrinh.online_auction.repository.BidHistoryRepository;
 import com.taitrinh.online_auction.repository.BlockedBidderRepository;
 import com.taitrinh.online_auction.repository.ProductRepository;
 import com.taitrinh.online_auction.repository.UserRepository;
+import com.taitrinh.online_auction.service.email.BidEmailService;
+import com.taitrinh.online_auction.service.email.EmailDigestService;
 import com.taitrinh.online_auction.service.email.ProductEmailService;
 import com.taitrinh.online_auction.util.NameMaskingUtil;
+import com.taitrinh.online_auction.util.SingleFlight;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -39,9 +46,25 @@ public class BidService {
         private final BlockedBidderRepository blockedBidderRepository;
         private final BidMapper bidMapper;
         private final BidNotificationService notificationService;
-        private final EmailService emailService;
+        private final BidEmailService bidEmailService;
+        private final EmailDigestService emailDigestService;
         private final ConfigService configService;
         private final ProductEmailService productEmailService;
+        private final UserNotificationService userNotificationService;
+        private final ApplicationEventPublisher eventPublisher;
+        private final ResourceVersions resourceVersions;
+
+        /**
+         * What every viewer's bid history is mapped from (the entities are
+         * shared, never modified)
+         */
+        private record BidHistorySnapshot(Long sellerId, List<BidHistory> bids, Long highestBidId) {
+        }
+
+        private final SingleFlight<ResourceVersions.Key, BidHistorySnapshot> bidHistoryLoads = new SingleFlight<>();
+
+        @Value("${product.read-coalescing.freshness-ms:1000}")
+        private long readCoalescingFreshnessMs;
 
         /**
          * Place an automatic bid on a product
@@ -155,6 +178,9 @@ public class BidService {
                 }
 
                 productRepository.save(product);
+                Long stateVersion = productRepository.incrementStateVersion(productId);
+                eventPublisher.publishEvent(ProductChangedEvent.bid(productId, product.getCurrentPrice(),
+                                product.getBidCount(), product.getEndTime(), stateVersion));
 
                 log.info("Bid placed successfully. Product {} price updated: {} -> {}, highest bidder: {}",
                                 productId, oldPrice, newCurrentPrice, newHighestBidder.getId());
@@ -172,18 +198,18 @@ public class BidService {
                 BidResponse publicResponse = bidMapper.toResponseWithViewer(bidHistory, null, false);
                 publicResponse.setIsHighestBidder(isHighestBidder);
                 String maskedHighestBidder = NameMaskingUtil.maskName(newHighestBidder.getFullName());
-                notificationService.notifyNewBid(productId, publicResponse, newCurrentPrice, maskedHighestBidder,
-                                product.getEndTime());
+                long sequence = notificationService.notifyNewBid(productId, publicResponse, newCurrentPrice,
+                                maskedHighestBidder, product.getEndTime());
 
                 // Seller channel - unmasked names
                 BidResponse sellerResponse = bidMapper.toResponseWithViewer(bidHistory, null, true);
                 sellerResponse.setIsHighestBidder(isHighestBidder);
                 notificationService.notifyNewBidToSeller(productId, sellerResponse, newCurrentPrice,
-                                newHighestBidder.getFullName(), product.getEndTime());
+                                newHighestBidder.getFullName(), product.getEndTime(), sequence);
 
                 // Send email notifications (async)
                 sendBidNotificationEmails(product, user, newCurrentPrice, newHighestBidder,
-                                previousHighestBidder);
+                                previousHighestBidder, bidHistory.getId());
 
                 // Return personalized response to bidder
                 BidResponse response = bidMapper.toResponseWithViewer(bidHistory, userId, isSeller);
@@ -193,40 +219,43 @@ public class BidService {
 
         /**
          * Get bid history for a product with viewer context
+         * Concurrent requests for the same product version share one load, reused
+         * for a short window; a committed bid bumps the version. Only the masking
+         * is done per viewer
          */
-        @Transactional(readOnly = true)
         public List<BidResponse> getBidHistory(Long productId, Long viewerId) {
+                ResourceVersions.Key key = new ResourceVersions.Key(productId,
+                                resourceVersions.getProductVersion(productId));
+                BidHistorySnapshot snapshot = bidHistoryLoads.load(key, readCoalescingFreshnessMs,
+                                () -> loadBidHistory(productId));
+
+                boolean isProductSeller = viewerId != null && viewerId.equals(snapshot.sellerId());
+
+                List<BidResponse> responses = bidMapper.toResponseListWithViewer(snapshot.bids(), viewerId,
+                                isProductSeller);
+
+                // Mark the highest bidder (none when there are no bids yet)
+                responses.forEach(response -> response
+                                .setIsHighestBidder(response.getId().equals(snapshot.highestBidId())));
+
+                return responses;
+        }
+
+        private BidHistorySnapshot loadBidHistory(Long productId) {
                 Product product = productRepository.findById(productId)
                                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy sản phẩm"));
 
-                boolean isProductSeller = viewerId != null &&
-                                product.getSeller() != null &&
-                                viewerId.equals(product.getSeller().getId());
-
+                // Bidders are fetched with the bids, the snapshot is mapped outside any session
                 List<BidHistory> bids = bidHistoryRepository.findByProductIdOrderByCreatedAtDesc(productId);
 
                 // Get highest bid (by maxBidAmount, then earliest createdAt)
-                BidHistory highestBid = bidHistoryRepository
+                Long highestBidId = bidHistoryRepository
                                 .findFirstByProductIdOrderByMaxBidAmountDescCreatedAtAsc(productId)
+                                .map(BidHistory::getId)
                                 .orElse(null);
 
-                List<BidResponse> responses = bidMapper.toResponseListWithViewer(bids, viewerId, isProductSeller);
-
-                // Mark the highest bidder
-                if (highestBid != null) {
-                        responses.forEach(response -> {
-                                if (response.getId().equals(highestBid.getId())) {
-                                        response.setIsHighestBidder(true);
-                                } else {
-                                        response.setIsHighestBidder(false);
-                                }
-                        });
-                } else {
-                        // No bids yet
-                        responses.forEach(response -> response.setIsHighestBidder(false));
-                }
-
-                return responses;
+                return new BidHistorySnapshot(product.getSeller() != null ? product.getSeller().getId() : null,
+                                List.copyOf(bids), highestBidId);
         }
 
         /**
@@ -287,6 +316,9 @@ public class BidService {
 
                 product.setBidCount(Math.max(0, product.getBidCount() - bidderBids.size()));
                 productRepository.save(product);
+                Long stateVersion = productRepository.incrementStateVersion(productId);
+                eventPublisher.publishEvent(ProductChangedEvent.bid(productId, product.getCurrentPrice(),
+                                product.getBidCount(), product.getEndTime(), stateVersion));
 
                 // Prepare data for WebSocket broadcast
                 BigDecimal broadcastPrice = (newHighestBid != null)
@@ -299,10 +331,14 @@ public class BidService {
                 // Notify via WebSocket with updated auction state
                 notificationService.notifyBidRejected(productId, bidderId, broadcastPrice, broadcastBidder);
 
-                // Send rejection email
-                emailService.sendBidRejectionEmail(rejectedBidder.getEmail(), rejectedBidder.getFullName(),
-                                product.getTitle(),
-                                product.getSlug());
+                // Notify rejected bidder via their user queue, email if they're not online
+                boolean notified = userNotificationService.notifyUser(rejectedBidder.getEmail(),
+                                UserNotificationEvent.bidRejected(productId, product.getTitle(), product.getSlug()));
+                if (!notified) {
+                        bidEmailService.sendBidRejectionEmail(rejectedBidder.getEmail(), rejectedBidder.getFullName(),
+                                        product.getTitle(),
+                                        product.getSlug());
+                }
 
                 log.info("Successfully rejected bidder {} from product {}", bidderId, productId);
         }
@@ -331,43 +367,78 @@ public class BidService {
         }
 
         /**
-         * Send email notifications for bid event
+         * Send notifications for bid event
+         * Bidder notifications go to the user queue, email only if the user is not
+         * online
          */
         private void sendBidNotificationEmails(Product product, User newBidder,
-                        BigDecimal newPrice, User newHighestBidder, User previousHighestBidder) {
-                // Email to seller
+                        BigDecimal newPrice, User newHighestBidder, User previousHighestBidder, Long bidId) {
+                // Email to seller, batched into a digest during a bidding war
                 if (product.getSeller() != null) {
-                        emailService.sendNewBidNotificationToSeller(
+                        emailDigestService.addNewBidForSeller(
                                         product.getSeller().getEmail(),
                                         product.getSeller().getFullName(),
                                         product.getTitle(),
                                         newBidder.getFullName(),
                                         newPrice,
-                                        product.getSlug() // Product slug for link
-                        );
+                                        product.getSlug(), // Product slug for link
+                                        bidId);
                 }
 
-                // Email to new bidder (confirmation)
-                emailService.sendBidConfirmationToBidder(
-                                newBidder.getEmail(),
-                                newBidder.getFullName(),
-                                product.getTitle(),
-                                newPrice,
-                                newBidder.getId().equals(newHighestBidder.getId()), // Are they winning?
-                                product.getSlug() // Product slug for link
-                );
+                // New bidder (confirmation)
+                boolean isWinning = newBidder.getId().equals(newHighestBidder.getId());
+                UserNotificationEvent bidderEvent = isWinning
+                                ? UserNotificationEvent.winning(product.getId(), product.getTitle(), product.getSlug(),
+                                                newPrice)
+                                : UserNotificationEvent.outbid(product.getId(), product.getTitle(), product.getSlug(),
+                                                newPrice);
+                if (!userNotificationService.notifyUser(newBidder.getEmail(), bidderEvent)) {
+                        bidEmailService.sendBidConfirmationToBidder(
+                                        newBidder.getEmail(),
+                                        newBidder.getFullName(),
+                                        product.getTitle(),
+                                        newPrice,
+                                        isWinning, // Are they winning?
+                                        product.getSlug(), // Product slug for link
+                                        bidId);
+                }
 
-                // Email to previous highest bidder (outbid notification)
+                // Previous highest bidder (outbid notification)
                 if (previousHighestBidder != null &&
                                 !previousHighestBidder.getId().equals(newHighestBidder.getId()) &&
                                 !previousHighestBidder.getId().equals(newBidder.getId())) {
-                        emailService.sendOutbidNotification(
-                                        previousHighestBidder.getEmail(),
-                                        previousHighestBidder.getFullName(),
+                        sendOutbidNotification(product, previousHighestBidder, newPrice, false, bidId);
+                }
+        }
+
+        /**
+         * Notify an outbid user via their user queue, email if they're not online.
+         * The email goes into a digest unless the auction has ended.
+         */
+        private void sendOutbidNotification(Product product, User outbidUser, BigDecimal newPrice,
+                        boolean auctionEnded, Long bidId) {
+                boolean notified = userNotificationService.notifyUser(outbidUser.getEmail(),
+                                UserNotificationEvent.outbid(product.getId(), product.getTitle(), product.getSlug(),
+                                                newPrice));
+                if (notified) {
+                        return;
+                }
+                if (auctionEnded) {
+                        bidEmailService.sendOutbidNotification(
+                                        outbidUser.getEmail(),
+                                        outbidUser.getFullName(),
+                                        product.getTitle(),
+                                        newPrice,
+                                        product.getSlug(), // Product slug for link
+                                        bidId);
+                } else {
+                        emailDigestService.addOutbid(
+                                        outbidUser.getEmail(),
+                                        outbidUser.getFullName(),
                                         product.getTitle(),
                                         newPrice,
-                                        product.getSlug() // Product slug for link
-                        );
+                                        product.getSlug(),
+                                        bidId);
                 }
         }
 
@@ -425,6 +496,7 @@ public class BidService {
                 product.setIsEnded(true);
                 product.setBidCount(product.getBidCount() + 1);
                 productRepository.save(product);
+                eventPublisher.publishEvent(ProductChangedEvent.of(productId, ProductChangedEvent.Type.ENDED));
 
                 log.info("Product {} bought now by user {} at price {}", productId, userId, product.getBuyNowPrice());
 
@@ -443,13 +515,13 @@ public class BidService {
                 String unmaskedWinnerName = user.getFullName();
 
                 // Broadcast to both channels
-                notificationService.notifyProductBoughtNowToPublic(productId, publicResponse, product.getBuyNowPrice(),
-                                maskedWinnerName);
+                long sequence = notificationService.notifyProductBoughtNowToPublic(productId, publicResponse,
+                                product.getBuyNowPrice(), maskedWinnerName);
                 notificationService.notifyProductBoughtNowToSeller(productId, sellerResponse, product.getBuyNowPrice(),
-                                unmaskedWinnerName);
+                                unmaskedWinnerName, sequence);
 
                 // Send email notifications
-                sendBuyNowNotificationEmails(product, user, previousHighestBidder);
+                sendBuyNowNotificationEmails(product, user, previousHighestBidder, bidHistory.getId());
 
                 return response;
         }
@@ -457,7 +529,8 @@ public class BidService {
         /**
          * Send email notifications for buy now event
          */
-        private void sendBuyNowNotificationEmails(Product product, User winner, User previousHighestBidder) {
+        private void sendBuyNowNotificationEmails(Product product, User winner, User previousHighestBidder,
+                        Long bidId) {
                 // Email to seller
                 if (product.getSeller() != null) {
                         productEmailService.sendWinnerNotificationToSeller(
@@ -477,14 +550,9 @@ public class BidService {
                                 product.getBuyNowPrice(),
                                 product.getSlug());
 
-                // Email to previous highest bidder if exists
+                // Notify previous highest bidder if exists
                 if (previousHighestBidder != null && !previousHighestBidder.getId().equals(winner.getId())) {
-                        emailService.sendOutbidNotification(
-                                        previousHighestBidder.getEmail(),
-                                        previousHighestBidder.getFullName(),
-                                        product.getTitle(),
-                                        product.getBuyNowPrice(),
-                                        product.getSlug());
+                        sendOutbidNotification(product, previousHighestBidder, product.getBuyNowPrice(), true, bidId);
                 }
         }
 }
@@ -0,0 +1,182 @@
+package com.taitrinh.online_auction.service;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Number of active (not ended) products per category, rolled up so a parent
+ * category counts the products of its sub-categories, for category
+ * navigation without a COUNT per request.
+ *
+ * Loaded and kept current by {@link ActiveProductLoader} (created, ended and
+ * deleted products, from {@link ProductChangedEvent}), whose periodic reload
+ * reconciles the counts with the database. The category of every active
+ * product is kept, since a deleted product can no longer be looked up.
+ */
+@Service
+@Slf4j
+public class CategoryActiveCounts implements ActiveProductLoader.Subscriber {
+
+    private record RolledUp(long treeVersion, long countsVersion, Map<Integer, Long> counts) {
+    }
+
+    private final CategoryTreeCache categoryTreeCache;
+    private final ActiveProductLoader activeProductLoader;
+
+    // Changed under the loader's lock; null until the first load
+    private Map<Long, Integer> productCategories;
+    // Active products per category (not rolled up), replaced as a whole by a load
+    private volatile Map<Integer, Long> directCounts = new ConcurrentHashMap<>();
+    // Bumped on every change, so rolled-up counts (and responses built from them) are recomputed
+    private volatile long version;
+    private volatile boolean loaded;
+    private volatile RolledUp rolledUp;
+
+    public CategoryActiveCounts(CategoryTreeCache categoryTreeCache, ActiveProductLoader activeProductLoader) {
+        this.categoryTreeCache = categoryTreeCache;
+        this.activeProductLoader = activeProductLoader;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        activeProductLoader.subscribe(this);
+    }
+
+    /**
+     * Active products in the category and its sub-categories
+     */
+    public long getActiveCount(Integer categoryId) {
+        return getActiveCounts().getOrDefault(categoryId, 0L);
+    }
+
+    /**
+     * Rolled-up active product count of every category
+     */
+    public Map<Integer, Long> getActiveCounts() {
+        ensureLoaded();
+        long treeVersion = categoryTreeCache.getVersion();
+        long countsVersion = version;
+        RolledUp cached = rolledUp;
+        if (cached != null && cached.treeVersion() == treeVersion && cached.countsVersion() == countsVersion) {
+            return cached.counts();
+        }
+
+        Map<Integer, Long> direct = directCounts;
+        Map<Integer, Long> counts = new HashMap<>();
+        for (CategoryTreeCache.Node node : categoryTreeCache.getAll()) {
+            long count = 0;
+            for (Integer id : categoryTreeCache.getSelfAndDescendantIds(node.id())) {
+                count += direct.getOrDefault(id, 0L);
+            }
+            counts.put(node.id(), count);
+        }
+        counts = Map.copyOf(counts);
+        rolledUp = new RolledUp(treeVersion, countsVersion, counts);
+        return counts;
+    }
+
+    /**
+     * Changes whenever a count changes
+     */
+    public long getVersion() {
+        ensureLoaded();
+        return version;
+    }
+
+    // ===== Maintenance =====
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            activeProductLoader.ensureLoaded();
+        }
+    }
+
+    @Override
+    public ActiveProductLoader.Load startLoad() {
+        Map<Long, Integer> loadedCategories = new HashMap<>();
+        Map<Integer, Long> loadedCounts = new ConcurrentHashMap<>();
+        return new ActiveProductLoader.Load() {
+            @Override
+            public void add(ActiveProductLoader.ActiveProduct product) {
+                loadedCategories.put(product.id(), product.categoryId());
+            }
+
+            @Override
+            public void complete() {
+                loadedCategories.values().forEach(categoryId -> loadedCounts.merge(categoryId, 1L, Long::sum));
+            }
+
+            @Override
+            public void install() {
+                if (loaded) {
+                    Set<Integer> categoryIds = new HashSet<>(directCounts.keySet());
+                    categoryIds.addAll(loadedCounts.keySet());
+                    long differing = categoryIds.stream()
+                            .filter(id -> directCounts.getOrDefault(id, 0L)
+                                    .longValue() != loadedCounts.getOrDefault(id, 0L).longValue())
+                            .count();
+                    if (differing > 0) {
+                        log.info("Reconciled active product counts of {} categories", differing);
+                    }
+                }
+
+                productCategories = loadedCategories;
+                directCounts = loadedCounts;
+                version++;
+                loaded = true;
+            }
+        };
+    }
+
+    @Override
+    public void put(ActiveProductLoader.ActiveProduct product) {
+        apply(product.id(), product.categoryId());
+    }
+
+    @Override
+    public void remove(long productId) {
+        apply(productId, null);
+    }
+
+    @Override
+    public void updateAuctionState(long productId, BigDecimal currentPrice, int bidCount,
+            ZonedDateTime endTime) {
+        // Category and active state unchanged
+    }
+
+    /**
+     * Mark a product active in a category, or not active (null)
+     */
+    void apply(Long productId, Integer categoryId) {
+        if (productCategories == null) {
+            return;
+        }
+
+        Integer previous = categoryId != null
+                ? productCategories.put(productId, categoryId)
+                : productCategories.remove(productId);
+        if (Objects.equals(previous, categoryId)) {
+            return;
+        }
+        if (previous != null) {
+            directCounts.merge(previous, -1L, Long::sum);
+        }
+        if (categoryId != null) {
+            directCounts.merge(categoryId, 1L, Long::sum);
+        }
+        version++;
+    }
+}
@@ -1,13 +1,18 @@
 package com.taitrinh.online_auction.service;
 
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.taitrinh.online_auction.dto.ApiResponse;
+import com.taitrinh.online_auction.dto.category.CategoryActiveCountResponse;
 import com.taitrinh.online_auction.dto.category.CategoryResponse;
 import com.taitrinh.online_auction.dto.category.CreateCategoryRequest;
 import com.taitrinh.online_auction.entity.Category;
+import com.taitrinh.online_auction.event.CategoryChangedEvent;
 import com.taitrinh.online_auction.exception.BadRequestException;
 import com.taitrinh.online_auction.exception.ResourceNotFoundException;
 import com.taitrinh.online_auction.mapper.CategoryMapper;
@@ -15,6 +20,7 @@ import com.taitrinh.online_auction.repository.CategoryRepository;
 import com.taitrinh.online_auction.util.SlugUtils;
 
 import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.json.JsonMapper;
 
 @Service
 @RequiredArgsConstructor
@@ -22,63 +28,121 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryTreeCache categoryTreeCache;
+    private final CategoryActiveCounts categoryActiveCounts;
+    private final JsonMapper jsonMapper;
+    private final ResourceVersions resourceVersions;
 
     /**
-     * Get all categories in hierarchical structure (2 levels: parent -> children)
+     * Serialized hierarchy response and the category tree and counts it was built
+     * from
      */
-    @Transactional(readOnly = true)
-    public List<CategoryResponse> getAllCategoriesHierarchy() {
-        List<Category> parentCategories = categoryRepository.findByParentIsNull();
+    private record RenderedHierarchy(long treeVersion, long countsVersion, byte[] body) {
+    }
 
-        return parentCategories.stream()
-                .map(categoryMapper::toResponseWithChildren)
-                .toList();
+    private volatile RenderedHierarchy renderedHierarchy;
+
+    /**
+     * ETag of the category reads, changes with the category tree and the active
+     * counts
+     */
+    public String getETag() {
+        return resourceVersions.eTag("categories", categoryTreeCache.getVersion(), categoryActiveCounts.getVersion());
+    }
+
+    /**
+     * Get all categories in hierarchical structure (2 levels: parent -> children)
+     * as the serialized response, rendered again only when a category or an
+     * active count changed
+     */
+    public byte[] getAllCategoriesHierarchyResponseBody(String message) {
+        long treeVersion = categoryTreeCache.getVersion();
+        long countsVersion = categoryActiveCounts.getVersion();
+        RenderedHierarchy rendered = renderedHierarchy;
+        if (rendered == null || rendered.treeVersion() != treeVersion || rendered.countsVersion() != countsVersion) {
+            Map<Integer, Long> counts = categoryActiveCounts.getActiveCounts();
+            List<CategoryResponse> hierarchy = categoryTreeCache.getRoots().stream()
+                    .map(root -> toResponseWithChildren(root, counts))
+                    .toList();
+            rendered = new RenderedHierarchy(treeVersion, countsVersion,
+                    jsonMapper.writeValueAsBytes(ApiResponse.ok(hierarchy, message)));
+            renderedHierarchy = rendered;
+        }
+        return rendered.body();
     }
 
     /**
      * Get all top-level categories (no children included)
      */
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getAllParentCategories() {
-        return categoryRepository.findByParentIsNull().stream()
-                .map(categoryMapper::toResponse)
+        Map<Integer, Long> counts = categoryActiveCounts.getActiveCounts();
+        return categoryTreeCache.getRoots().stream()
+                .map(root -> toResponse(root, counts))
                 .toList();
     }
 
     /**
      * Get all sub-categories of a parent
      */
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getSubCategories(Integer parentId) {
-        if (!categoryRepository.existsById(parentId)) {
-            throw new ResourceNotFoundException("Danh mục cha", parentId);
-        }
+        CategoryTreeCache.Node parent = categoryTreeCache.findById(parentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Danh mục cha", parentId));
 
-        return categoryRepository.findByParentId(parentId).stream()
-                .map(categoryMapper::toResponse)
+        Map<Integer, Long> counts = categoryActiveCounts.getActiveCounts();
+        return categoryTreeCache.getChildren(parent).stream()
+                .map(child -> toResponse(child, counts))
                 .toList();
     }
 
     /**
      * Get category by ID
      */
-    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Integer id) {
-        Category category = categoryRepository.findById(id)
+        CategoryTreeCache.Node category = categoryTreeCache.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Danh mục", id));
 
-        return categoryMapper.toResponseWithChildren(category);
+        return toResponseWithChildren(category, categoryActiveCounts.getActiveCounts());
     }
 
     /**
      * Get category by slug
      */
-    @Transactional(readOnly = true)
     public CategoryResponse getCategoryBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
+        CategoryTreeCache.Node category = categoryTreeCache.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Danh mục", slug));
 
-        return categoryMapper.toResponseWithChildren(category);
+        return toResponseWithChildren(category, categoryActiveCounts.getActiveCounts());
+    }
+
+    /**
+     * Get the number of active auctions of every category (parents include
+     * their sub-categories)
+     */
+    public List<CategoryActiveCountResponse> getActiveCounts() {
+        return categoryActiveCounts.getActiveCounts().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> CategoryActiveCountResponse.builder()
+                        .categoryId(entry.getKey())
+                        .activeProductCount(entry.getValue())
+                        .build())
+                .toList();
+    }
+
+    private static CategoryResponse toResponse(CategoryTreeCache.Node node, Map<Integer, Long> counts) {
+        CategoryResponse response = CategoryTreeCache.toResponse(node);
+        response.setActiveProductCount(counts.getOrDefault(node.id(), 0L));
+        return response;
+    }
+
+    private CategoryResponse toResponseWithChildren(CategoryTreeCache.Node node, Map<Integer, Long> counts) {
+        CategoryResponse response = toResponse(node, counts);
+        if (!node.childIds().isEmpty()) {
+            response.setChildren(categoryTreeCache.getChildren(node).stream()
+                    .map(child -> toResponse(child, counts))
+                    .toList());
+        }
+        return response;
     }
 
     /**
@@ -134,6 +198,8 @@ public class CategoryService {
                 .build();
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId(), CategoryChangedEvent.Type.CREATED,
+                parent != null ? parent.getId() : null));
         return categoryMapper.toResponse(savedCategory);
     }
 
@@ -189,6 +255,7 @@ public class CategoryService {
         category.setName(request.getName());
         category.setParent(newParent);
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.Type.UPDATED, newParentId));
         return categoryMapper.toResponse(updatedCategory);
     }
 
@@ -211,5 +278,6 @@ public class CategoryService {
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.Type.DELETED, null));
     }
 }
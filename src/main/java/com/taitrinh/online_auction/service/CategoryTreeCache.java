@@ -0,0 +1,198 @@
+package com.taitrinh.online_auction.service;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.taitrinh.online_auction.dto.category.CategoryResponse;
+import com.taitrinh.online_auction.event.CategoryChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The category tree, loaded once and replaced as a whole (never modified)
+ * after a category is created, updated or deleted. Categories change a few
+ * times a year, while every category page and filtered search needs the
+ * category and its sub-categories.
+ *
+ * Also reloaded periodically, which is how changes made on other instances
+ * are picked up.
+ */
+@Service
+@Slf4j
+public class CategoryTreeCache {
+
+    private static final String LOAD_SQL = "SELECT id, name, slug, parent_id, created_at FROM categories ORDER BY id";
+
+    public record Node(Integer id, String name, String slug, Integer parentId, ZonedDateTime createdAt,
+            List<Integer> childIds) {
+
+        public boolean isParent() {
+            return parentId == null;
+        }
+    }
+
+    record Row(Integer id, String name, String slug, Integer parentId, ZonedDateTime createdAt) {
+    }
+
+    /**
+     * @param selfAndDescendantIds the category's own id first, then every
+     *                             category below it
+     */
+    record Tree(long version, Map<Integer, Node> byId, Map<String, Node> bySlug,
+            Map<Integer, List<Integer>> selfAndDescendantIds, List<Node> roots) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // null until the first load
+    private volatile Tree tree;
+    private long loads;
+
+    public CategoryTreeCache(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Node> findById(Integer id) {
+        return Optional.ofNullable(tree().byId().get(id));
+    }
+
+    public Optional<Node> findBySlug(String slug) {
+        return Optional.ofNullable(tree().bySlug().get(slug));
+    }
+
+    public List<Node> getRoots() {
+        return tree().roots();
+    }
+
+    public List<Node> getChildren(Node node) {
+        Map<Integer, Node> byId = tree().byId();
+        return node.childIds().stream().map(byId::get).toList();
+    }
+
+    /**
+     * The category id followed by the ids of all its sub-categories, for
+     * {@code category_id = ANY(:ids)} filters (empty if the category does not
+     * exist)
+     */
+    public List<Integer> getSelfAndDescendantIds(Integer id) {
+        return tree().selfAndDescendantIds().getOrDefault(id, List.of());
+    }
+
+    public Collection<Node> getAll() {
+        return tree().byId().values();
+    }
+
+    /**
+     * Changes whenever the tree is reloaded, for callers that cache what they
+     * derive from it
+     */
+    public long getVersion() {
+        return tree().version();
+    }
+
+    public static CategoryResponse toResponse(Node node) {
+        return CategoryResponse.builder()
+                .id(node.id())
+                .name(node.name())
+                .slug(node.slug())
+                .parentId(node.parentId())
+                .createdAt(node.createdAt())
+                .isParent(node.isParent())
+                .childrenCount(node.childIds().size())
+                .build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload categories after change to {}", event.categoryId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${category.tree.reload-interval-ms:60000}")
+    public void scheduledReload() {
+        if (tree != null) {
+            reload();
+        }
+    }
+
+    private Tree tree() {
+        Tree current = tree;
+        if (current == null) {
+            synchronized (this) {
+                if (tree == null) {
+                    reload();
+                }
+                current = tree;
+            }
+        }
+        return current;
+    }
+
+    synchronized void reload() {
+        tree = build(++loads, jdbcTemplate.query(LOAD_SQL, (rs, rowNum) -> {
+            OffsetDateTime createdAt = rs.getObject("created_at", OffsetDateTime.class);
+            return new Row(rs.getInt("id"), rs.getString("name"), rs.getString("slug"),
+                    rs.getObject("parent_id", Integer.class),
+                    // Same zone as the entities loaded by Hibernate
+                    createdAt != null ? createdAt.atZoneSameInstant(ZoneId.systemDefault()) : null);
+        }));
+    }
+
+    /**
+     * @param rows all categories, in id order
+     */
+    static Tree build(long version, List<Row> rows) {
+        Map<Integer, List<Integer>> childIds = new HashMap<>();
+        for (Row row : rows) {
+            if (row.parentId() != null) {
+                childIds.computeIfAbsent(row.parentId(), parentId -> new ArrayList<>()).add(row.id());
+            }
+        }
+
+        Map<Integer, Node> byId = new HashMap<>();
+        Map<String, Node> bySlug = new HashMap<>();
+        List<Node> roots = new ArrayList<>();
+        for (Row row : rows) {
+            Node node = new Node(row.id(), row.name(), row.slug(), row.parentId(), row.createdAt(),
+                    List.copyOf(childIds.getOrDefault(row.id(), List.of())));
+            byId.put(node.id(), node);
+            bySlug.put(node.slug(), node);
+            if (node.isParent()) {
+                roots.add(node);
+            }
+        }
+
+        Map<Integer, List<Integer>> selfAndDescendantIds = new HashMap<>();
+        for (Node node : byId.values()) {
+            List<Integer> ids = new ArrayList<>();
+            collect(node, byId, ids);
+            selfAndDescendantIds.put(node.id(), List.copyOf(ids));
+        }
+
+        return new Tree(version, Map.copyOf(byId), Map.copyOf(bySlug), Map.copyOf(selfAndDescendantIds),
+                List.copyOf(roots));
+    }
+
+    private static void collect(Node node, Map<Integer, Node> byId, List<Integer> ids) {
+        ids.add(node.id());
+        for (Integer childId : node.childIds()) {
+            collect(byId.get(childId), byId, ids);
+        }
+    }
+}
@@ -15,29 +15,39 @@ import lombok.extern.slf4j.Slf4j;
 public class CommentNotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final ProductEventLogService productEventLogService;
+    private final ProductEventStreamService productEventStreamService;
 
     /**
      * Notify all subscribers about a new comment on a product (public channel -
      * masked names)
+     *
+     * @return the sequence of the event, for the seller copy
      */
-    public void notifyNewComment(Long productId, CommentResponse comment) {
+    public long notifyNewComment(Long productId, CommentResponse comment) {
         log.debug("Broadcasting new comment for product: {} comment id: {}", productId, comment.getId());
 
         CommentEvent event = CommentEvent.newComment(productId, comment);
         String destination = "/topic/product/" + productId + "/comments";
 
-        messagingTemplate.convertAndSend(destination, event);
+        long sequence = productEventLogService.appendAndPublish(event, () -> {
+            messagingTemplate.convertAndSend(destination, event);
+            productEventStreamService.publish(event);
+        });
 
         log.info("Broadcasted new comment to public channel: {}", destination);
+        return sequence;
     }
 
     /**
      * Notify product seller about a new comment (seller channel - unmasked names)
+     * Carries the sequence of the matching public event, it is not logged again
      */
-    public void notifyNewCommentToSeller(Long productId, CommentResponse comment) {
+    public void notifyNewCommentToSeller(Long productId, CommentResponse comment, long sequence) {
         log.debug("Broadcasting new comment to seller for product: {} comment id: {}", productId, comment.getId());
 
         CommentEvent event = CommentEvent.newComment(productId, comment);
+        event.setSequence(sequence);
         String destination = "/topic/product/" + productId + "/comments/seller";
 
         messagingTemplate.convertAndSend(destination, event);
@@ -57,8 +67,11 @@ public class CommentNotificationService {
         String publicDestination = "/topic/product/" + productId + "/comments";
         String sellerDestination = "/topic/product/" + productId + "/comments/seller";
 
-        messagingTemplate.convertAndSend(publicDestination, event);
-        messagingTemplate.convertAndSend(sellerDestination, event);
+        productEventLogService.appendAndPublish(event, () -> {
+            messagingTemplate.convertAndSend(publicDestination, event);
+            messagingTemplate.convertAndSend(sellerDestination, event);
+            productEventStreamService.publish(event);
+        });
 
         log.info("Broadcasted comment deletion to both channels");
     }
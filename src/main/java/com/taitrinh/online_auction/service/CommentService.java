@@ -3,8 +3,13 @@ package com.taitrinh.online_auction.service;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.taitrinh.online_auction.dto.comment.CommentResponse;
 import com.taitrinh.online_auction.dto.comment.CreateCommentRequest;
@@ -20,6 +25,8 @@ import com.taitrinh.online_auction.repository.BidHistoryRepository;
 import com.taitrinh.online_auction.repository.CommentRepository;
 import com.taitrinh.online_auction.repository.ProductRepository;
 import com.taitrinh.online_auction.repository.UserRepository;
+import com.taitrinh.online_auction.service.email.CommentEmailService;
+import com.taitrinh.online_auction.util.SingleFlight;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,7 +42,21 @@ public class CommentService {
     private final BidHistoryRepository bidHistoryRepository;
     private final CommentMapper commentMapper;
     private final CommentNotificationService notificationService;
-    private final EmailService emailService;
+    private final CommentEmailService commentEmailService;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersions resourceVersions;
+
+    /**
+     * What every viewer's comments are mapped from (the entities are shared,
+     * never modified)
+     */
+    private record ProductComments(Long sellerId, List<Comment> topLevelComments) {
+    }
+
+    private final SingleFlight<ResourceVersions.Key, ProductComments> commentLoads = new SingleFlight<>();
+
+    @Value("${product.read-coalescing.freshness-ms:1000}")
+    private long readCoalescingFreshnessMs;
 
     /**
      * Create a new comment (question or reply)
@@ -83,6 +104,7 @@ public class CommentService {
                 .build();
 
         Comment savedComment = commentRepository.save(comment);
+        commentsChangedAfterCommit(product.getId());
 
         log.info("Comment created successfully with id: {}", savedComment.getId());
 
@@ -91,12 +113,12 @@ public class CommentService {
 
         // 1. Broadcast to PUBLIC channel - masked names (viewerId=null, isSeller=false)
         CommentResponse publicResponse = commentMapper.toResponseWithViewer(savedComment, null, false);
-        notificationService.notifyNewComment(product.getId(), publicResponse);
+        long sequence = notificationService.notifyNewComment(product.getId(), publicResponse);
 
         // 2. Broadcast to SELLER channel - unmasked names (viewerId=null,
         // isSeller=true)
         CommentResponse sellerResponse = commentMapper.toResponseWithViewer(savedComment, null, true);
-        notificationService.notifyNewCommentToSeller(product.getId(), sellerResponse);
+        notificationService.notifyNewCommentToSeller(product.getId(), sellerResponse, sequence);
 
         // 3. Return personalized response to HTTP client (author sees their own
         // unmasked name)
@@ -106,7 +128,7 @@ public class CommentService {
         if (parent == null) {
             // New question - send email to seller
             if (product.getSeller() != null && product.getSeller().getEmail() != null) {
-                emailService.sendNewQuestionToSeller(
+                commentEmailService.sendNewQuestionToSeller(
                         product.getSeller().getEmail(),
                         product.getSeller().getFullName(),
                         product.getTitle(),
@@ -133,7 +155,7 @@ public class CommentService {
 
                     if (isOriginalAsker) {
                         // Send personalized "your question was answered" email
-                        emailService.sendSellerReplyNotification(
+                        commentEmailService.sendSellerReplyNotification(
                                 asker.getEmail(),
                                 asker.getFullName(),
                                 product.getTitle(),
@@ -142,7 +164,7 @@ public class CommentService {
                                 savedComment.getId());
                     } else {
                         // Send general "new activity on product you're interested in" email
-                        emailService.sendProductActivityNotification(
+                        commentEmailService.sendProductActivityNotification(
                                 asker.getEmail(),
                                 asker.getFullName(),
                                 product.getTitle(),
@@ -165,7 +187,7 @@ public class CommentService {
                         !bidder.getId().equals(userId) &&
                         !emailedUserIds.contains(bidder.getId())) {
                     // Bidders who haven't asked questions get general activity notification
-                    emailService.sendProductActivityNotification(
+                    commentEmailService.sendProductActivityNotification(
                             bidder.getEmail(),
                             bidder.getFullName(),
                             product.getTitle(),
@@ -183,29 +205,63 @@ public class CommentService {
 
     /**
      * Get all comments (Q&A) for a product in threaded format
+     * Concurrent requests for the same comments version share one load, reused
+     * for a short window; adding or deleting a comment bumps the version. Only
+     * the masking is done per viewer
      */
-    @Transactional(readOnly = true)
     public List<CommentResponse> getProductComments(Long productId, Long viewerId) {
         log.debug("Getting comments for product: {}", productId);
 
-        // Validate product exists
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm", productId));
-
-        // Get all top-level comments (questions)
-        List<Comment> topLevelComments = commentRepository.findTopLevelCommentsByProductId(productId);
+        ResourceVersions.Key key = new ResourceVersions.Key(productId, resourceVersions.getCommentsVersion(productId));
+        ProductComments comments = commentLoads.load(key, readCoalescingFreshnessMs,
+                () -> loadComments(productId));
 
         // Check if viewer is the seller
-        boolean isSeller = viewerId != null &&
-                product.getSeller() != null &&
-                product.getSeller().getId().equals(viewerId);
+        boolean isSeller = viewerId != null && viewerId.equals(comments.sellerId());
 
         // Map to response with unified logic
-        return topLevelComments.stream()
+        return comments.topLevelComments().stream()
                 .map(comment -> commentMapper.toResponseWithViewer(comment, viewerId, isSeller))
                 .collect(Collectors.toList());
     }
 
+    private ProductComments loadComments(Long productId) {
+        return transactionTemplate.execute(status -> {
+            // Validate product exists
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm", productId));
+
+            // Get all top-level comments (questions)
+            List<Comment> topLevelComments = commentRepository.findTopLevelCommentsByProductId(productId);
+            // Comments are mapped after the transaction
+            topLevelComments.forEach(CommentService::initialize);
+
+            return new ProductComments(product.getSeller() != null ? product.getSeller().getId() : null,
+                    List.copyOf(topLevelComments));
+        });
+    }
+
+    // Load everything the viewer mapping reads: author, product and replies
+    private static void initialize(Comment comment) {
+        Hibernate.initialize(comment.getUser());
+        Hibernate.initialize(comment.getProduct());
+        comment.getReplies().forEach(CommentService::initialize);
+    }
+
+    // Comments loaded before this change are not shared any more, their ETags stop matching
+    private void commentsChangedAfterCommit(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    resourceVersions.commentsChanged(productId);
+                }
+            });
+        } else {
+            resourceVersions.commentsChanged(productId);
+        }
+    }
+
     /**
      * Delete a comment (only by the author)
      */
@@ -228,6 +284,7 @@ public class CommentService {
 
         // Note: Deleting a parent comment will cascade delete all replies
         commentRepository.delete(comment);
+        commentsChangedAfterCommit(productId);
 
         log.info("Comment deleted successfully: {}", commentId);
     }
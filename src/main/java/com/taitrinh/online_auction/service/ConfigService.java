@@ -1,5 +1,15 @@
 package com.taitrinh.online_auction.service;
 
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.taitrinh.online_auction.entity.SystemConfig;
@@ -14,6 +24,13 @@ import lombok.extern.slf4j.Slf4j;
  * values.
  * These configs are admin-manageable website settings stored in the
  * system_configs table.
+ *
+ * Values are served from an immutable in-memory snapshot, so the per-product
+ * and per-bid lookups never hit the database. The snapshot is loaded at
+ * startup, then reloaded after an admin update and whenever the latest
+ * updated_at (or row count) changes, which is how updates made on other
+ * instances are picked up. Until a load succeeds the defaults are served and
+ * the periodic refresh retries it.
  */
 @Service
 @RequiredArgsConstructor
@@ -28,6 +45,14 @@ public class ConfigService {
     private static final Integer DEFAULT_AUTO_EXTEND_BY_MIN = 10;
     private static final Integer DEFAULT_SELLER_TEMP_DURATION_DAYS = 7;
 
+    private record Snapshot(Map<String, Integer> intValues, Instant version, long count) {
+    }
+
+    // Served until the first load succeeds
+    private static final Snapshot DEFAULTS = new Snapshot(Map.of(), null, -1);
+
+    private volatile Snapshot snapshot = DEFAULTS;
+
     /**
      * Get the number of minutes a product should be highlighted as "new"
      * 
@@ -76,13 +101,61 @@ public class ConfigService {
      * Generic method to retrieve integer config with fallback
      */
     private Integer getIntConfig(String key, Integer defaultValue) {
+        Integer value = snapshot.intValues().get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reloadSnapshot();
+    }
+
+    /**
+     * Reload the snapshot if configs changed since it was taken (e.g. updated
+     * through another instance)
+     */
+    @Scheduled(fixedDelayString = "${config.refresh-interval-ms:10000}")
+    public void refreshIfChanged() {
+        try {
+            Instant version = systemConfigRepository.findLatestUpdatedAt()
+                    .map(ZonedDateTime::toInstant)
+                    .orElse(null);
+            Snapshot current = snapshot;
+            if (current != DEFAULTS && Objects.equals(current.version(), version)
+                    && current.count() == systemConfigRepository.count()) {
+                return;
+            }
+            reloadSnapshot();
+        } catch (Exception e) {
+            log.warn("Error checking system configs for changes, keeping current values", e);
+        }
+    }
+
+    /**
+     * Build a new snapshot from the table and publish it in one volatile write.
+     * On failure the previous snapshot stays in place (defaults if none yet).
+     */
+    private synchronized void reloadSnapshot() {
         try {
-            return systemConfigRepository.findByKey(key)
-                    .map(SystemConfig::getIntValue)
-                    .orElse(defaultValue);
+            List<SystemConfig> configs = systemConfigRepository.findAll();
+            Map<String, Integer> intValues = new HashMap<>();
+            Instant version = null;
+            for (SystemConfig config : configs) {
+                Integer value = config.getIntValue();
+                if (value != null) {
+                    intValues.put(config.getKey(), value);
+                }
+                if (config.getUpdatedAt() != null) {
+                    Instant updatedAt = config.getUpdatedAt().toInstant();
+                    if (version == null || updatedAt.isAfter(version)) {
+                        version = updatedAt;
+                    }
+                }
+            }
+            snapshot = new Snapshot(Map.copyOf(intValues), version, configs.size());
+            log.debug("Loaded {} system configs", configs.size());
         } catch (Exception e) {
-            log.warn("Error getting config '{}', using default: {}", key, defaultValue, e);
-            return defaultValue;
+            log.warn("Error loading system configs, using previous values or defaults", e);
         }
     }
 
@@ -91,7 +164,7 @@ public class ConfigService {
     /**
      * Get all system configurations (for admin)
      */
-    public java.util.List<SystemConfig> getAllConfigs() {
+    public List<SystemConfig> getAllConfigs() {
         return systemConfigRepository.findAll();
     }
 
@@ -114,6 +187,7 @@ public class ConfigService {
 
         config.setValue(value);
         SystemConfig updated = systemConfigRepository.save(config);
+        reloadSnapshot();
 
         log.info("System config '{}' updated to: {}", key, value);
         return updated;
@@ -0,0 +1,310 @@
+package com.taitrinh.online_auction.service;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.taitrinh.online_auction.dto.product.ProductDetailResponse;
+import com.taitrinh.online_auction.entity.Product;
+import com.taitrinh.online_auction.entity.User;
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+import com.taitrinh.online_auction.mapper.ProductMapper;
+import com.taitrinh.online_auction.repository.ProductRepository;
+import com.taitrinh.online_auction.util.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Product detail pages by slug, without the viewer-specific parts. Loading a
+ * detail fetch-joins seller, category, parent category, highest bidder and
+ * images (a cartesian product over the images), which every viewer of a hot
+ * auction used to repeat.
+ *
+ * Entries are dropped after commit when the product is bid on, has its
+ * description appended, ends or is deleted, and expire after a TTL (seller and
+ * bidder ratings, views counted on other instances). The names a viewer may
+ * see unmasked, the view count and the time-dependent flags are applied per
+ * request on a copy of the cached response.
+ *
+ * Bounded by the estimated size of the entries (mostly descriptions), the
+ * least recently used are evicted first. An entry's ETag changes with every
+ * load, so it can be checked without loading anything.
+ */
+@Service
+public class ProductDetailCache {
+
+    // Invalidations are tracked per stripe of product ids
+    private static final int STRIPES = 64;
+    // Rough size of an entry besides its strings and images
+    private static final int BASE_WEIGHT = 1024;
+    private static final int IMAGE_WEIGHT = 256;
+
+    /**
+     * A cached product detail and what the viewer overlay needs
+     */
+    public static final class Detail {
+        private final ProductDetailResponse response;
+        private final Long sellerId;
+        private final Long highestBidderId;
+        private final String highestBidderFullName;
+        private final Long winnerId;
+        private final String winnerFullName;
+        private final boolean endedFlag;
+        // Invalidation count when the load started, a newer load has a higher one
+        private final long version;
+        private final long loadedAt;
+        private final int weight;
+        // Views counted on this instance since the entry was loaded
+        private final LongAdder views = new LongAdder();
+
+        Detail(ProductDetailResponse response, Long sellerId, User highestBidder, User winner, boolean endedFlag,
+                long version, long loadedAt) {
+            this.response = response;
+            this.sellerId = sellerId;
+            this.highestBidderId = highestBidder != null ? highestBidder.getId() : null;
+            this.highestBidderFullName = highestBidder != null ? highestBidder.getFullName() : null;
+            this.winnerId = winner != null ? winner.getId() : null;
+            this.winnerFullName = winner != null ? winner.getFullName() : null;
+            this.endedFlag = endedFlag;
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.weight = weigh(response);
+        }
+
+        public Long getProductId() {
+            return response.getId();
+        }
+
+        public void countView() {
+            views.increment();
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ConfigService configService;
+    private final ProductViewCounter productViewCounter;
+    private final ResourceVersions resourceVersions;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${product.detail-cache.max-bytes:33554432}")
+    private long maxBytes = 32 * 1024 * 1024;
+
+    @Value("${product.detail-cache.ttl-ms:60000}")
+    private long ttlMs = 60_000;
+
+    // slug -> detail in access order, guarded by itself
+    private final LinkedHashMap<String, Detail> details = new LinkedHashMap<>(256, 0.75f, true);
+    // productId -> slug, guarded by details
+    private final Map<Long, String> slugs = new HashMap<>();
+    private long bytes;
+
+    // A load does not cache what it read if its product was invalidated meanwhile
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(STRIPES);
+
+    private final SingleFlight<String, Optional<Detail>> loads = new SingleFlight<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ProductDetailCache(ProductRepository productRepository, ProductMapper productMapper,
+            ConfigService configService, ProductViewCounter productViewCounter, ResourceVersions resourceVersions,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.configService = configService;
+        this.productViewCounter = productViewCounter;
+        this.resourceVersions = resourceVersions;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.hits = Counter.builder("product.detail.cache.requests")
+                .description("Product detail requests served from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("product.detail.cache.requests")
+                .description("Product detail requests served from the cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("product.detail.cache.evictions")
+                .description("Product details evicted to stay within the size limit")
+                .register(meterRegistry);
+        Gauge.builder("product.detail.cache.size", this, ProductDetailCache::size)
+                .description("Cached product details")
+                .register(meterRegistry);
+        Gauge.builder("product.detail.cache.bytes", this, ProductDetailCache::bytes)
+                .description("Estimated size of the cached product details")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached detail of a product, loaded on a miss (empty if there is no
+     * such product)
+     */
+    public Optional<Detail> getBySlug(String slug) {
+        Detail detail;
+        synchronized (details) {
+            detail = details.get(slug);
+            if (detail != null && System.currentTimeMillis() - detail.loadedAt >= ttlMs) {
+                remove(slug);
+                detail = null;
+            }
+        }
+        if (detail != null) {
+            hits.increment();
+            return Optional.of(detail);
+        }
+
+        misses.increment();
+        // Concurrent misses on the same slug (a hot auction after a bid) share one query
+        return loads.load(slug, 0, () -> {
+            long generation = invalidations.get();
+            Optional<Detail> loaded = readOnlyTransaction.execute(status -> productRepository.findBySlug(slug)
+                    .map(product -> toDetail(product, generation)));
+            loaded.ifPresent(loadedDetail -> put(slug, loadedDetail, generation));
+            return loaded;
+        });
+    }
+
+    /**
+     * ETag of the cached detail as a given viewer sees it, empty while the
+     * product is not cached (nothing is loaded)
+     */
+    public Optional<String> getETag(String slug, Long viewerId) {
+        Detail detail;
+        synchronized (details) {
+            detail = details.get(slug);
+        }
+        if (detail == null || System.currentTimeMillis() - detail.loadedAt >= ttlMs) {
+            return Optional.empty();
+        }
+        return Optional.of(resourceVersions.eTagForViewer("product", viewerId, detail.getProductId(), detail.version));
+    }
+
+    /**
+     * The detail as a given viewer sees it. Sellers see every name, the highest
+     * bidder and the winner see their own.
+     */
+    public ProductDetailResponse toResponse(Detail detail, Long viewerId) {
+        ProductDetailResponse cached = detail.response;
+        ZonedDateTime now = ZonedDateTime.now();
+        Integer newProductHighlightMin = configService.getNewProductHighlightMin();
+
+        ProductDetailResponse response = cached.toBuilder()
+                .viewCount(cached.getViewCount() + detail.views.intValue())
+                .isEnded(detail.endedFlag || (cached.getEndTime() != null && cached.getEndTime().isBefore(now)))
+                .isNew(cached.getCreatedAt() != null && newProductHighlightMin != null
+                        && cached.getCreatedAt().isAfter(now.minusMinutes(newProductHighlightMin)))
+                .build();
+
+        boolean isSeller = viewerId != null && viewerId.equals(detail.sellerId);
+        productMapper.unmaskNames(response, viewerId, isSeller, detail.highestBidderId,
+                detail.highestBidderFullName, detail.winnerId, detail.winnerFullName);
+        return response;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case BID, DESCRIPTION_UPDATED, ENDED, DELETED -> invalidate(event.productId());
+            case CREATED -> {
+                // Not cached yet
+            }
+        }
+    }
+
+    public void invalidate(Long productId) {
+        long generation = invalidations.incrementAndGet();
+        invalidatedAt.accumulateAndGet(stripe(productId), generation, Math::max);
+        synchronized (details) {
+            String slug = slugs.get(productId);
+            if (slug != null) {
+                remove(slug);
+            }
+        }
+    }
+
+    private Detail toDetail(Product product, long generation) {
+        // Masked for every viewer, unmasked per request
+        ProductDetailResponse response = productMapper.toDetailResponse(product);
+        response.setViewCount(product.getViewCount() + productViewCounter.getPendingViews(product.getId()));
+        return new Detail(response, product.getSeller() != null ? product.getSeller().getId() : null,
+                product.getHighestBidder(), product.getWinner(), Boolean.TRUE.equals(product.getIsEnded()),
+                generation, System.currentTimeMillis());
+    }
+
+    void put(String slug, Detail detail, long generation) {
+        synchronized (details) {
+            // Changed while loading, the next request loads it again
+            if (invalidatedAt.get(stripe(detail.getProductId())) > generation || detail.weight > maxBytes) {
+                return;
+            }
+            remove(slug);
+            details.put(slug, detail);
+            slugs.put(detail.getProductId(), slug);
+            bytes += detail.weight;
+
+            Iterator<Map.Entry<String, Detail>> eldest = details.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Detail> evicted = eldest.next();
+                eldest.remove();
+                slugs.remove(evicted.getValue().getProductId(), evicted.getKey());
+                bytes -= evicted.getValue().weight;
+                evictions.increment();
+            }
+        }
+    }
+
+    // Caller holds details
+    private void remove(String slug) {
+        Detail removed = details.remove(slug);
+        if (removed != null) {
+            slugs.remove(removed.getProductId(), slug);
+            bytes -= removed.weight;
+        }
+    }
+
+    private static int stripe(Long productId) {
+        return (int) Math.floorMod(productId, (long) STRIPES);
+    }
+
+    private static int weigh(ProductDetailResponse response) {
+        long chars = length(response.getTitle()) + length(response.getSlug()) + length(response.getDescription());
+        int images = response.getImages() != null ? response.getImages().size() : 0;
+        // Strings are at most 2 bytes per character
+        return (int) Math.min(Integer.MAX_VALUE, BASE_WEIGHT + 2 * chars + (long) IMAGE_WEIGHT * images);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    int size() {
+        synchronized (details) {
+            return details.size();
+        }
+    }
+
+    long bytes() {
+        synchronized (details) {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.taitrinh.online_auction.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.taitrinh.online_auction.dto.product.ProductEventsResponse;
+import com.taitrinh.online_auction.dto.websocket.ProductEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stamps public product events with a per-product sequence number and keeps the
+ * last N of them in an in-memory ring buffer, so a reconnecting client can fetch
+ * only the events it missed instead of refetching bid history and product
+ * detail.
+ */
+@Service
+@Slf4j
+public class ProductEventLogService {
+
+    @Value("${realtime.event-log.capacity:100}")
+    private int capacity;
+
+    @Value("${realtime.event-log.idle-ttl-ms:7200000}")
+    private long idleTtlMs;
+
+    private final Map<Long, EventStream> streams = new ConcurrentHashMap<>();
+
+    /**
+     * Assign the next sequence number to the event, store it, then run the
+     * publisher. Publishing happens under the product's lock so events leave the
+     * server in sequence order.
+     *
+     * @return the sequence number of the event
+     */
+    public long appendAndPublish(ProductEvent event, Runnable publisher) {
+        EventStream stream = streams.computeIfAbsent(event.getProductId(), k -> new EventStream(capacity));
+        synchronized (stream) {
+            stream.append(event);
+            publisher.run();
+            return stream.latestSequence;
+        }
+    }
+
+    /**
+     * Get the events of a product published after the given sequence. When the
+     * requested range is no longer in the buffer (rolled over, or the server was
+     * restarted) the client has to refetch the full state.
+     */
+    public ProductEventsResponse getEventsSince(Long productId, long since) {
+        EventStream stream = streams.get(productId);
+        if (stream == null) {
+            return noEvents(since);
+        }
+
+        synchronized (stream) {
+            return eventsSince(stream, since);
+        }
+    }
+
+    /**
+     * Hand the missed events to a new live subscriber under the product's lock,
+     * so it can queue the catch-up and register before any further event is
+     * published and sees every event exactly once. A product without events
+     * gets an empty stream to lock, pruned like any idle one.
+     */
+    public void subscribeSince(Long productId, long since, Consumer<ProductEventsResponse> subscriber) {
+        EventStream stream = streams.computeIfAbsent(productId, k -> new EventStream(capacity));
+        synchronized (stream) {
+            subscriber.accept(eventsSince(stream, since));
+        }
+    }
+
+    // Nothing published since startup - only a client that saw events from a
+    // previous run needs to refetch
+    private static ProductEventsResponse noEvents(long since) {
+        return ProductEventsResponse.builder()
+                .latestSequence(null)
+                .events(List.of())
+                .fullRefetchRequired(since > 0)
+                .build();
+    }
+
+    private ProductEventsResponse eventsSince(EventStream stream, long since) {
+        if (stream.size == 0) {
+            return noEvents(since);
+        }
+        long latest = stream.latestSequence;
+        boolean outOfRange = since > latest || since < stream.oldestSequence() - 1;
+        return ProductEventsResponse.builder()
+                .latestSequence(latest)
+                .events(outOfRange ? List.of() : stream.after(since))
+                .fullRefetchRequired(outOfRange)
+                .build();
+    }
+
+    /**
+     * Drop streams of products that have been quiet for a while (typically ended
+     * auctions) to bound memory
+     */
+    @Scheduled(fixedDelayString = "${realtime.event-log.prune-interval-ms:600000}")
+    public void pruneIdleStreams() {
+        long cutoff = System.currentTimeMillis() - idleTtlMs;
+        int before = streams.size();
+        streams.values().removeIf(stream -> stream.lastAppendedAt < cutoff);
+        int removed = before - streams.size();
+        if (removed > 0) {
+            log.debug("Pruned {} idle product event streams", removed);
+        }
+    }
+
+    /**
+     * Fixed-size ring buffer of events of one product. Guarded by its own monitor.
+     */
+    private static class EventStream {
+
+        private final ProductEvent[] buffer;
+        private long latestSequence;
+        private int size;
+        private volatile long lastAppendedAt;
+
+        EventStream(int capacity) {
+            this.buffer = new ProductEvent[capacity];
+            // Start from the creation time rather than 0 so a stream recreated after a
+            // restart or prune never hands out sequences lower than one a client has
+            // already seen
+            this.latestSequence = System.currentTimeMillis();
+            this.lastAppendedAt = latestSequence;
+        }
+
+        void append(ProductEvent event) {
+            latestSequence++;
+            event.setSequence(latestSequence);
+            buffer[(int) (latestSequence % buffer.length)] = event;
+            if (size < buffer.length) {
+                size++;
+            }
+            lastAppendedAt = System.currentTimeMillis();
+        }
+
+        long oldestSequence() {
+            return latestSequence - size + 1;
+        }
+
+        List<ProductEvent> after(long since) {
+            List<ProductEvent> events = new ArrayList<>((int) (latestSequence - since));
+            for (long seq = since + 1; seq <= latestSequence; seq++) {
+                events.add(buffer[(int) (seq % buffer.length)]);
+            }
+            return events;
+        }
+    }
+}
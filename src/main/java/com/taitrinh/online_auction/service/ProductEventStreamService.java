@@ -0,0 +1,255 @@
+package com.taitrinh.online_auction.service;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.taitrinh.online_auction.dto.websocket.BidEvent;
+import com.taitrinh.online_auction.dto.websocket.ProductEvent;
+import com.taitrinh.online_auction.entity.ProductAuctionState;
+import com.taitrinh.online_auction.exception.ProductEndedException;
+import com.taitrinh.online_auction.exception.ResourceNotFoundException;
+import com.taitrinh.online_auction.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Server-Sent Events fan-out of public product events for read-only watchers
+ * (mostly anonymous), who don't need a full SockJS/STOMP session.
+ *
+ * Each event is serialized once per product and the same JSON string is queued
+ * to every connection. Every connection has a bounded queue drained on a
+ * virtual thread, so a slow client only ever blocks itself and is dropped once
+ * its queue is full.
+ */
+@Service
+@Slf4j
+public class ProductEventStreamService {
+
+    private final ProductEventLogService productEventLogService;
+    private final ProductRepository productRepository;
+    private final JsonMapper jsonMapper;
+
+    @Value("${realtime.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${realtime.sse.queue-capacity:128}")
+    private int queueCapacity;
+
+    // productId -> open connections
+    private final Map<Long, Set<SseConnection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final ExecutorService writerExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-writer-", 0).factory());
+
+    public ProductEventStreamService(ProductEventLogService productEventLogService,
+            ProductRepository productRepository, JsonMapper jsonMapper, MeterRegistry meterRegistry) {
+        this.productEventLogService = productEventLogService;
+        this.productRepository = productRepository;
+        this.jsonMapper = jsonMapper;
+        Gauge.builder("sse.connections.active", openConnections, AtomicInteger::get)
+                .description("Number of open product event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open an event stream for a product. When the client reconnects with a
+     * Last-Event-ID, the events it missed are sent first, or a "refetch" event if
+     * they are no longer buffered. Only running auctions can be watched, so
+     * streams can't be opened (and kept in memory) for arbitrary ids.
+     */
+    public SseEmitter subscribe(Long productId, Long lastEventId) {
+        ProductAuctionState auctionState = productRepository.findAuctionStateById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm", productId));
+        if (Boolean.TRUE.equals(auctionState.getIsEnded())
+                || !auctionState.getEndTime().isAfter(ZonedDateTime.now())) {
+            throw new ProductEndedException("Sản phẩm đã kết thúc");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        SseConnection connection = new SseConnection(productId, emitter);
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        if (lastEventId == null) {
+            register(connection);
+            return emitter;
+        }
+
+        // Runs under the product's event lock, so no live event can be queued
+        // ahead of (or be missing from) the catch-up
+        productEventLogService.subscribeSince(productId, lastEventId, missed -> {
+            if (Boolean.TRUE.equals(missed.getFullRefetchRequired())) {
+                connection.enqueue(SseMessage.event(missed.getLatestSequence(), "refetch", "{}"));
+            } else {
+                for (ProductEvent event : missed.getEvents()) {
+                    connection.enqueue(toMessage(event));
+                }
+            }
+            register(connection);
+        });
+        return emitter;
+    }
+
+    /**
+     * Publish an event to every stream of its product. Called in sequence order
+     * by the notification services.
+     */
+    public void publish(ProductEvent event) {
+        Set<SseConnection> productConnections = connections.get(event.getProductId());
+        if (productConnections == null || productConnections.isEmpty()) {
+            return;
+        }
+
+        SseMessage message = toMessage(event);
+        for (SseConnection connection : productConnections) {
+            connection.enqueue(message);
+        }
+    }
+
+    /**
+     * Heartbeat comment on every stream so proxies keep idle connections open and
+     * dead clients are detected
+     */
+    @Scheduled(fixedDelayString = "${realtime.sse.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        for (Set<SseConnection> productConnections : connections.values()) {
+            for (SseConnection connection : productConnections) {
+                connection.enqueue(SseMessage.HEARTBEAT);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(productConnections -> productConnections.forEach(c -> c.emitter.complete()));
+        writerExecutor.shutdown();
+    }
+
+    private SseMessage toMessage(ProductEvent event) {
+        String name = event instanceof BidEvent ? "bids" : "comments";
+        return SseMessage.event(event.getSequence(), name, jsonMapper.writeValueAsString(event));
+    }
+
+    /**
+     * Add a connection to its product's streams, unless it was already closed
+     * (e.g. its catch-up overflowed the queue). Checked inside compute, so a
+     * close racing with this either sees the connection registered and removes
+     * it, or is seen here.
+     */
+    private void register(SseConnection connection) {
+        connections.compute(connection.productId, (k, productConnections) -> {
+            if (connection.closed) {
+                return productConnections;
+            }
+            Set<SseConnection> result = productConnections != null ? productConnections
+                    : ConcurrentHashMap.newKeySet();
+            if (result.add(connection)) {
+                openConnections.incrementAndGet();
+            }
+            return result;
+        });
+    }
+
+    private void remove(SseConnection connection) {
+        connection.closed = true;
+        connections.computeIfPresent(connection.productId, (k, productConnections) -> {
+            if (productConnections.remove(connection)) {
+                openConnections.decrementAndGet();
+            }
+            return productConnections.isEmpty() ? null : productConnections;
+        });
+    }
+
+    /**
+     * Pre-serialized SSE message shared by all connections of a product
+     */
+    private record SseMessage(Long id, String name, String data) {
+
+        static final SseMessage HEARTBEAT = new SseMessage(null, null, null);
+
+        static SseMessage event(Long id, String name, String data) {
+            return new SseMessage(id, name, data);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (data == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            if (id != null) {
+                builder.id(String.valueOf(id));
+            }
+            return builder;
+        }
+    }
+
+    private class SseConnection {
+
+        private final Long productId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseMessage> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Set on removal, never registered again
+        private volatile boolean closed;
+
+        SseConnection(Long productId, SseEmitter emitter) {
+            this.productId = productId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseMessage message) {
+            if (!queue.offer(message)) {
+                // Client can't keep up, it will reconnect with Last-Event-ID and catch up
+                log.debug("Dropping slow SSE connection for product {}", productId);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                writerExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseMessage message;
+                while ((message = queue.poll()) != null) {
+                    emitter.send(message.toEvent());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // A message may have been queued after the last poll but before the flag
+            // was cleared
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                writerExecutor.execute(this::drain);
+            }
+        }
+    }
+}
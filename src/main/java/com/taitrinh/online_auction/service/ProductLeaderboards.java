@@ -0,0 +1,291 @@
+package com.taitrinh.online_auction.service;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.taitrinh.online_auction.dto.ApiResponse;
+import com.taitrinh.online_auction.dto.product.ProductListResponse;
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+import com.taitrinh.online_auction.repository.ProductCardRepository;
+
+import jakarta.annotation.PostConstruct;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Homepage leaderboards (ending soon, most bids, highest price) of active
+ * products, kept in memory instead of running an ORDER BY ... LIMIT per
+ * homepage load.
+ *
+ * The end time, bid count and price of every active product are held in one
+ * skip list per board, loaded and kept current by {@link ActiveProductLoader}
+ * from {@link ProductChangedEvent} (BID events carry the auto-extended end
+ * time). Each board's response is serialized once and reused until its top 5
+ * changes: different ids, or an event on one of the listed products (price,
+ * bidder). The response timestamp is therefore when it was rendered.
+ */
+@Service
+public class ProductLeaderboards implements ActiveProductLoader.Subscriber {
+
+    public static final int SIZE = 5;
+
+    /**
+     * Ranking fields of an active product
+     */
+    record Ranked(long id, long endTime, int bidCount, BigDecimal currentPrice) {
+    }
+
+    public enum Board {
+        ENDING_SOON(Comparator.comparingLong(Ranked::endTime)),
+        MOST_BIDS(Comparator.comparingInt(Ranked::bidCount).reversed()),
+        HIGHEST_PRICE(Comparator.comparing(Ranked::currentPrice).reversed());
+
+        private final Comparator<Ranked> order;
+
+        Board(Comparator<Ranked> order) {
+            // The id makes entries unique within a board
+            this.order = order.thenComparingLong(Ranked::id);
+        }
+    }
+
+    static final class Rankings {
+        final Map<Long, Ranked> products = new ConcurrentHashMap<>();
+        final Map<Board, ConcurrentSkipListSet<Ranked>> boards = new EnumMap<>(Board.class);
+
+        Rankings() {
+            for (Board board : Board.values()) {
+                boards.put(board, new ConcurrentSkipListSet<>(board.order));
+            }
+        }
+
+        void put(Ranked ranked) {
+            Ranked previous = products.put(ranked.id(), ranked);
+            for (ConcurrentSkipListSet<Ranked> board : boards.values()) {
+                if (previous != null) {
+                    board.remove(previous);
+                }
+                board.add(ranked);
+            }
+        }
+
+        void remove(long productId) {
+            Ranked previous = products.remove(productId);
+            if (previous != null) {
+                boards.values().forEach(board -> board.remove(previous));
+            }
+        }
+
+        List<Long> top(Board board) {
+            List<Long> ids = new ArrayList<>(SIZE);
+            for (Ranked ranked : boards.get(board)) {
+                if (ids.size() == SIZE) {
+                    break;
+                }
+                ids.add(ranked.id());
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * A serialized board response and what it was rendered from
+     */
+    private record Rendered(long generation, List<Long> ids, int newHighlightMin, long expiresAt, byte[] body) {
+    }
+
+    private final ProductCardRepository productCardRepository;
+    private final ConfigService configService;
+    private final JsonMapper jsonMapper;
+    private final ActiveProductLoader activeProductLoader;
+
+    // Changed under the loader's lock; null until the first load
+    private volatile Rankings rankings;
+
+    private final Map<Board, Rendered> rendered = new ConcurrentHashMap<>();
+    // Bumped when a listed product changes, so renders started before the change are not kept
+    private final AtomicLongArray generations = new AtomicLongArray(Board.values().length);
+    private final Object[] renderLocks = new Object[Board.values().length];
+
+    public ProductLeaderboards(ProductCardRepository productCardRepository, ConfigService configService,
+            JsonMapper jsonMapper, ActiveProductLoader activeProductLoader) {
+        this.productCardRepository = productCardRepository;
+        this.configService = configService;
+        this.jsonMapper = jsonMapper;
+        this.activeProductLoader = activeProductLoader;
+        for (int i = 0; i < renderLocks.length; i++) {
+            renderLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    void subscribe() {
+        activeProductLoader.subscribe(this);
+    }
+
+    /**
+     * Top 5 product ids of a board
+     */
+    public List<Long> getTopIds(Board board) {
+        return rankings().top(board);
+    }
+
+    /**
+     * The serialized {@code ApiResponse<List<ProductListResponse>>} of a board,
+     * rendered again only when its top 5 changed
+     */
+    public byte[] getResponseBody(Board board, String message) {
+        Rendered cached = currentRender(board);
+        if (cached != null) {
+            return cached.body();
+        }
+
+        synchronized (renderLocks[board.ordinal()]) {
+            cached = currentRender(board);
+            if (cached != null) {
+                return cached.body();
+            }
+
+            long generation = generations.get(board.ordinal());
+            List<Long> ids = getTopIds(board);
+            int newHighlightMin = configService.getNewProductHighlightMin();
+            List<ProductListResponse> cards = productCardRepository.findCardsByIds(ids, newHighlightMin);
+            byte[] body = jsonMapper.writeValueAsBytes(ApiResponse.ok(cards, message));
+
+            rendered.put(board, new Rendered(generation, ids, newHighlightMin,
+                    newUntil(cards, newHighlightMin), body));
+            return body;
+        }
+    }
+
+    private Rendered currentRender(Board board) {
+        Rendered cached = rendered.get(board);
+        if (cached == null
+                || cached.generation() != generations.get(board.ordinal())
+                || cached.newHighlightMin() != configService.getNewProductHighlightMin()
+                || System.currentTimeMillis() >= cached.expiresAt()
+                || !cached.ids().equals(getTopIds(board))) {
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * When the first "new" badge on the cards expires
+     */
+    private static long newUntil(List<ProductListResponse> cards, int newHighlightMin) {
+        long until = Long.MAX_VALUE;
+        for (ProductListResponse card : cards) {
+            if (Boolean.TRUE.equals(card.getIsNew()) && card.getCreatedAt() != null) {
+                until = Math.min(until, card.getCreatedAt().plusMinutes(newHighlightMin).toInstant().toEpochMilli());
+            }
+        }
+        return until;
+    }
+
+    // ===== Maintenance =====
+
+    /**
+     * Render the boards again (seller and category details on the cards are
+     * not tracked by events)
+     */
+    @Scheduled(fixedDelayString = "${product.leaderboards.render-interval-ms:300000}")
+    public void scheduledRender() {
+        invalidateAll();
+    }
+
+    private Rankings rankings() {
+        Rankings current = rankings;
+        if (current == null) {
+            activeProductLoader.ensureLoaded();
+            current = rankings;
+        }
+        return current;
+    }
+
+    @Override
+    public ActiveProductLoader.Load startLoad() {
+        Rankings loaded = new Rankings();
+        return new ActiveProductLoader.Load() {
+            @Override
+            public void add(ActiveProductLoader.ActiveProduct product) {
+                loaded.put(new Ranked(product.id(), product.endTime().toInstant().toEpochMilli(),
+                        product.bidCount(), product.currentPrice()));
+            }
+
+            @Override
+            public void install() {
+                ProductLeaderboards.this.install(loaded);
+            }
+        };
+    }
+
+    @Override
+    public void put(ActiveProductLoader.ActiveProduct product) {
+        apply(product.id(), new Ranked(product.id(), product.endTime().toInstant().toEpochMilli(),
+                product.bidCount(), product.currentPrice()));
+    }
+
+    @Override
+    public void remove(long productId) {
+        apply(productId, null);
+    }
+
+    @Override
+    public void updateAuctionState(long productId, BigDecimal currentPrice, int bidCount,
+            ZonedDateTime endTime) {
+        apply(productId, new Ranked(productId, endTime.toInstant().toEpochMilli(), bidCount, currentPrice));
+    }
+
+    /**
+     * Replace (or remove, when null) a product's ranking fields
+     */
+    void apply(Long productId, Ranked ranked) {
+        Rankings current = rankings;
+        if (current == null) {
+            return;
+        }
+        Set<Board> listedBefore = listedOn(current, productId);
+        if (ranked != null) {
+            current.put(ranked);
+        } else {
+            current.remove(productId);
+        }
+        // Listed cards show price, bid count and bidder, so a change to a
+        // listed product re-renders even when the ids stay the same
+        listedBefore.addAll(listedOn(current, productId));
+        listedBefore.forEach(board -> generations.incrementAndGet(board.ordinal()));
+    }
+
+    private static Set<Board> listedOn(Rankings rankings, Long productId) {
+        Set<Board> boards = EnumSet.noneOf(Board.class);
+        for (Board board : Board.values()) {
+            if (rankings.top(board).contains(productId)) {
+                boards.add(board);
+            }
+        }
+        return boards;
+    }
+
+    private void invalidateAll() {
+        for (Board board : Board.values()) {
+            generations.incrementAndGet(board.ordinal());
+        }
+    }
+
+    void install(Rankings loaded) {
+        rankings = loaded;
+        invalidateAll();
+    }
+}
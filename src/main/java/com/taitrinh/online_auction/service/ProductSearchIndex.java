@@ -0,0 +1,430 @@
+package com.taitrinh.online_auction.service;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.taitrinh.online_auction.event.CategoryChangedEvent;
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+import com.taitrinh.online_auction.util.SlugUtils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory inverted index over active (not ended) products, so keyword
+ * searches don't run plainto_tsquery, the category join and the native sort on
+ * the primary database.
+ *
+ * Title and description are folded with {@link SlugUtils#fold(String)} (same
+ * result as unaccent for Vietnamese) and split into terms. All query terms must
+ * match; the last one also matches as a prefix, for search-as-you-type.
+ *
+ * Loaded and kept current by {@link ActiveProductLoader} from
+ * {@link ProductChangedEvent}s. Postings only grow (descriptions are
+ * append-only and titles don't change); ended products are dropped from the
+ * product map right away and from the postings on the loader's periodic
+ * reload. Until the first load finishes, or if it fails, search returns empty
+ * and callers use the database.
+ */
+@Service
+@Slf4j
+public class ProductSearchIndex implements ActiveProductLoader.Subscriber {
+
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long[] NO_MATCH = new long[0];
+
+    /**
+     * Filter and sort fields of an indexed product
+     */
+    record IndexedProduct(Long id, Integer categoryId, Integer parentCategoryId, BigDecimal currentPrice,
+            int bidCount, ZonedDateTime endTime, ZonedDateTime createdAt) {
+
+        IndexedProduct withAuctionState(BigDecimal currentPrice, int bidCount, ZonedDateTime endTime) {
+            return new IndexedProduct(id, categoryId, parentCategoryId, currentPrice, bidCount, endTime, createdAt);
+        }
+
+        IndexedProduct withParentCategory(Integer parentCategoryId) {
+            return new IndexedProduct(id, categoryId, parentCategoryId, currentPrice, bidCount, endTime, createdAt);
+        }
+    }
+
+    /**
+     * One page of matching product ids (sorted), the total and the number of
+     * matches per category before the category filter
+     */
+    public record SearchResult(List<Long> ids, long total, Map<Integer, Long> categoryCounts) {
+    }
+
+    /**
+     * Posting lists are sorted id arrays, replaced (never modified) on update,
+     * so readers need no lock
+     */
+    static final class Index {
+        final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+        final Map<Long, IndexedProduct> products = new ConcurrentHashMap<>();
+    }
+
+    @Value("${search.index.enabled:true}")
+    private boolean enabled = true;
+
+    private final ActiveProductLoader activeProductLoader;
+
+    // Changed under the loader's lock, readers don't lock; null until the first load
+    private volatile Index index;
+
+    public ProductSearchIndex(ActiveProductLoader activeProductLoader, MeterRegistry meterRegistry) {
+        this.activeProductLoader = activeProductLoader;
+
+        Gauge.builder("search.index.products", this, ProductSearchIndex::size)
+                .description("Active products in the in-memory search index")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (enabled) {
+            activeProductLoader.subscribe(this);
+        }
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Search active products by keyword
+     *
+     * @param categoryId category or parent category to filter by (null for all)
+     * @param sortBy     endTime, currentPrice, bidCount or createdAt
+     * @return empty if the index is not built (search the database instead)
+     */
+    public Optional<SearchResult> search(String keyword, Integer categoryId, String sortBy, boolean descending,
+            int page, int size) {
+        Index current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        Map<Integer, Long> categoryCounts = new HashMap<>();
+        List<IndexedProduct> hits = new ArrayList<>();
+        for (long id : match(current, keyword)) {
+            IndexedProduct product = current.products.get(id);
+            if (product == null) {
+                // Ended since it was indexed
+                continue;
+            }
+            categoryCounts.merge(product.categoryId(), 1L, Long::sum);
+            if (categoryId == null || categoryId.equals(product.categoryId())
+                    || categoryId.equals(product.parentCategoryId())) {
+                hits.add(product);
+            }
+        }
+
+        int from = (int) Math.min((long) page * size, hits.size());
+        int to = (int) Math.min((long) from + size, hits.size());
+        List<Long> ids = topN(hits, comparator(sortBy, descending), to).subList(from, to).stream()
+                .map(IndexedProduct::id)
+                .toList();
+        return Optional.of(new SearchResult(ids, hits.size(), categoryCounts));
+    }
+
+    /**
+     * A category moved to another parent: the parent filter of its products
+     * changes
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!enabled || event.type() != CategoryChangedEvent.Type.UPDATED) {
+            return;
+        }
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        current.products.replaceAll((id, product) -> event.categoryId().equals(product.categoryId())
+                ? product.withParentCategory(event.parentId())
+                : product);
+    }
+
+    // ===== Loading and incremental updates =====
+
+    @Override
+    public ActiveProductLoader.Load startLoad() {
+        long started = System.nanoTime();
+        Builder builder = new Builder();
+        return new ActiveProductLoader.Load() {
+            private Index built;
+
+            @Override
+            public void add(ActiveProductLoader.ActiveProduct product) {
+                builder.add(toIndexed(product), product.title(), product.description());
+            }
+
+            @Override
+            public void complete() {
+                built = builder.build();
+            }
+
+            @Override
+            public void install() {
+                index = built;
+                log.info("Product search index built: {} products, {} terms in {} ms", built.products.size(),
+                        built.postings.size(), (System.nanoTime() - started) / 1_000_000);
+            }
+        };
+    }
+
+    @Override
+    public void put(ActiveProductLoader.ActiveProduct product) {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        for (String term : terms(product.title(), product.description())) {
+            current.postings.put(term, insert(current.postings.get(term), product.id()));
+        }
+        current.products.put(product.id(), toIndexed(product));
+    }
+
+    @Override
+    public void updateAuctionState(long productId, BigDecimal currentPrice, int bidCount,
+            ZonedDateTime endTime) {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        current.products.computeIfPresent(productId,
+                (id, product) -> product.withAuctionState(currentPrice, bidCount, endTime));
+    }
+
+    @Override
+    public void remove(long productId) {
+        Index current = index;
+        if (current != null) {
+            current.products.remove(productId);
+        }
+    }
+
+    private int size() {
+        Index current = index;
+        return current != null ? current.products.size() : 0;
+    }
+
+    // ===== Matching =====
+
+    /**
+     * Ids (sorted) containing every query term; the last term also matches as a
+     * prefix
+     */
+    static long[] match(Index index, String keyword) {
+        List<String> queryTerms = new ArrayList<>(tokenize(keyword));
+        if (queryTerms.isEmpty()) {
+            return NO_MATCH;
+        }
+
+        // Intersect the rarest lists first
+        List<long[]> lists = new ArrayList<>(queryTerms.size());
+        for (int i = 0; i < queryTerms.size(); i++) {
+            String term = queryTerms.get(i);
+            long[] postings = i == queryTerms.size() - 1
+                    ? prefixPostings(index, term)
+                    : index.postings.getOrDefault(term, NO_MATCH);
+            if (postings.length == 0) {
+                return NO_MATCH;
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        long[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static long[] prefixPostings(Index index, String prefix) {
+        Map<String, long[]> matching = index.postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+        if (matching.size() == 1) {
+            return matching.values().iterator().next();
+        }
+
+        int total = 0;
+        for (long[] postings : matching.values()) {
+            total += postings.length;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (long[] postings : matching.values()) {
+            System.arraycopy(postings, 0, merged, offset, postings.length);
+            offset += postings.length;
+        }
+        return sortedDistinct(merged, total);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long[] insert(long[] sorted, long id) {
+        if (sorted == null) {
+            return new long[] { id };
+        }
+        int position = Arrays.binarySearch(sorted, id);
+        if (position >= 0) {
+            return sorted;
+        }
+        int insertAt = -position - 1;
+        long[] result = new long[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(sorted, insertAt, result, insertAt + 1, sorted.length - insertAt);
+        return result;
+    }
+
+    private static long[] sortedDistinct(long[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            if (size == 0 || values[size - 1] != values[i]) {
+                values[size++] = values[i];
+            }
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * First n products in order, without sorting every hit for the first pages
+     * of a broad query
+     */
+    private static List<IndexedProduct> topN(List<IndexedProduct> hits, Comparator<IndexedProduct> order, int n) {
+        if (n == 0) {
+            return List.of();
+        }
+        if (n * 4 >= hits.size()) {
+            hits.sort(order);
+            return hits;
+        }
+        PriorityQueue<IndexedProduct> heap = new PriorityQueue<>(n + 1, order.reversed());
+        for (IndexedProduct hit : hits) {
+            heap.add(hit);
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        }
+        List<IndexedProduct> top = new ArrayList<>(heap);
+        top.sort(order);
+        return top;
+    }
+
+    private static Comparator<IndexedProduct> comparator(String sortBy, boolean descending) {
+        Comparator<IndexedProduct> order = switch (sortBy != null ? sortBy : "endTime") {
+            case "currentPrice" -> Comparator.comparing(IndexedProduct::currentPrice);
+            case "bidCount" -> Comparator.comparingInt(IndexedProduct::bidCount);
+            case "createdAt" -> Comparator.comparing(IndexedProduct::createdAt);
+            default -> Comparator.comparing(IndexedProduct::endTime);
+        };
+        if (descending) {
+            order = order.reversed();
+        }
+        return order.thenComparing(IndexedProduct::id);
+    }
+
+    // ===== Tokenizing and loading =====
+
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : TERM_SEPARATOR.split(SlugUtils.fold(text))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> terms(String title, String description) {
+        Set<String> terms = new HashSet<>(tokenize(title));
+        terms.addAll(tokenize(description));
+        return terms;
+    }
+
+    private static IndexedProduct toIndexed(ActiveProductLoader.ActiveProduct product) {
+        return new IndexedProduct(product.id(), product.categoryId(), product.parentCategoryId(),
+                product.currentPrice(), product.bidCount(), product.endTime(), product.createdAt());
+    }
+
+    /**
+     * Bulk build: collects postings in growable arrays, sorted once at the end
+     */
+    static final class Builder {
+        private final Index index = new Index();
+        private final Map<String, long[]> buffers = new HashMap<>();
+        private final Map<String, Integer> sizes = new HashMap<>();
+
+        void add(IndexedProduct product, String title, String description) {
+            index.products.put(product.id(), product);
+            for (String term : terms(title, description)) {
+                long[] buffer = buffers.get(term);
+                int size = sizes.getOrDefault(term, 0);
+                if (buffer == null) {
+                    buffer = new long[4];
+                } else if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                }
+                buffer[size] = product.id();
+                buffers.put(term, buffer);
+                sizes.put(term, size + 1);
+            }
+        }
+
+        Index build() {
+            buffers.forEach((term, buffer) -> index.postings.put(term, sortedDistinct(buffer, sizes.get(term))));
+            return index;
+        }
+    }
+
+    /**
+     * Replace the index (tests and benchmarks build one without a database)
+     */
+    void install(Index built) {
+        index = built;
+    }
+}
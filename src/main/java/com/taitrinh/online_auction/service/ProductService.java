@@ -3,15 +3,18 @@ package com.taitrinh.online_auction.service;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -19,10 +22,13 @@ import com.taitrinh.online_auction.dto.product.BidHistoryResponse;
 import com.taitrinh.online_auction.dto.product.CreateProductRequest;
 import com.taitrinh.online_auction.dto.product.CreateProductResponse;
 import com.taitrinh.online_auction.dto.product.CreateProductWithFilesRequest;
+import com.taitrinh.online_auction.dto.product.CursorSliceResponse;
 import com.taitrinh.online_auction.dto.product.DescriptionLogResponse;
 import com.taitrinh.online_auction.dto.product.ProductDetailResponse;
 import com.taitrinh.online_auction.dto.product.ProductListResponse;
 import com.taitrinh.online_auction.dto.product.ProductSearchRequest;
+import com.taitrinh.online_auction.dto.product.SearchFacetResponse;
+import com.taitrinh.online_auction.dto.product.SuggestionResponse;
 import com.taitrinh.online_auction.dto.product.UpdateProductDescriptionRequest;
 import com.taitrinh.online_auction.entity.BidHistory;
 import com.taitrinh.online_auction.entity.Category;
@@ -30,6 +36,7 @@ import com.taitrinh.online_auction.entity.DescriptionLog;
 import com.taitrinh.online_auction.entity.Product;
 import com.taitrinh.online_auction.entity.ProductImage;
 import com.taitrinh.online_auction.entity.User;
+import com.taitrinh.online_auction.event.ProductChangedEvent;
 import com.taitrinh.online_auction.exception.BadRequestException;
 import com.taitrinh.online_auction.exception.ProductEndedException;
 import com.taitrinh.online_auction.exception.ResourceNotFoundException;
@@ -38,6 +45,8 @@ import com.taitrinh.online_auction.mapper.ProductMapper;
 import com.taitrinh.online_auction.repository.BidHistoryRepository;
 import com.taitrinh.online_auction.repository.CategoryRepository;
 import com.taitrinh.online_auction.repository.DescriptionLogRepository;
+import com.taitrinh.online_auction.repository.ProductCardRepository;
+import com.taitrinh.online_auction.repository.ProductCursorRepository;
 import com.taitrinh.online_auction.repository.ProductRepository;
 import com.taitrinh.online_auction.repository.UserRepository;
 import com.taitrinh.online_auction.util.SlugUtils;
@@ -53,54 +62,22 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final BidHistoryRepository bidHistoryRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryTreeCache categoryTreeCache;
     private final UserRepository userRepository;
     private final DescriptionLogRepository descriptionLogRepository;
     private final ProductMapper productMapper;
-    private final ApplicationContext applicationContext;
+    private final ProductCardRepository productCardRepository;
+    private final ProductCursorRepository productCursorRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductDetailCache productDetailCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConfigService configService;
+    private final ProductViewCounter productViewCounter;
     private final S3Service s3Service;
 
-    /**
-     * Get top 5 products ending soon
-     */
-    @Transactional(readOnly = true)
-    public List<ProductListResponse> getTop5EndingSoon() {
-        log.debug("Getting top 5 products ending soon");
-        Pageable pageable = PageRequest.of(0, 5);
-        List<Product> products = productRepository.findTop5EndingSoon(pageable);
-        return products.stream()
-                .map(productMapper::toListResponse)
-                .toList();
-    }
-
-    /**
-     * Get top 5 products with highest bid count
-     */
-    @Transactional(readOnly = true)
-    public List<ProductListResponse> getTop5ByBidCount() {
-        log.debug("Getting top 5 products by bid count");
-        Pageable pageable = PageRequest.of(0, 5);
-        List<Product> products = productRepository.findTop5ByBidCount(pageable);
-        return products.stream()
-                .map(productMapper::toListResponse)
-                .toList();
-    }
-
-    /**
-     * Get top 5 products with highest price
-     */
-    @Transactional(readOnly = true)
-    public List<ProductListResponse> getTop5ByPrice() {
-        log.debug("Getting top 5 products by price");
-        Pageable pageable = PageRequest.of(0, 5);
-        List<Product> products = productRepository.findTop5ByPrice(pageable);
-        return products.stream()
-                .map(productMapper::toListResponse)
-                .toList();
-    }
-
     /**
      * Get products by category with pagination
-     * Automatically detects if category is parent (has children) or leaf category
      * - If parent category: returns products from all subcategories
      * - If leaf category: returns products from that specific category
      */
@@ -109,40 +86,18 @@ public class ProductService {
             String sortBy, String sortDirection) {
         log.debug("Getting products by category: {}, page: {}, size: {}", categoryId, page, size);
 
-        // Validate category exists and load with children
-        Category category = categoryRepository.findByIdWithChildren(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", categoryId));
+        // The category and its sub-categories, so a parent category lists all of them
+        Integer[] categoryIds = categoryIdsOf(categoryId);
 
         Sort.Direction direction = "desc".equalsIgnoreCase(sortDirection)
                 ? Sort.Direction.DESC
                 : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-
-        Page<Product> productPage;
+        // Native query, use database column names
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, mapSortFieldToColumn(sortBy)));
 
-        // Auto-detect: if category has children, get products from all subcategories
-        if (category.hasChildren()) {
-            log.debug("Category {} is a parent category, fetching products from all subcategories", categoryId);
-
-            // Get all subcategory IDs
-            List<Integer> subcategoryIds = category.getChildren().stream()
-                    .map(Category::getId)
-                    .toList();
-
-            // If no subcategories, return empty page
-            if (subcategoryIds.isEmpty()) {
-                productPage = Page.empty();
-            } else {
-                // Query products from all subcategories
-                productPage = productRepository.findByCategoryIdIn(subcategoryIds, pageable);
-            }
-        } else {
-            // Leaf category: get products directly from this category
-            log.debug("Category {} is a leaf category, fetching products directly", categoryId);
-            productPage = productRepository.findByCategoryId(categoryId, pageable);
-        }
+        Page<Long> idPage = productRepository.findIdsByCategoryIds(categoryIds, pageable);
 
-        return productPage.map(productMapper::toListResponse);
+        return toCardPage(idPage);
     }
 
     /**
@@ -156,10 +111,20 @@ public class ProductService {
                 ? Sort.Direction.DESC
                 : Sort.Direction.ASC;
 
-        Page<Product> productPage;
+        Page<Long> idPage;
 
         // Search logic
         if (request.getKeyword() != null && !request.getKeyword().isBlank()) {
+            // In-memory index first, the database only while it is not built
+            Optional<ProductSearchIndex.SearchResult> indexed = productSearchIndex.search(
+                    request.getKeyword().trim(), request.getCategoryId(), request.getSortBy(),
+                    direction == Sort.Direction.DESC, request.getPage(), request.getSize());
+            if (indexed.isPresent()) {
+                return new PageImpl<>(toCards(indexed.get().ids()),
+                        PageRequest.of(request.getPage(), request.getSize(), Sort.by(direction, request.getSortBy())),
+                        indexed.get().total());
+            }
+
             // For native queries, use database column names
             String sortField = mapSortFieldToColumn(request.getSortBy());
             Pageable pageable = PageRequest.of(request.getPage(), request.getSize(),
@@ -167,40 +132,195 @@ public class ProductService {
 
             if (request.getCategoryId() != null) {
                 // Search by keyword and category
-                productPage = productRepository.searchByTitleAndCategory(
+                idPage = productRepository.searchIdsByTitleAndCategory(
                         request.getKeyword().trim(),
-                        request.getCategoryId(),
+                        categoryTreeCache.getSelfAndDescendantIds(request.getCategoryId()).toArray(Integer[]::new),
                         pageable);
             } else {
                 // Search by keyword only
-                productPage = productRepository.searchByTitle(request.getKeyword().trim(), pageable);
+                idPage = productRepository.searchIdsByTitle(request.getKeyword().trim(), pageable);
             }
         } else {
-            // For JPA queries, use Java property names
-            Pageable pageable = PageRequest.of(request.getPage(), request.getSize(),
-                    Sort.by(direction, request.getSortBy()));
-
             if (request.getCategoryId() != null) {
-                // Filter by category only
-                productPage = productRepository.findByCategoryIdOrParentId(request.getCategoryId(), pageable);
+                // Filter by category only (native query, use database column names)
+                Pageable pageable = PageRequest.of(request.getPage(), request.getSize(),
+                        Sort.by(direction, mapSortFieldToColumn(request.getSortBy())));
+                idPage = productRepository.findIdsByCategoryIds(
+                        categoryTreeCache.getSelfAndDescendantIds(request.getCategoryId()).toArray(Integer[]::new),
+                        pageable);
             } else {
-                // No filters, return all active products
-                productPage = productRepository.findAll(pageable);
+                // No filters, return all active products (JPA query, use Java property names)
+                Pageable pageable = PageRequest.of(request.getPage(), request.getSize(),
+                        Sort.by(direction, mapSortFieldToProperty(request.getSortBy())));
+                idPage = productRepository.findAllIds(pageable);
             }
         }
 
-        return productPage.map(productMapper::toListResponse);
+        return toCardPage(idPage);
+    }
+
+    /**
+     * Number of active products matching a keyword per category, largest first
+     */
+    @Transactional(readOnly = true)
+    public List<SearchFacetResponse> getSearchFacets(String keyword) {
+        log.debug("Getting search facets for keyword: {}", keyword);
+
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+
+        List<SearchFacetResponse> facets = new ArrayList<>();
+        Optional<ProductSearchIndex.SearchResult> indexed = productSearchIndex.search(keyword.trim(), null, null,
+                false, 0, 0);
+        if (indexed.isPresent()) {
+            indexed.get().categoryCounts().forEach((categoryId, count) -> facets.add(
+                    SearchFacetResponse.builder().categoryId(categoryId).count(count).build()));
+        } else {
+            for (Object[] row : productRepository.countSearchMatchesByCategory(keyword.trim())) {
+                facets.add(SearchFacetResponse.builder()
+                        .categoryId(((Number) row[0]).intValue())
+                        .count(((Number) row[1]).longValue())
+                        .build());
+            }
+        }
+
+        facets.sort(Comparator.comparing(SearchFacetResponse::getCount).reversed());
+        return facets;
+    }
+
+    /**
+     * Typeahead suggestions (categories, then active products) for a partially
+     * typed query, served from memory without touching the database
+     */
+    public List<SuggestionResponse> suggest(String query, int limit, String sortBy) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        ProductSuggestIndex.Ranking ranking = "createdAt".equals(sortBy)
+                ? ProductSuggestIndex.Ranking.RECENT
+                : ProductSuggestIndex.Ranking.BID_COUNT;
+        return productSuggestIndex.suggest(query, limit, ranking);
+    }
+
+    /**
+     * Search products with cursor (keyset) pagination: no OFFSET and no count
+     * query, so every slice costs the same. The cursor is taken from the
+     * previous slice's nextCursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<ProductListResponse> searchProductsByCursor(String keyword, Integer categoryId,
+            String cursor, Integer size, String sortBy, String sortDirection, boolean includeApproximateTotal) {
+        log.debug("Searching products by cursor, keyword: {}, category: {}, size: {}", keyword, categoryId, size);
+
+        String trimmedKeyword = keyword != null && !keyword.isBlank() ? keyword.trim() : null;
+        List<Integer> categoryIds = null;
+        if (categoryId != null) {
+            // Same as the offset search: the category itself or its children
+            categoryIds = List.of(categoryIdsOf(categoryId));
+        }
+
+        return getCursorSlice(trimmedKeyword, categoryIds, cursor, size, sortBy, sortDirection,
+                includeApproximateTotal);
+    }
+
+    /**
+     * Get products by category (parent categories include their subcategories)
+     * with cursor (keyset) pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<ProductListResponse> getProductsByCategoryCursor(Integer categoryId, String cursor,
+            Integer size, String sortBy, String sortDirection, boolean includeApproximateTotal) {
+        log.debug("Getting products by category by cursor: {}, size: {}", categoryId, size);
+
+        return getCursorSlice(null, List.of(categoryIdsOf(categoryId)), cursor, size, sortBy, sortDirection,
+                includeApproximateTotal);
+    }
+
+    /**
+     * A category and its sub-categories, from the in-memory category tree
+     */
+    private Integer[] categoryIdsOf(Integer categoryId) {
+        List<Integer> categoryIds = categoryTreeCache.getSelfAndDescendantIds(categoryId);
+        if (categoryIds.isEmpty()) {
+            throw new ResourceNotFoundException("Category", categoryId);
+        }
+        return categoryIds.toArray(Integer[]::new);
+    }
+
+    private CursorSliceResponse<ProductListResponse> getCursorSlice(String keyword, List<Integer> categoryIds,
+            String cursor, Integer size, String sortBy, String sortDirection, boolean includeApproximateTotal) {
+        ProductCursorRepository.SortKey sortKey;
+        try {
+            sortKey = ProductCursorRepository.SortKey.fromField(sortBy);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Trường sắp xếp không hợp lệ: " + sortBy);
+        }
+        boolean descending = "desc".equalsIgnoreCase(sortDirection);
+
+        ProductCursorRepository.Cursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = ProductCursorRepository.Cursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Cursor không hợp lệ");
+            }
+            if (after.sortKey() != sortKey || after.descending() != descending) {
+                throw new BadRequestException("Cursor không khớp với thứ tự sắp xếp");
+            }
+        }
+
+        ProductCursorRepository.KeysetSlice slice;
+        try {
+            slice = productCursorRepository.findActiveIds(keyword, categoryIds, sortKey, descending, after, size);
+        } catch (DataIntegrityViolationException e) {
+            // Cursor sort value that doesn't cast to the column type
+            throw new BadRequestException("Cursor không hợp lệ");
+        }
+
+        return CursorSliceResponse.<ProductListResponse>builder()
+                .content(toCards(slice.ids()))
+                .size(size)
+                .hasNext(slice.hasNext())
+                .nextCursor(slice.nextCursor() != null ? slice.nextCursor().encode() : null)
+                .approximateTotal(includeApproximateTotal
+                        ? productCursorRepository.estimateActiveCount(keyword, categoryIds)
+                        : null)
+                .build();
+    }
+
+    /**
+     * Load the product cards for a list of ids in one query, keeping their order
+     */
+    private List<ProductListResponse> toCards(List<Long> productIds) {
+        return productCardRepository.findCardsByIds(productIds, configService.getNewProductHighlightMin());
+    }
+
+    private Page<ProductListResponse> toCardPage(Page<Long> idPage) {
+        return new PageImpl<>(toCards(idPage.getContent()), idPage.getPageable(), idPage.getTotalElements());
     }
 
     /**
      * Map Java property names to database column names for native queries
+     * (s = product_auction_states)
      */
     private String mapSortFieldToColumn(String sortBy) {
         return switch (sortBy) {
-            case "endTime" -> "end_time";
-            case "currentPrice" -> "current_price";
+            case "endTime" -> "s.end_time";
+            case "currentPrice" -> "s.current_price";
             case "createdAt" -> "created_at";
-            case "bidCount" -> "bid_count";
+            case "bidCount" -> "s.bid_count";
+            default -> sortBy;
+        };
+    }
+
+    /**
+     * Map sort fields that moved to ProductAuctionState to their JPA property
+     * path
+     */
+    private String mapSortFieldToProperty(String sortBy) {
+        return switch (sortBy) {
+            case "endTime", "currentPrice", "bidCount", "viewCount" -> "auctionState." + sortBy;
             default -> sortBy;
         };
     }
@@ -217,48 +337,47 @@ public class ProductService {
         Product product = productRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm", id));
 
-        // Increment view count (in a separate transaction to avoid locking)
-        // Call through Spring proxy to ensure REQUIRES_NEW propagation works
+        // Counted in memory and written in batches, no write on the page view
         if (incrementViewCount) {
-            applicationContext.getBean(ProductService.class).incrementViewCount(id);
+            productViewCounter.increment(id);
         }
 
-        // Update product view count for response
-        product.setViewCount(product.getViewCount() + 1);
-
         // Check if viewer is the seller
         boolean isSeller = viewerId != null && product.getSeller() != null &&
                 viewerId.equals(product.getSeller().getId());
 
         // Use unified mapper with isSeller flag
-        return productMapper.toDetailResponseWithViewer(product, viewerId, isSeller);
+        ProductDetailResponse response = productMapper.toDetailResponseWithViewer(product, viewerId, isSeller);
+        response.setViewCount(product.getViewCount() + productViewCounter.getPendingViews(id));
+        return response;
     }
 
     /**
      * Get product detail by slug
+     * Served from the detail cache, only the viewer-specific fields are set per
+     * request (no transaction on a hit)
      */
-    @Transactional(readOnly = true)
     public ProductDetailResponse getProductDetailBySlug(String slug, Long viewerId, boolean incrementViewCount) {
         log.debug("Getting product detail for slug: {}", slug);
 
-        Product product = productRepository.findBySlug(slug)
+        ProductDetailCache.Detail detail = productDetailCache.getBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm", slug));
 
-        // Increment view count (in a separate transaction to avoid locking)
-        // Call through Spring proxy to ensure REQUIRES_NEW propagation works
+        // Counted in memory and written in batches, no write on the page view
         if (incrementViewCount) {
-            applicationContext.getBean(ProductService.class).incrementViewCount(product.getId());
+            productViewCounter.increment(detail.getProductId());
+            detail.countView();
         }
 
-        // Update product view count for response
-        product.setViewCount(product.getViewCount() + 1);
-
-        // Check if viewer is the seller
-        boolean isSeller = viewerId != null && product.getSeller() != null &&
-                viewerId.equals(product.getSeller().getId());
+        return productDetailCache.toResponse(detail, viewerId);
+    }
 
-        // Use unified mapper with isSeller flag
-        return productMapper.toDetailResponseWithViewer(product, viewerId, isSeller);
+    /**
+     * ETag of the product detail as the viewer sees it, null while the product
+     * is not cached (the response is then sent without one)
+     */
+    public String getProductDetailETag(String slug, Long viewerId) {
+        return productDetailCache.getETag(slug, viewerId).orElse(null);
     }
 
     /**
@@ -276,11 +395,7 @@ public class ProductService {
         log.debug("Found category: {} for product: {}", categoryId, productId);
 
         Pageable pageable = PageRequest.of(0, 5);
-        List<Product> products = productRepository.findRelatedProducts(categoryId, productId, pageable);
-
-        return products.stream()
-                .map(productMapper::toListResponse)
-                .toList();
+        return toCards(productRepository.findRelatedProductIds(categoryId, productId, pageable));
     }
 
     /**
@@ -305,25 +420,6 @@ public class ProductService {
                 .toList();
     }
 
-    /**
-     * Increment view count for a product
-     * Uses REQUIRES_NEW to ensure this runs in a separate transaction,
-     * even when called from a read-only transaction
-     */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void incrementViewCount(Long productId) {
-        try {
-            productRepository.findById(productId).ifPresent(product -> {
-                product.setViewCount(product.getViewCount() + 1);
-                productRepository.save(product);
-            });
-            log.debug("View count incremented for product: {}", productId);
-        } catch (Exception e) {
-            log.error("Error incrementing view count for product: {}", productId, e);
-            // Don't throw exception, just log it
-        }
-    }
-
     /**
      * Create a new auction product (Seller only)
      */
@@ -383,16 +479,13 @@ public class ProductService {
                 .slug(slug)
                 .description(request.getDescription())
                 .startingPrice(request.getStartingPrice())
-                .currentPrice(request.getStartingPrice()) // Initially same as starting price
                 .buyNowPrice(request.getBuyNowPrice())
                 .priceStep(request.getPriceStep())
                 .autoExtend(request.getAutoExtend())
                 .allowUnratedBidders(request.getAllowUnratedBidders())
-                .endTime(request.getEndTime())
-                .bidCount(0)
-                .viewCount(0)
-                .isEnded(false)
                 .build();
+        // Current price starts at the starting price
+        product.initAuctionState(request.getEndTime());
 
         // Create and add images
         List<ProductImage> images = request.getImages().stream()
@@ -409,6 +502,8 @@ public class ProductService {
         // Save product (cascade will save images)
         Product savedProduct = productRepository.save(product);
 
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getId(), ProductChangedEvent.Type.CREATED));
+
         log.info("Product created successfully with id: {}", savedProduct.getId());
 
         return productMapper.toCreateProductResponse(savedProduct);
@@ -453,6 +548,7 @@ public class ProductService {
         descriptionLogRepository.save(descriptionLog);
 
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId, ProductChangedEvent.Type.DESCRIPTION_UPDATED));
 
         log.info("Product description updated for product: {}", productId);
     }
@@ -532,16 +628,12 @@ public class ProductService {
                     .slug(slug)
                     .description(request.getDescription())
                     .startingPrice(request.getStartingPrice())
-                    .currentPrice(request.getStartingPrice())
                     .buyNowPrice(request.getBuyNowPrice())
                     .priceStep(request.getPriceStep())
                     .autoExtend(request.getAutoExtend())
                     .allowUnratedBidders(request.getAllowUnratedBidders())
-                    .endTime(request.getEndTime())
-                    .bidCount(0)
-                    .viewCount(0)
-                    .isEnded(false)
                     .build();
+            product.initAuctionState(request.getEndTime());
 
             // Associate images with product
             images.forEach(image -> image.setProduct(product));
@@ -550,6 +642,9 @@ public class ProductService {
             // Save product (cascade will save images)
             Product savedProduct = productRepository.save(product);
 
+            eventPublisher.publishEvent(
+                    ProductChangedEvent.of(savedProduct.getId(), ProductChangedEvent.Type.CREATED));
+
             log.info("Product created successfully with file uploads, id: {}", savedProduct.getId());
 
             return productMapper.toCreateProductResponse(savedProduct);
@@ -605,6 +700,7 @@ public class ProductService {
 
         // Delete product from database (cascade will delete images, bids, etc.)
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId, ProductChangedEvent.Type.DELETED));
 
         log.info("Product deleted successfully: {}", productId);
     }
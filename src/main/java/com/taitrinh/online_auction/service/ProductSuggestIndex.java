@@ -0,0 +1,464 @@
+package com.taitrinh.online_auction.service;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.taitrinh.online_auction.dto.product.SuggestionResponse;
+import com.taitrinh.online_auction.event.CategoryChangedEvent;
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+import com.taitrinh.online_auction.util.SlugUtils;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Typeahead over the titles of active products and category names, matched by
+ * prefix at any word start, accent-insensitive ({@link SlugUtils#fold}).
+ *
+ * Products are keyed in a sorted map by the folded title from each word start
+ * ("dong ho seiko", "ho seiko", "seiko"), so a query is one range scan. One-
+ * and two-character prefixes match too much to scan per keystroke and are
+ * served from top lists refreshed in the background instead. So are longer
+ * prefixes whose range turns out too long to scan: their top lists are
+ * ranked over the whole range once, then refreshed with the others.
+ *
+ * Products are loaded and kept current by {@link ActiveProductLoader} from
+ * {@link ProductChangedEvent}, categories from {@link CategoryChangedEvent}
+ * after commit; bid counts are updated in place.
+ */
+@Service
+@Slf4j
+public class ProductSuggestIndex implements ActiveProductLoader.Subscriber {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final char KEY_SEPARATOR = '\u0000';
+    // Longer queries are matched on the first MAX_KEY_LENGTH characters, then checked
+    private static final int MAX_KEY_LENGTH = 48;
+    // Queries up to this length are answered from the precomputed top lists
+    private static final int SHORT_PREFIX_LENGTH = 2;
+    // Extra room in the top lists for products that end between refreshes
+    private static final int TOP_LIST_SIZE = 50;
+    // Upper bound on keys read for one query, longer ranges get a top list
+    private static final int SCAN_LIMIT = 5000;
+
+    private static final String CATEGORIES_SQL = "SELECT id, name, slug FROM categories";
+
+    public enum Ranking {
+        BID_COUNT,
+        RECENT
+    }
+
+    /**
+     * Shared by all keys of a product; bid count and active flag change in place
+     */
+    static final class ProductEntry {
+        final long id;
+        final String title;
+        final String slug;
+        final String foldedTitle;
+        final long createdAt;
+        volatile int bidCount;
+        volatile boolean active = true;
+
+        ProductEntry(long id, String title, String slug, int bidCount, long createdAt) {
+            this.id = id;
+            this.title = title;
+            this.slug = slug;
+            this.foldedTitle = normalize(title);
+            this.bidCount = bidCount;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * A product with its bid count read once. Sorts and heaps compare this
+     * copy: a key that changes mid-sort breaks TimSort's contract and the
+     * heap order.
+     */
+    private record Ranked(ProductEntry product, int bidCount) {
+
+        Ranked(ProductEntry product) {
+            this(product, product.bidCount);
+        }
+    }
+
+    record CategoryEntry(int id, String name, String slug, String foldedName) {
+    }
+
+    /**
+     * Top lists of a prefix with more than SCAN_LIMIT matching keys. At most
+     * (keys / SCAN_LIMIT) prefixes per length can have that many.
+     */
+    record TopLists(List<ProductEntry> byBidCount, List<ProductEntry> byRecent) {
+
+        List<ProductEntry> get(Ranking ranking) {
+            return ranking == Ranking.RECENT ? byRecent : byBidCount;
+        }
+    }
+
+    static final class Index {
+        final ConcurrentSkipListMap<String, ProductEntry> keys = new ConcurrentSkipListMap<>();
+        final Map<Long, ProductEntry> products = new ConcurrentHashMap<>();
+        volatile List<CategoryEntry> categories = List.of();
+        volatile Map<String, List<ProductEntry>> topByBidCount = Map.of();
+        volatile Map<String, List<ProductEntry>> topByRecent = Map.of();
+        final Map<String, TopLists> longRanges = new ConcurrentHashMap<>();
+    }
+
+    @Value("${search.suggest.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${search.suggest.max-categories:3}")
+    private int maxCategories = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActiveProductLoader activeProductLoader;
+
+    // Products change under the loader's lock; null until the first load
+    private volatile Index index;
+
+    public ProductSuggestIndex(JdbcTemplate jdbcTemplate, ActiveProductLoader activeProductLoader) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.activeProductLoader = activeProductLoader;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (enabled) {
+            activeProductLoader.subscribe(this);
+        }
+    }
+
+    /**
+     * Suggestions for a partially typed query: matching categories first, then
+     * products by the ranking. Empty while the index is not built.
+     */
+    public List<SuggestionResponse> suggest(String query, int limit, Ranking ranking) {
+        Index current = index;
+        String prefix = normalize(query);
+        if (current == null || prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<SuggestionResponse> suggestions = new ArrayList<>(limit);
+        for (CategoryEntry category : current.categories) {
+            if (suggestions.size() >= Math.min(maxCategories, limit)) {
+                break;
+            }
+            if (matchesWordStart(category.foldedName(), prefix)) {
+                suggestions.add(SuggestionResponse.builder()
+                        .type(SuggestionResponse.Type.CATEGORY)
+                        .id((long) category.id())
+                        .text(category.name())
+                        .slug(category.slug())
+                        .build());
+            }
+        }
+
+        int productLimit = limit - suggestions.size();
+        List<ProductEntry> products = prefix.length() <= SHORT_PREFIX_LENGTH
+                ? fromTopList(current, prefix, productLimit, ranking)
+                : scan(current, prefix, productLimit, ranking);
+        for (ProductEntry product : products) {
+            suggestions.add(SuggestionResponse.builder()
+                    .type(SuggestionResponse.Type.PRODUCT)
+                    .id(product.id)
+                    .text(product.title)
+                    .slug(product.slug)
+                    .bidCount(product.bidCount)
+                    .build());
+        }
+        return suggestions;
+    }
+
+    private static List<ProductEntry> fromTopList(Index index, String prefix, int limit, Ranking ranking) {
+        Map<String, List<ProductEntry>> lists = ranking == Ranking.RECENT ? index.topByRecent : index.topByBidCount;
+        return fromList(lists.getOrDefault(prefix, List.of()), limit, ranking);
+    }
+
+    private static List<ProductEntry> fromList(List<ProductEntry> list, int limit, Ranking ranking) {
+        List<Ranked> active = new ArrayList<>();
+        for (ProductEntry product : list) {
+            if (product.active) {
+                active.add(new Ranked(product));
+            }
+        }
+        // Bid counts moved since the list was built
+        active.sort(comparator(ranking));
+        return products(active.size() > limit ? active.subList(0, limit) : active);
+    }
+
+    private static List<ProductEntry> scan(Index index, String prefix, int limit, Ranking ranking) {
+        TopLists lists = index.longRanges.get(prefix);
+        if (lists == null) {
+            List<ProductEntry> top = top(index, prefix, limit, comparator(ranking), SCAN_LIMIT);
+            if (top != null) {
+                return top;
+            }
+            // Cutting the scan short would rank an alphabetical subset of the matches
+            lists = index.longRanges.computeIfAbsent(prefix, longPrefix -> rankLongRange(index, longPrefix));
+        }
+        return fromList(lists.get(ranking), limit, ranking);
+    }
+
+    private static TopLists rankLongRange(Index index, String prefix) {
+        return new TopLists(top(index, prefix, TOP_LIST_SIZE, comparator(Ranking.BID_COUNT), Integer.MAX_VALUE),
+                top(index, prefix, TOP_LIST_SIZE, comparator(Ranking.RECENT), Integer.MAX_VALUE));
+    }
+
+    /**
+     * The first {@code limit} active products matching the prefix, null when
+     * more than {@code maxScanned} keys match
+     */
+    private static List<ProductEntry> top(Index index, String prefix, int limit, Comparator<Ranked> order,
+            int maxScanned) {
+        String keyPrefix = prefix.length() > MAX_KEY_LENGTH ? prefix.substring(0, MAX_KEY_LENGTH) : prefix;
+        boolean truncated = keyPrefix.length() < prefix.length();
+
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        Set<Long> seen = new HashSet<>();
+        int scanned = 0;
+        for (ProductEntry product : index.keys.subMap(keyPrefix, keyPrefix + Character.MAX_VALUE).values()) {
+            if (++scanned > maxScanned) {
+                return null;
+            }
+            if (!product.active || !seen.add(product.id)
+                    || (truncated && !matchesWordStart(product.foldedTitle, prefix))) {
+                continue;
+            }
+            heap.add(new Ranked(product));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<Ranked> top = new ArrayList<>(heap);
+        top.sort(order);
+        return products(top);
+    }
+
+    private static Comparator<Ranked> comparator(Ranking ranking) {
+        Comparator<Ranked> order = ranking == Ranking.RECENT
+                ? Comparator.comparingLong((Ranked ranked) -> ranked.product().createdAt).reversed()
+                : Comparator.comparingInt(Ranked::bidCount).reversed()
+                        .thenComparing(Comparator.comparingLong((Ranked ranked) -> ranked.product().createdAt)
+                                .reversed());
+        return order.thenComparingLong(ranked -> ranked.product().id);
+    }
+
+    private static List<ProductEntry> products(Collection<Ranked> ranked) {
+        List<ProductEntry> products = new ArrayList<>(ranked.size());
+        ranked.forEach(entry -> products.add(entry.product()));
+        return products;
+    }
+
+    // ===== Maintenance =====
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Index current = index;
+        if (!enabled || current == null) {
+            return;
+        }
+        try {
+            current.categories = loadCategories();
+        } catch (Exception e) {
+            log.warn("Failed to reload category suggestions", e);
+        }
+    }
+
+    /**
+     * Recompute the top lists of short prefixes and long ranges (bid counts
+     * change, products start and end)
+     */
+    @Scheduled(fixedDelayString = "${search.suggest.top-refresh-interval-ms:30000}")
+    public void refreshTopLists() {
+        Index current = index;
+        if (enabled && current != null) {
+            computeTopLists(current);
+            current.longRanges.replaceAll((prefix, lists) -> rankLongRange(current, prefix));
+        }
+    }
+
+    @Override
+    public ActiveProductLoader.Load startLoad() {
+        long started = System.nanoTime();
+        Index built = new Index();
+        return new ActiveProductLoader.Load() {
+            @Override
+            public void add(ActiveProductLoader.ActiveProduct product) {
+                ProductSuggestIndex.add(built, toEntry(product));
+            }
+
+            @Override
+            public void complete() {
+                built.categories = loadCategories();
+                computeTopLists(built);
+            }
+
+            @Override
+            public void install() {
+                index = built;
+                log.info("Suggestion index built: {} products, {} keys in {} ms", built.products.size(),
+                        built.keys.size(), (System.nanoTime() - started) / 1_000_000);
+            }
+        };
+    }
+
+    @Override
+    public void put(ActiveProductLoader.ActiveProduct product) {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        ProductEntry existing = current.products.get(product.id());
+        if (existing != null && existing.title.equals(product.title()) && existing.slug.equals(product.slug())) {
+            // Same keys (a description update or a re-read)
+            existing.bidCount = product.bidCount();
+            return;
+        }
+        removeKeys(current, product.id());
+        add(current, toEntry(product));
+    }
+
+    @Override
+    public void updateAuctionState(long productId, BigDecimal currentPrice, int bidCount,
+            ZonedDateTime endTime) {
+        Index current = index;
+        ProductEntry product = current != null ? current.products.get(productId) : null;
+        if (product != null) {
+            product.bidCount = bidCount;
+        }
+    }
+
+    @Override
+    public void remove(long productId) {
+        Index current = index;
+        if (current != null) {
+            removeKeys(current, productId);
+        }
+    }
+
+    private static ProductEntry toEntry(ActiveProductLoader.ActiveProduct product) {
+        return new ProductEntry(product.id(), product.title(), product.slug(), product.bidCount(),
+                product.createdAt().toInstant().toEpochMilli());
+    }
+
+    private List<CategoryEntry> loadCategories() {
+        return jdbcTemplate.query(CATEGORIES_SQL, (rs, rowNum) -> new CategoryEntry(rs.getInt("id"),
+                rs.getString("name"), rs.getString("slug"), normalize(rs.getString("name"))));
+    }
+
+    static void add(Index index, ProductEntry product) {
+        index.products.put(product.id, product);
+        for (String key : keys(product)) {
+            index.keys.put(key, product);
+        }
+    }
+
+    private static void removeKeys(Index index, Long productId) {
+        ProductEntry product = index.products.remove(productId);
+        if (product == null) {
+            return;
+        }
+        product.active = false;
+        for (String key : keys(product)) {
+            index.keys.remove(key);
+        }
+    }
+
+    /**
+     * One key per word start, truncated, suffixed with the id to keep keys unique
+     */
+    private static List<String> keys(ProductEntry product) {
+        List<String> keys = new ArrayList<>();
+        String title = product.foldedTitle;
+        for (int start = 0; start < title.length(); start++) {
+            if (start == 0 || title.charAt(start - 1) == ' ') {
+                int end = Math.min(title.length(), start + MAX_KEY_LENGTH);
+                keys.add(title.substring(start, end) + KEY_SEPARATOR + product.id);
+            }
+        }
+        return keys;
+    }
+
+    static void computeTopLists(Index index) {
+        Comparator<Ranked> byBidCount = comparator(Ranking.BID_COUNT);
+        Comparator<Ranked> byRecent = comparator(Ranking.RECENT);
+        Map<String, PriorityQueue<Ranked>> bidHeaps = new HashMap<>();
+        Map<String, PriorityQueue<Ranked>> recentHeaps = new HashMap<>();
+
+        for (ProductEntry product : index.products.values()) {
+            Ranked ranked = new Ranked(product);
+            for (String prefix : shortPrefixes(product.foldedTitle)) {
+                offer(bidHeaps.computeIfAbsent(prefix, k -> new PriorityQueue<>(byBidCount.reversed())), ranked);
+                offer(recentHeaps.computeIfAbsent(prefix, k -> new PriorityQueue<>(byRecent.reversed())), ranked);
+            }
+        }
+
+        index.topByBidCount = toLists(bidHeaps);
+        index.topByRecent = toLists(recentHeaps);
+    }
+
+    private static void offer(PriorityQueue<Ranked> heap, Ranked product) {
+        heap.add(product);
+        if (heap.size() > TOP_LIST_SIZE) {
+            heap.poll();
+        }
+    }
+
+    private static Map<String, List<ProductEntry>> toLists(Map<String, PriorityQueue<Ranked>> heaps) {
+        Map<String, List<ProductEntry>> lists = new HashMap<>(heaps.size() * 2);
+        heaps.forEach((prefix, heap) -> lists.put(prefix, List.copyOf(products(heap))));
+        return lists;
+    }
+
+    private static Set<String> shortPrefixes(String title) {
+        Set<String> prefixes = new HashSet<>();
+        for (int start = 0; start < title.length(); start++) {
+            if (start == 0 || title.charAt(start - 1) == ' ') {
+                for (int length = 1; length <= SHORT_PREFIX_LENGTH && start + length <= title.length(); length++) {
+                    String prefix = title.substring(start, start + length);
+                    if (prefix.charAt(length - 1) != ' ') {
+                        prefixes.add(prefix);
+                    }
+                }
+            }
+        }
+        return prefixes;
+    }
+
+    private static boolean matchesWordStart(String text, String prefix) {
+        return text.startsWith(prefix) || text.contains(" " + prefix);
+    }
+
+    /**
+     * Fold and collapse whitespace, so keys and queries compare as typed
+     */
+    static String normalize(String text) {
+        return WHITESPACE.matcher(SlugUtils.fold(text)).replaceAll(" ").trim();
+    }
+
+    void install(Index built) {
+        index = built;
+    }
+}
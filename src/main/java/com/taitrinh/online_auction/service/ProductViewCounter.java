@@ -0,0 +1,113 @@
+package com.taitrinh.online_auction.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind product view counter. Views are counted in memory and flushed
+ * every few seconds as one batched UPDATE, so a product page view costs no
+ * database write (and no extra connection).
+ */
+@Service
+@Slf4j
+public class ProductViewCounter {
+
+    private static final String FLUSH_SQL_PREFIX = "UPDATE product_auction_states s "
+            + "SET view_count = s.view_count + v.delta FROM (VALUES ";
+    private static final String FLUSH_SQL_SUFFIX = ") AS v(product_id, delta) WHERE s.product_id = v.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DistributionSummary flushSize;
+
+    @Value("${product.views.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    // productId -> views not yet written
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public ProductViewCounter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushSize = DistributionSummary.builder("product.views.flush.size")
+                .description("Products whose view count was written per flush")
+                .register(meterRegistry);
+    }
+
+    public void increment(Long productId) {
+        pending.computeIfAbsent(productId, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Views counted but not flushed yet, to add to the stored count
+     */
+    public int getPendingViews(Long productId) {
+        LongAdder views = pending.get(productId);
+        return views != null ? views.intValue() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${product.views.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> deltas = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long views = entry.getValue().sumThenReset();
+            if (views > 0) {
+                deltas.add(new Object[] { entry.getKey(), views });
+            } else {
+                // Not viewed since the last flush. A view racing with this removal
+                // may be lost, which is fine for a view counter.
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        int written = 0;
+        for (int from = 0; from < deltas.size(); from += flushBatchSize) {
+            List<Object[]> batch = deltas.subList(from, Math.min(from + flushBatchSize, deltas.size()));
+            try {
+                write(batch);
+                written += batch.size();
+            } catch (DataAccessException e) {
+                // Put the views back, they are retried on the next flush
+                batch.forEach(delta -> pending.computeIfAbsent((Long) delta[0], k -> new LongAdder())
+                        .add((Long) delta[1]));
+                log.error("Failed to flush view counts of {} products: {}", batch.size(), e.getMessage());
+            }
+        }
+        flushSize.record(written);
+        log.debug("Flushed view counts of {} products", written);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<Object[]> deltas) {
+        StringBuilder sql = new StringBuilder(FLUSH_SQL_PREFIX.length() + FLUSH_SQL_SUFFIX.length()
+                + deltas.size() * 24);
+        sql.append(FLUSH_SQL_PREFIX);
+        Object[] args = new Object[deltas.size() * 2];
+        for (int i = 0; i < deltas.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?::bigint, ?::int)");
+            args[i * 2] = deltas.get(i)[0];
+            args[i * 2 + 1] = deltas.get(i)[1];
+        }
+        sql.append(FLUSH_SQL_SUFFIX);
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
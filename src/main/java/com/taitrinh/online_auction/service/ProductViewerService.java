@@ -0,0 +1,218 @@
+package com.taitrinh.online_auction.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.taitrinh.online_auction.dto.admin.WatchedProductResponse;
+import com.taitrinh.online_auction.dto.websocket.ViewerCountEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Counts live viewers per product from STOMP subscriptions to
+ * /topic/product/{id}/bids. Purely in-memory, no DB involvement.
+ *
+ * Counting happens in session event listeners (not in the channel
+ * interceptor), and uses a LongAdder per product so concurrent subscribes on
+ * a hot auction don't contend on a single counter. Counters back at zero are
+ * pruned by the broadcast, so the map only holds products being watched.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductViewerService {
+
+    private static final String BID_TOPIC_PREFIX = "/topic/product/";
+    private static final String BID_TOPIC_SUFFIX = "/bids";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${websocket.viewers.hot-threshold:50}")
+    private long hotThreshold;
+
+    // productId -> number of live subscriptions, absent = 0
+    private final Map<Long, ViewerCounter> viewerCounts = new ConcurrentHashMap<>();
+
+    // sessionId -> (subscriptionId -> productId), needed because UNSUBSCRIBE and
+    // DISCONNECT frames don't carry the destination
+    private final Map<String, Map<String, Long>> sessionSubscriptions = new ConcurrentHashMap<>();
+
+    // Products whose count changed since the last broadcast
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long productId = parseProductId(accessor.getDestination());
+        if (productId == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        Long previous = sessionSubscriptions
+                .computeIfAbsent(accessor.getSessionId(), k -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), productId);
+        if (previous == null) {
+            increment(productId);
+            dirtyProducts.add(productId);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        Map<String, Long> subscriptions = sessionSubscriptions.get(accessor.getSessionId());
+        if (subscriptions != null) {
+            Long productId = subscriptions.remove(accessor.getSubscriptionId());
+            if (productId != null) {
+                decrement(productId);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // DISCONNECT can be published more than once per session, remove() makes
+        // this idempotent
+        Map<String, Long> subscriptions = sessionSubscriptions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    /**
+     * Broadcast coalesced viewer counts for products that changed since the last
+     * run to /topic/product/{id}/viewers
+     */
+    @Scheduled(fixedDelayString = "${websocket.viewers.broadcast-interval-ms:5000}")
+    public void broadcastViewerCounts() {
+        if (dirtyProducts.isEmpty()) {
+            return;
+        }
+
+        for (Long productId : dirtyProducts) {
+            dirtyProducts.remove(productId);
+            long viewerCount = getViewerCount(productId);
+            if (viewerCount == 0) {
+                prune(productId);
+            }
+            ViewerCountEvent event = ViewerCountEvent.builder()
+                    .productId(productId)
+                    .viewerCount(viewerCount)
+                    .build();
+            messagingTemplate.convertAndSend(BID_TOPIC_PREFIX + productId + "/viewers", event);
+        }
+    }
+
+    /**
+     * Get the number of live viewers of a product
+     */
+    public long getViewerCount(Long productId) {
+        LongAdder counter = viewerCounts.get(productId);
+        return counter != null ? Math.max(0, counter.sum()) : 0;
+    }
+
+    /**
+     * Whether a product currently has enough live viewers to be considered hot
+     */
+    public boolean isHot(Long productId) {
+        return getViewerCount(productId) >= hotThreshold;
+    }
+
+    /**
+     * Get the most watched products, highest viewer count first
+     */
+    public List<WatchedProductResponse> getMostWatched(int limit) {
+        return viewerCounts.entrySet().stream()
+                .map(entry -> WatchedProductResponse.builder()
+                        .productId(entry.getKey())
+                        .viewerCount(entry.getValue().sum())
+                        .build())
+                .filter(response -> response.getViewerCount() > 0)
+                .sorted(Comparator.comparing(WatchedProductResponse::getViewerCount).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private void increment(Long productId) {
+        while (true) {
+            ViewerCounter counter = viewerCounts.computeIfAbsent(productId, k -> new ViewerCounter());
+            counter.increment();
+            if (!counter.retired) {
+                return;
+            }
+            // Being pruned: take the count back and use the counter that replaces it
+            counter.decrement();
+            Thread.onSpinWait();
+        }
+    }
+
+    private void decrement(Long productId) {
+        // A viewer's own increment keeps its counter from being pruned
+        LongAdder counter = viewerCounts.get(productId);
+        if (counter != null) {
+            counter.decrement();
+            dirtyProducts.add(productId);
+        }
+    }
+
+    /**
+     * Remove a product's counter once it is back at zero. The counter is
+     * retired before its sum is read and subscribers check the flag after
+     * incrementing, so either the prune sees the increment and keeps the
+     * counter, or the subscriber sees the flag and counts elsewhere.
+     */
+    private void prune(Long productId) {
+        ViewerCounter counter = viewerCounts.get(productId);
+        if (counter == null) {
+            return;
+        }
+        counter.retired = true;
+        if (counter.sum() == 0) {
+            viewerCounts.remove(productId, counter);
+        } else {
+            counter.retired = false;
+        }
+    }
+
+    /**
+     * Extract productId from /topic/product/{id}/bids, null for any other
+     * destination (including the /bids/seller channel)
+     */
+    private Long parseProductId(String destination) {
+        if (destination == null || !destination.startsWith(BID_TOPIC_PREFIX)
+                || !destination.endsWith(BID_TOPIC_SUFFIX)) {
+            return null;
+        }
+        String id = destination.substring(BID_TOPIC_PREFIX.length(),
+                destination.length() - BID_TOPIC_SUFFIX.length());
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Live subscriptions of one product. Retired while it is being pruned.
+     */
+    private static final class ViewerCounter extends LongAdder {
+        volatile boolean retired;
+    }
+}
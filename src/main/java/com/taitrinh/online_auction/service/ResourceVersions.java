@@ -0,0 +1,88 @@
+package com.taitrinh.online_auction.service;
+
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+
+/**
+ * Versions of product and category reads, for weak ETags that let polling
+ * clients get a 304 before anything is loaded or mapped.
+ *
+ * Product versions are kept in memory and bumped after commit: on any
+ * {@link ProductChangedEvent} for the product itself (detail, bids,
+ * description) and on comment changes for its comments. A response is tagged
+ * with the version read before it was loaded, so a tag can be older than its
+ * body (one extra full response) but never newer.
+ *
+ * ETags carry the boot epoch (versions restart at 0) and a time bucket, which
+ * bounds how long a client keeps data that changed on another instance or
+ * with time (ended, new).
+ */
+@Service
+public class ResourceVersions {
+
+    /**
+     * Identifies a load of a product's data at a version, so concurrent
+     * requests only share loads of the same version
+     */
+    public record Key(Long productId, long version) {
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    @Value("${etag.refresh-interval-ms:60000}")
+    private long refreshIntervalMs = 60_000;
+
+    // productId -> changes since startup, absent = 0
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> commentVersions = new ConcurrentHashMap<>();
+
+    public long getProductVersion(Long productId) {
+        return productVersions.getOrDefault(productId, 0L);
+    }
+
+    public long getCommentsVersion(Long productId) {
+        return commentVersions.getOrDefault(productId, 0L);
+    }
+
+    /**
+     * Called after a comment on the product was committed or deleted
+     */
+    public void commentsChanged(Long productId) {
+        commentVersions.merge(productId, 1L, Long::sum);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productVersions.merge(event.productId(), 1L, Long::sum);
+    }
+
+    /**
+     * Weak ETag of a response that is the same for every viewer
+     */
+    public String eTag(String resource, Object... versions) {
+        StringJoiner tag = new StringJoiner("-", "W/\"", "\"");
+        tag.add(resource).add(epoch).add(Long.toString(System.currentTimeMillis() / refreshIntervalMs, 36));
+        for (Object version : versions) {
+            tag.add(String.valueOf(version));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Weak ETag of a response as a given viewer (null = anonymous) sees it
+     */
+    public String eTagForViewer(String resource, Long viewerId, Object... versions) {
+        Object[] parts = new Object[versions.length + 1];
+        System.arraycopy(versions, 0, parts, 0, versions.length);
+        parts[versions.length] = viewerId != null ? "u" + viewerId : "anon";
+        return eTag(resource, parts);
+    }
+}
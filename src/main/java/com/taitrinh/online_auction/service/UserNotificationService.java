@@ -0,0 +1,70 @@
+package com.taitrinh.online_auction.service;
+
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+
+import com.taitrinh.online_auction.dto.websocket.UserNotificationEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Personal notifications (outbid, winning, rejected) over the per-user STOMP
+ * queue /user/queue/notifications. Users are addressed by their principal name
+ * (email). Callers fall back to email when the user isn't listening.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserNotificationService {
+
+    private static final String NOTIFICATION_QUEUE = "/queue/notifications";
+    private static final String NOTIFICATION_SUBSCRIPTION = "/user" + NOTIFICATION_QUEUE;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry simpUserRegistry;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Send a notification to the user's live sessions
+     *
+     * @return false if the user has no session subscribed to the notification
+     *         queue (the caller should send an email instead)
+     */
+    public boolean notifyUser(String email, UserNotificationEvent event) {
+        if (email == null || !isListening(email)) {
+            meterRegistry.counter("notifications.user", "channel", "email", "type", event.getType().name())
+                    .increment();
+            return false;
+        }
+
+        messagingTemplate.convertAndSendToUser(email, NOTIFICATION_QUEUE, event);
+        meterRegistry.counter("notifications.user", "channel", "websocket", "type", event.getType().name())
+                .increment();
+        log.debug("Sent {} notification for product {} to user queue", event.getType(), event.getProductId());
+        return true;
+    }
+
+    /**
+     * Whether the user has at least one live session subscribed to
+     * /user/queue/notifications
+     */
+    public boolean isListening(String email) {
+        SimpUser user = simpUserRegistry.getUser(email);
+        if (user == null) {
+            return false;
+        }
+        for (SimpSession session : user.getSessions()) {
+            boolean subscribed = session.getSubscriptions().stream()
+                    .anyMatch(subscription -> NOTIFICATION_SUBSCRIPTION.equals(subscription.getDestination()));
+            if (subscribed) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
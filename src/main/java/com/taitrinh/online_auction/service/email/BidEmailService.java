@@ -1,18 +1,18 @@
 package com.taitrinh.online_auction.service.email;
 
 import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.taitrinh.online_auction.service.email.template.EmailTemplate;
+import com.taitrinh.online_auction.service.email.template.EmailTemplateEngine;
+
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
 /**
  * Email service for bid-related notifications
@@ -20,207 +20,149 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class BidEmailService {
 
-    private final JavaMailSender mailSender;
-    private final EmailTemplateService templateService;
+    private static final DateTimeFormatter DIGEST_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm dd/MM");
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxService emailOutboxService;
+    private final EmailTemplateService templateService;
+    private final EmailTemplateEngine templateEngine;
 
     /**
-     * Send bid confirmation email to bidder
+     * Queue bid confirmation email to bidder. The bid id tells apart two bids at
+     * the same amount (e.g. after a rejection lowered the price).
      */
-    @Async
     public void sendBidConfirmationToBidder(String toEmail, String bidderName, String productTitle,
-            BigDecimal bidAmount, boolean isWinning, String productSlug) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject(
-                    String.format("%s - Xác nhận đấu giá sản phẩm: %s", templateService.getAppName(), productTitle));
-            helper.setText(
-                    buildBidConfirmationEmailContent(bidderName, productTitle, bidAmount, isWinning, productSlug),
-                    true);
-
-            mailSender.send(message);
-            log.info("Bid confirmation email sent to: {}", toEmail);
-        } catch (MessagingException | MailException e) {
-            log.error("Failed to send bid confirmation email to {}: {}", toEmail, e.getMessage());
-        }
+            BigDecimal bidAmount, boolean isWinning, String productSlug, Long bidId) {
+        emailOutboxService.enqueue(EmailTemplate.BID_CONFIRMATION, toEmail,
+                String.format("%s - Xác nhận đấu giá sản phẩm: %s", templateService.getAppName(), productTitle),
+                buildBidConfirmationEmailContent(bidderName, productTitle, bidAmount, isWinning, productSlug),
+                productSlug, bidAmount, bidId);
     }
 
     /**
-     * Send notification to seller about new bid
+     * Queue notification to seller about new bid
      */
-    @Async
     public void sendNewBidNotificationToSeller(String toEmail, String sellerName, String productTitle,
-            String bidderName, BigDecimal newPrice, String productSlug) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject(String.format("%s - Lượt đấu giá mới cho sản phẩm: %s", templateService.getAppName(),
-                    productTitle));
-            helper.setText(buildNewBidToSellerEmailContent(sellerName, productTitle, bidderName, newPrice, productSlug),
-                    true);
-
-            mailSender.send(message);
-            log.info("New bid notification sent to seller: {}", toEmail);
-        } catch (MessagingException | MailException e) {
-            log.error("Failed to send new bid notification to seller {}: {}", toEmail, e.getMessage());
-        }
+            String bidderName, BigDecimal newPrice, String productSlug, Long bidId) {
+        emailOutboxService.enqueue(EmailTemplate.NEW_BID_TO_SELLER, toEmail,
+                String.format("%s - Lượt đấu giá mới cho sản phẩm: %s", templateService.getAppName(), productTitle),
+                buildNewBidToSellerEmailContent(sellerName, productTitle, bidderName, newPrice, productSlug),
+                productSlug, newPrice, bidId);
     }
 
     /**
-     * Send outbid notification to previous highest bidder
+     * Queue outbid notification to previous highest bidder
      */
-    @Async
     public void sendOutbidNotification(String toEmail, String bidderName, String productTitle,
-            BigDecimal newPrice, String productSlug) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject(String.format("%s - Bạn đã bị trả giá cao hơn ở sản phẩm: %s",
-                    templateService.getAppName(), productTitle));
-            helper.setText(buildOutbidEmailContent(bidderName, productTitle, newPrice, productSlug), true);
-
-            mailSender.send(message);
-            log.info("Outbid notification sent to: {}", toEmail);
-        } catch (MessagingException | MailException e) {
-            log.error("Failed to send outbid notification to {}: {}", toEmail, e.getMessage());
-        }
+            BigDecimal newPrice, String productSlug, Long bidId) {
+        emailOutboxService.enqueue(EmailTemplate.OUTBID, toEmail,
+                String.format("%s - Bạn đã bị trả giá cao hơn ở sản phẩm: %s", templateService.getAppName(),
+                        productTitle),
+                buildOutbidEmailContent(bidderName, productTitle, newPrice, productSlug),
+                productSlug, newPrice, bidId);
+    }
+
+    /**
+     * Queue one email listing several new bids on a seller's product
+     */
+    public void sendNewBidDigestToSeller(String toEmail, String sellerName, String productTitle,
+            List<EmailDigestService.BidEntry> bids, int bidCount, String productSlug) {
+        EmailDigestService.BidEntry latest = bids.getLast();
+        emailOutboxService.enqueue(EmailTemplate.NEW_BID_DIGEST_TO_SELLER, toEmail,
+                String.format("%s - %d lượt đấu giá mới cho sản phẩm: %s", templateService.getAppName(), bidCount,
+                        productTitle),
+                buildDigestEmailContent(EmailTemplate.NEW_BID_DIGEST_TO_SELLER, "sellerName", sellerName,
+                        productTitle, bids, bidCount, productSlug),
+                productSlug, latest.price(), latest.bidId());
+    }
+
+    /**
+     * Queue one email listing the prices a bidder was outbid at
+     */
+    public void sendOutbidDigest(String toEmail, String bidderName, String productTitle,
+            List<EmailDigestService.BidEntry> bids, int bidCount, String productSlug) {
+        EmailDigestService.BidEntry latest = bids.getLast();
+        emailOutboxService.enqueue(EmailTemplate.OUTBID_DIGEST, toEmail,
+                String.format("%s - Bạn đã bị trả giá cao hơn ở sản phẩm: %s", templateService.getAppName(),
+                        productTitle),
+                buildDigestEmailContent(EmailTemplate.OUTBID_DIGEST, "bidderName", bidderName,
+                        productTitle, bids, bidCount, productSlug),
+                productSlug, latest.price(), latest.bidId());
     }
 
     /**
-     * Send bid rejection notification to bidder
+     * Queue bid rejection notification to bidder
      */
-    @Async
     public void sendBidRejectionEmail(String toEmail, String bidderName, String productTitle, String productSlug) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject(String.format("%s - Đấu giá bị từ chối cho sản phẩm: %s", templateService.getAppName(),
-                    productTitle));
-            helper.setText(buildBidRejectionEmailContent(bidderName, productTitle, productSlug), true);
-
-            mailSender.send(message);
-            log.info("Bid rejection email sent to: {}", toEmail);
-        } catch (MessagingException | MailException e) {
-            log.error("Failed to send bid rejection email to {}: {}", toEmail, e.getMessage());
-        }
+        emailOutboxService.enqueue(EmailTemplate.BID_REJECTED, toEmail,
+                String.format("%s - Đấu giá bị từ chối cho sản phẩm: %s", templateService.getAppName(), productTitle),
+                buildBidRejectionEmailContent(bidderName, productTitle, productSlug),
+                productSlug);
     }
 
     // ========== Private Content Builders ==========
 
     private String buildBidConfirmationEmailContent(String bidderName, String productTitle,
             BigDecimal bidAmount, boolean isWinning, String productSlug) {
-        String productUrl = templateService.buildProductUrl(productSlug);
         String statusMessage = isWinning
                 ? "Bạn hiện đang là người đặt giá cao nhất! 🎉"
                 : "Lượt đấu giá của bạn đã được ghi nhận thành công.";
         String statusClass = isWinning ? "success-box" : "info-box";
 
-        String content = String.format("""
-                <p class="greeting">Xin chào %s,</p>
-
-                <div class="%s">
-                    <strong>%s</strong>
-                </div>
-
-                <div class="bid-details">
-                    <p><strong>Sản phẩm:</strong> %s</p>
-                    <p><strong>Giá đấu tối đa của bạn:</strong> %,d VND</p>
-                </div>
-
-                <p class="message">Chúng tôi sẽ thông báo cho bạn nếu có người đặt giá cao hơn.</p>
-
-                %s
-                """, bidderName, statusClass, statusMessage, productTitle, bidAmount.longValue(),
-                templateService.buildButton("Đi tới sản phẩm", productUrl));
-
-        return templateService.buildEmail("Xác nhận đấu giá - BidStorm", content);
+        return templateEngine.render(EmailTemplate.BID_CONFIRMATION, Map.of(
+                "bidderName", bidderName,
+                "statusClass", statusClass,
+                "statusMessage", statusMessage,
+                "productTitle", productTitle,
+                "bidAmount", bidAmount,
+                "buttonUrl", templateService.buildProductUrl(productSlug)));
     }
 
     private String buildNewBidToSellerEmailContent(String sellerName, String productTitle,
             String bidderName, BigDecimal newPrice, String productSlug) {
-        String productUrl = templateService.buildProductUrl(productSlug);
-
-        String content = String.format("""
-                <p class="greeting">Xin chào %s,</p>
-
-                <div class="success-box">
-                    <strong>🎉 Tin tốt! Có người vừa đặt giá cho sản phẩm của bạn.</strong>
-                </div>
-
-                <div class="bid-details">
-                    <p><strong>Sản phẩm:</strong> %s</p>
-                    <p><strong>Người đặt giá:</strong> %s</p>
-                    <p><strong>Giá hiện tại:</strong> %,d VND</p>
-                </div>
-
-                <p class="message">Bạn có thể xem chi tiết lịch sử đấu giá trên trang sản phẩm.</p>
-
-                %s
-                """, sellerName, productTitle, bidderName, newPrice.longValue(),
-                templateService.buildButton("Đi tới sản phẩm", productUrl));
-
-        return templateService.buildEmail("Lượt đấu giá mới - BidStorm", content);
+        return templateEngine.render(EmailTemplate.NEW_BID_TO_SELLER, Map.of(
+                "sellerName", sellerName,
+                "productTitle", productTitle,
+                "bidderName", bidderName,
+                "newPrice", newPrice,
+                "buttonUrl", templateService.buildProductUrl(productSlug)));
     }
 
     private String buildOutbidEmailContent(String bidderName, String productTitle,
             BigDecimal newPrice, String productSlug) {
-        String productUrl = templateService.buildProductUrl(productSlug);
-
-        String content = String.format("""
-                <p class="greeting">Xin chào %s,</p>
-
-                <div class="warning-box">
-                    <strong>⚠️ Có người đã đặt giá cao hơn bạn!</strong>
-                </div>
-
-                <div class="bid-details">
-                    <p><strong>Sản phẩm:</strong> %s</p>
-                    <p><strong>Giá hiện tại:</strong> %,d VND</p>
-                </div>
-
-                <p class="message">Đặt giá mới ngay để tiếp tục tham gia đấu giá!</p>
+        return templateEngine.render(EmailTemplate.OUTBID, Map.of(
+                "bidderName", bidderName,
+                "productTitle", productTitle,
+                "newPrice", newPrice,
+                "buttonUrl", templateService.buildProductUrl(productSlug)));
+    }
 
-                %s
-                """, bidderName, productTitle, newPrice.longValue(),
-                templateService.buildButton("Đi tới sản phẩm", productUrl));
+    private String buildDigestEmailContent(EmailTemplate template, String nameKey, String name,
+            String productTitle, List<EmailDigestService.BidEntry> bids, int bidCount, String productSlug) {
+        List<Map<String, Object>> rows = new ArrayList<>(bids.size());
+        for (EmailDigestService.BidEntry bid : bids) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("time", bid.time().format(DIGEST_TIME_FORMAT));
+            row.put("price", bid.price());
+            if (bid.bidderName() != null) {
+                row.put("bidderName", bid.bidderName());
+            }
+            rows.add(row);
+        }
 
-        return templateService.buildEmail("Bạn đã bị vượt giá - BidStorm", content);
+        return templateEngine.render(template, Map.of(
+                nameKey, name,
+                "productTitle", productTitle,
+                "bidCount", bidCount,
+                "currentPrice", bids.getLast().price(),
+                "bids", rows,
+                "buttonUrl", templateService.buildProductUrl(productSlug)));
     }
 
     private String buildBidRejectionEmailContent(String bidderName, String productTitle, String productSlug) {
-        String content = String.format("""
-                <p class="greeting">Xin chào %s,</p>
-
-                <div class="danger-box">
-                    <strong>❌ Người bán đã từ chối lượt đấu giá của bạn</strong>
-                </div>
-
-                <div class="product-details">
-                    <p><strong>Sản phẩm:</strong> %s</p>
-                </div>
-
-                <p class="message">Bạn không còn được phép tham gia đấu giá sản phẩm này.</p>
-                <p class="message">Nếu có thắc mắc, vui lòng liên hệ với người bán hoặc bộ phận hỗ trợ.</p>
-                """, bidderName, productTitle);
-
-        return templateService.buildEmail("Lượt đấu giá bị từ chối - BidStorm", content);
+        return templateEngine.render(EmailTemplate.BID_REJECTED, Map.of(
+                "bidderName", bidderName,
+                "productTitle", productTitle));
     }
 }
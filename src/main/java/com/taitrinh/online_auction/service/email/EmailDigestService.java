@@ -0,0 +1,190 @@
+package com.taitrinh.online_auction.service.email;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batches per-bid emails (new bid to seller, outbid to bidder) into one digest
+ * per recipient and product. A digest is sent once no new bid arrived for the
+ * quiet window, or at the latest after max-delay during a long bidding war.
+ * A digest with a single bid is sent as the normal email.
+ *
+ * Buffered in memory: on a crash at most max-delay worth of digests is lost,
+ * the bidding itself is still visible on the product page.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailDigestService {
+
+    private final BidEmailService bidEmailService;
+
+    @Value("${email.digest.quiet-window-ms:120000}")
+    private long quietWindowMs;
+
+    @Value("${email.digest.max-delay-ms:900000}")
+    private long maxDelayMs;
+
+    @Value("${email.digest.max-entries:20}")
+    private int maxEntries;
+
+    private final Map<DigestKey, Digest> digests = new ConcurrentHashMap<>();
+
+    /**
+     * One bid listed in a digest
+     */
+    public record BidEntry(Long bidId, String bidderName, BigDecimal price, ZonedDateTime time) {
+    }
+
+    private enum Kind {
+        NEW_BID_TO_SELLER, OUTBID
+    }
+
+    private record DigestKey(String recipient, Kind kind, String productSlug) {
+    }
+
+    /**
+     * Buffer a new bid notification for the seller
+     */
+    public void addNewBidForSeller(String toEmail, String sellerName, String productTitle,
+            String bidderName, BigDecimal newPrice, String productSlug, Long bidId) {
+        add(new DigestKey(toEmail, Kind.NEW_BID_TO_SELLER, productSlug), sellerName, productTitle,
+                new BidEntry(bidId, bidderName, newPrice, ZonedDateTime.now()));
+    }
+
+    /**
+     * Buffer an outbid notification for a bidder who is not online
+     */
+    public void addOutbid(String toEmail, String bidderName, String productTitle,
+            BigDecimal newPrice, String productSlug, Long bidId) {
+        add(new DigestKey(toEmail, Kind.OUTBID, productSlug), bidderName, productTitle,
+                new BidEntry(bidId, null, newPrice, ZonedDateTime.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${email.digest.flush-interval-ms:10000}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<DigestKey, Digest> entry : digests.entrySet()) {
+            Digest digest = entry.getValue();
+            // remove(key, value) fails if the digest was replaced meanwhile; a bid
+            // added to this digest before the removal is still sent with it
+            if (digest.isDue(now) && digests.remove(entry.getKey(), digest)) {
+                send(entry.getKey(), digest);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        for (DigestKey key : digests.keySet()) {
+            Digest digest = digests.remove(key);
+            if (digest != null) {
+                send(key, digest);
+            }
+        }
+    }
+
+    private void add(DigestKey key, String recipientName, String productTitle, BidEntry bid) {
+        // Only buffer bids that were actually committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffer(key, recipientName, productTitle, bid);
+                }
+            });
+        } else {
+            buffer(key, recipientName, productTitle, bid);
+        }
+    }
+
+    private void buffer(DigestKey key, String recipientName, String productTitle, BidEntry bid) {
+        long now = System.currentTimeMillis();
+        digests.compute(key, (k, digest) -> {
+            Digest result = digest != null ? digest : new Digest(recipientName, productTitle, now);
+            result.add(bid, now);
+            return result;
+        });
+    }
+
+    private void send(DigestKey key, Digest digest) {
+        List<BidEntry> bids = new ArrayList<>(digest.bids);
+        BidEntry latest = bids.getLast();
+        try {
+            switch (key.kind()) {
+                case NEW_BID_TO_SELLER -> {
+                    if (digest.bidCount == 1) {
+                        bidEmailService.sendNewBidNotificationToSeller(key.recipient(), digest.recipientName,
+                                digest.productTitle, latest.bidderName(), latest.price(), key.productSlug(),
+                                latest.bidId());
+                    } else {
+                        bidEmailService.sendNewBidDigestToSeller(key.recipient(), digest.recipientName,
+                                digest.productTitle, bids, digest.bidCount, key.productSlug());
+                    }
+                }
+                case OUTBID -> {
+                    if (digest.bidCount == 1) {
+                        bidEmailService.sendOutbidNotification(key.recipient(), digest.recipientName,
+                                digest.productTitle, latest.price(), key.productSlug(), latest.bidId());
+                    } else {
+                        bidEmailService.sendOutbidDigest(key.recipient(), digest.recipientName,
+                                digest.productTitle, bids, digest.bidCount, key.productSlug());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to queue {} digest for {}: {}", key.kind(), key.recipient(), e.getMessage());
+        }
+    }
+
+    /**
+     * Bids buffered for one recipient and product. Only mutated inside
+     * ConcurrentHashMap.compute, read after it was removed from the map.
+     */
+    private class Digest {
+
+        private final String recipientName;
+        private final String productTitle;
+        private final long firstAt;
+        private volatile long lastAt;
+        private final Deque<BidEntry> bids = new ArrayDeque<>();
+        private int bidCount;
+
+        Digest(String recipientName, String productTitle, long firstAt) {
+            this.recipientName = recipientName;
+            this.productTitle = productTitle;
+            this.firstAt = firstAt;
+            this.lastAt = firstAt;
+        }
+
+        void add(BidEntry bid, long now) {
+            // Keep the most recent bids, the count covers all of them
+            if (bids.size() >= Math.max(maxEntries, 1)) {
+                bids.removeFirst();
+            }
+            bids.addLast(bid);
+            bidCount++;
+            lastAt = now;
+        }
+
+        boolean isDue(long now) {
+            return now - lastAt >= quietWindowMs || now - firstAt >= maxDelayMs;
+        }
+    }
+}
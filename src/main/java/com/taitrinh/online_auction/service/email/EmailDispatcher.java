@@ -0,0 +1,286 @@
+package com.taitrinh.online_auction.service.email;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single entry point to the SMTP server for all email services
+ *
+ * Messages are queued and sent by a few worker threads, each keeping one SMTP
+ * connection open and sending whatever has queued up in a batch over it, so
+ * there is no new connection + STARTTLS handshake per email. A broken
+ * connection is reopened and the message retried once; messages the server
+ * rejects fail right away. Sending is throttled to the provider's rate limit.
+ */
+@Component
+@Slf4j
+public class EmailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final Timer sendTimer;
+    private final Counter failureCounter;
+    private final Counter connectCounter;
+
+    @Value("${email.smtp.connections:2}")
+    private int connections;
+
+    @Value("${email.smtp.batch-size:20}")
+    private int batchSize;
+
+    @Value("${email.smtp.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${email.smtp.max-per-second:10}")
+    private int maxPerSecond;
+
+    @Value("${email.smtp.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    private BlockingQueue<PendingMail> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    // Rate limiter state: earliest time (nanos) the next message may be sent
+    private long nextSendAt;
+
+    public EmailDispatcher(JavaMailSender mailSender, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.sendTimer = Timer.builder("email.send.latency")
+                .description("Time from queueing a message until the SMTP server accepted it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("email.send.failures")
+                .description("Messages the SMTP server did not accept")
+                .register(meterRegistry);
+        this.connectCounter = Counter.builder("email.smtp.connects")
+                .description("SMTP connections opened")
+                .register(meterRegistry);
+        Gauge.builder("email.smtp.queue.size", this, dispatcher -> dispatcher.queue != null ? dispatcher.queue.size() : 0)
+                .description("Messages waiting for an SMTP connection")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!(mailSender instanceof JavaMailSenderImpl)) {
+            log.info("Mail sender is not a JavaMailSenderImpl, sending without connection pooling");
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        for (int i = 0; i < connections; i++) {
+            Thread worker = Thread.ofPlatform()
+                    .name("smtp-worker-" + i)
+                    .daemon(true)
+                    .start(new SmtpWorker((JavaMailSenderImpl) mailSender));
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        if (queue != null) {
+            // Release callers still waiting for a connection
+            List<PendingMail> unsent = new ArrayList<>();
+            queue.drainTo(unsent);
+            unsent.forEach(pending -> pending.result()
+                    .completeExceptionally(new IllegalStateException("Email dispatcher stopped")));
+        }
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    /**
+     * Send a message over a pooled connection. Blocks the calling (email
+     * executor) thread until the server accepted or rejected the message, so
+     * callers keep their synchronous error handling.
+     */
+    public void send(MimeMessage message) {
+        Timer.Sample sample = Timer.start();
+        try {
+            if (queue == null) {
+                mailSender.send(message);
+                return;
+            }
+            PendingMail pending = new PendingMail(message, new CompletableFuture<>());
+            if (!queue.offer(pending, idleTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("SMTP queue is full");
+            }
+            pending.result().join();
+        } catch (MailException e) {
+            failureCounter.increment();
+            throw e;
+        } catch (CompletionException e) {
+            failureCounter.increment();
+            throw new MailSendException("Failed to send message", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failureCounter.increment();
+            throw new MailSendException("Interrupted while queueing message", e);
+        } finally {
+            sample.stop(sendTimer);
+        }
+    }
+
+    private synchronized void acquireRatePermit() throws InterruptedException {
+        if (maxPerSecond <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long wait = nextSendAt - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        nextSendAt = Math.max(now, nextSendAt) + TimeUnit.SECONDS.toNanos(1) / maxPerSecond;
+    }
+
+    private record PendingMail(MimeMessage message, CompletableFuture<Void> result) {
+    }
+
+    /**
+     * Owns one SMTP connection and sends queued messages over it in batches
+     */
+    private class SmtpWorker implements Runnable {
+
+        private final JavaMailSenderImpl sender;
+        private Transport transport;
+
+        SmtpWorker(JavaMailSenderImpl sender) {
+            this.sender = sender;
+        }
+
+        @Override
+        public void run() {
+            List<PendingMail> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    PendingMail first = queue.poll(idleTimeoutMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        // Idle - don't hold the connection open, the server would drop it anyway
+                        close();
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    for (PendingMail pending : batch) {
+                        sendWithRetry(pending);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    batch.forEach(pending -> pending.result().completeExceptionally(e));
+                    break;
+                } finally {
+                    batch.clear();
+                }
+            }
+            close();
+        }
+
+        private void sendWithRetry(PendingMail pending) throws InterruptedException {
+            MimeMessage message = pending.message();
+            try {
+                if (message.getSentDate() == null) {
+                    message.setSentDate(new Date());
+                }
+                message.saveChanges();
+            } catch (MessagingException e) {
+                pending.result().completeExceptionally(e);
+                return;
+            }
+
+            acquireRatePermit();
+            for (int attempt = 1; attempt <= 2; attempt++) {
+                try {
+                    connection().sendMessage(message, message.getAllRecipients());
+                    pending.result().complete(null);
+                    return;
+                } catch (MessagingException e) {
+                    if (!isConnectionFailure(e)) {
+                        // Rejected by the server, sending again would be rejected again
+                        pending.result().completeExceptionally(e);
+                        return;
+                    }
+                    // Connection may have been dropped by the server, reopen and retry once
+                    close();
+                    if (attempt == 2) {
+                        pending.result().completeExceptionally(e);
+                    } else {
+                        log.debug("SMTP send failed, reconnecting: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Whether a failed send is worth a retry on a new connection: the
+         * connection broke, or the server deferred it with a transient 4xx reply
+         * (e.g. 421 closing the channel). Rejected recipients or content and bad
+         * credentials fail right away.
+         */
+        private boolean isConnectionFailure(MessagingException e) {
+            if (e instanceof AuthenticationFailedException) {
+                return false;
+            }
+            if (e instanceof SMTPSendFailedException smtp && smtp.getReturnCode() / 100 == 4) {
+                return true;
+            }
+            return !(e instanceof SendFailedException) || transport == null || !transport.isConnected();
+        }
+
+        private Transport connection() throws MessagingException {
+            if (transport != null && transport.isConnected()) {
+                return transport;
+            }
+            close();
+            String protocol = sender.getProtocol() != null ? sender.getProtocol() : "smtp";
+            transport = sender.getSession().getTransport(protocol);
+            transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+            connectCounter.increment();
+            return transport;
+        }
+
+        private void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+            transport = null;
+        }
+    }
+}
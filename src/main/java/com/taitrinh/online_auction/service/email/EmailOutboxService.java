@@ -0,0 +1,170 @@
+package com.taitrinh.online_auction.service.email;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.taitrinh.online_auction.dto.admin.EmailOutboxStatsResponse;
+import com.taitrinh.online_auction.entity.EmailOutbox;
+import com.taitrinh.online_auction.repository.EmailOutboxRepository;
+import com.taitrinh.online_auction.service.email.template.EmailTemplate;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durable queue of outgoing emails. The email services only render and enqueue
+ * here, in the caller's transaction; EmailOutboxScheduler sends them later and
+ * retries failures with exponential backoff.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailDispatcher emailDispatcher;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${email.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${email.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    /**
+     * Queue an email. dedupParts identify the notification (e.g. product slug and
+     * price); together with the recipient and template they must be unique, so
+     * a repeated call for the same event is ignored.
+     *
+     * @return false if the same email was already queued
+     */
+    @Transactional
+    public boolean enqueue(EmailTemplate template, String recipient, String subject, String body,
+            Object... dedupParts) {
+        String dedupKey = dedupKey(template, recipient, dedupParts);
+        boolean queued = emailOutboxRepository.insertIfAbsent(dedupKey, recipient, template.name(), subject,
+                body) > 0;
+        if (queued) {
+            log.debug("Queued {} email to {}", template, recipient);
+        } else {
+            log.debug("Skipped duplicate {} email to {}", template, recipient);
+        }
+        return queued;
+    }
+
+    /**
+     * Lease up to limit due emails to the caller. The lease pushes their next
+     * attempt forward, so if this instance dies mid-send they are retried once it
+     * expires instead of being lost.
+     */
+    @Transactional
+    public List<EmailOutbox> claimDue(int limit) {
+        List<EmailOutbox> due = emailOutboxRepository.findDueForUpdate(limit);
+        ZonedDateTime leaseUntil = ZonedDateTime.now().plusNanos(leaseMs * 1_000_000);
+        for (EmailOutbox email : due) {
+            email.setAttempts(email.getAttempts() + 1);
+            email.setNextAttemptAt(leaseUntil);
+        }
+        return due;
+    }
+
+    /**
+     * Send one claimed email over the pooled SMTP connections. Blocks until the
+     * server accepted or rejected it.
+     */
+    public void deliver(EmailOutbox email) throws MessagingException {
+        MimeMessage message = emailDispatcher.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true);
+
+        emailDispatcher.send(message);
+    }
+
+    @Transactional
+    public void markSent(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            emailOutboxRepository.markSent(ids, EmailOutbox.Status.SENT, ZonedDateTime.now());
+        }
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or give up after max-attempts
+     */
+    @Transactional
+    public void markFailed(Long id, String error) {
+        emailOutboxRepository.findById(id).ifPresent(email -> {
+            email.setLastError(error);
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailOutbox.Status.FAILED);
+                log.error("Giving up on {} email to {} after {} attempts: {}",
+                        email.getTemplate(), email.getRecipient(), email.getAttempts(), error);
+                return;
+            }
+            long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(email.getAttempts() - 1, 20));
+            email.setNextAttemptAt(ZonedDateTime.now().plusNanos(backoffMs * 1_000_000));
+            log.warn("Failed to send {} email to {} (attempt {}), retrying in {}s: {}",
+                    email.getTemplate(), email.getRecipient(), email.getAttempts(), backoffMs / 1000, error);
+        });
+    }
+
+    /**
+     * Delete sent emails older than the retention period. Duplicates of these
+     * can be queued again afterwards.
+     */
+    @Transactional
+    public int deleteSentBefore(ZonedDateTime before) {
+        return emailOutboxRepository.deleteByStatusAndSentAtBefore(EmailOutbox.Status.SENT, before);
+    }
+
+    @Transactional(readOnly = true)
+    public EmailOutboxStatsResponse getStats() {
+        return EmailOutboxStatsResponse.builder()
+                .pending(emailOutboxRepository.countByStatus(EmailOutbox.Status.PENDING))
+                .failed(emailOutboxRepository.countByStatus(EmailOutbox.Status.FAILED))
+                .sentLastHour(emailOutboxRepository.countByStatusAndSentAtAfter(EmailOutbox.Status.SENT,
+                        ZonedDateTime.now().minusHours(1)))
+                .oldestPendingAt(emailOutboxRepository
+                        .findFirstByStatusOrderByCreatedAtAsc(EmailOutbox.Status.PENDING)
+                        .map(EmailOutbox::getCreatedAt)
+                        .orElse(null))
+                .build();
+    }
+
+    private static String dedupKey(EmailTemplate template, String recipient, Object... parts) {
+        StringBuilder key = new StringBuilder(template.name()).append('|').append(recipient.toLowerCase());
+        for (Object part : parts) {
+            // 150000 and 150000.00 are the same price
+            key.append('|').append(part instanceof BigDecimal price ? price.stripTrailingZeros().toPlainString() : part);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.taitrinh.online_auction.service.email.template;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template parsed once into static text fragments and typed slots.
+ * Rendering appends fragments and slot values to a caller-supplied buffer, and
+ * HTML-escapes values while appending them, so no intermediate strings are
+ * built.
+ *
+ * Syntax:
+ * {{name}} - escaped value
+ * {{{name}}} - raw value (trusted HTML only)
+ * {{name|vnd}} - number formatted as "1,234,567 VND"
+ * {{name|truncate}} - escaped, cut to 200 characters
+ * {{#name}}...{{/name}} - section rendered once per map in a list
+ * {{> partial}} - another template inlined at compile time
+ */
+public final class CompiledTemplate {
+
+    private static final int TRUNCATE_LENGTH = 200;
+
+    private enum SlotType {
+        ESCAPED, RAW, VND, TRUNCATE, SECTION
+    }
+
+    private record Slot(String name, SlotType type, CompiledTemplate section) {
+    }
+
+    // statics.length == slots.length + 1, rendered as statics[0] slots[0]
+    // statics[1] ... statics[n]
+    private final String[] statics;
+    private final Slot[] slots;
+    private final int staticLength;
+
+    private CompiledTemplate(String[] statics, Slot[] slots) {
+        this.statics = statics;
+        this.slots = slots;
+        int length = 0;
+        for (String s : statics) {
+            length += s.length();
+        }
+        this.staticLength = length;
+    }
+
+    /**
+     * Parse a template. Partials are inlined, and slots whose name is in
+     * constants are folded into the static text.
+     */
+    public static CompiledTemplate compile(String source, Map<String, String> partials,
+            Map<String, String> constants) {
+        String expanded = expandPartials(source, partials, 0);
+
+        List<String> statics = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int pos = 0;
+        while (true) {
+            int open = expanded.indexOf("{{", pos);
+            if (open < 0) {
+                text.append(expanded, pos, expanded.length());
+                break;
+            }
+            text.append(expanded, pos, open);
+
+            boolean raw = expanded.startsWith("{{{", open);
+            String closeToken = raw ? "}}}" : "}}";
+            int start = open + (raw ? 3 : 2);
+            int close = expanded.indexOf(closeToken, start);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed tag at offset " + open);
+            }
+            String tag = expanded.substring(start, close).trim();
+            pos = close + closeToken.length();
+
+            if (!raw && tag.startsWith("#")) {
+                String name = tag.substring(1).trim();
+                String endTag = "{{/" + name + "}}";
+                int end = expanded.indexOf(endTag, pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed section {{#" + name + "}}");
+                }
+                CompiledTemplate section = compile(expanded.substring(pos, end), Map.of(), constants);
+                pos = end + endTag.length();
+
+                statics.add(text.toString());
+                slots.add(new Slot(name, SlotType.SECTION, section));
+                text.setLength(0);
+                continue;
+            }
+
+            String name = tag;
+            SlotType type = raw ? SlotType.RAW : SlotType.ESCAPED;
+            int pipe = tag.indexOf('|');
+            if (pipe >= 0) {
+                name = tag.substring(0, pipe).trim();
+                type = switch (tag.substring(pipe + 1).trim()) {
+                    case "vnd" -> SlotType.VND;
+                    case "truncate" -> SlotType.TRUNCATE;
+                    default -> throw new IllegalArgumentException("Unknown formatter in {{" + tag + "}}");
+                };
+            }
+
+            String constant = constants.get(name);
+            if (constant != null && (type == SlotType.ESCAPED || type == SlotType.RAW)) {
+                if (type == SlotType.RAW) {
+                    text.append(constant);
+                } else {
+                    appendEscaped(text, constant);
+                }
+                continue;
+            }
+
+            statics.add(text.toString());
+            slots.add(new Slot(name, type, null));
+            text.setLength(0);
+        }
+        statics.add(text.toString());
+
+        return new CompiledTemplate(statics.toArray(String[]::new), slots.toArray(Slot[]::new));
+    }
+
+    /**
+     * Render into the buffer
+     *
+     * @throws IllegalArgumentException if a slot has no value
+     */
+    public void render(Map<String, ?> variables, StringBuilder out) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(statics[i]);
+            Slot slot = slots[i];
+            Object value = variables.get(slot.name());
+            if (value == null) {
+                throw new IllegalArgumentException("Missing email template variable: " + slot.name());
+            }
+            switch (slot.type()) {
+                case ESCAPED -> appendEscaped(out, value.toString());
+                case RAW -> out.append(value);
+                case VND -> appendVnd(out, value);
+                case TRUNCATE -> appendTruncated(out, value.toString());
+                case SECTION -> renderSection(slot.section(), value, out);
+            }
+        }
+        out.append(statics[slots.length]);
+    }
+
+    /**
+     * Length of the static text, a lower bound for the rendered size
+     */
+    public int getStaticLength() {
+        return staticLength;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void renderSection(CompiledTemplate section, Object items, StringBuilder out) {
+        for (Object item : (Iterable<?>) items) {
+            section.render((Map<String, ?>) item, out);
+        }
+    }
+
+    private static String expandPartials(String source, Map<String, String> partials, int depth) {
+        if (depth > 5) {
+            throw new IllegalArgumentException("Partials nested too deep");
+        }
+        StringBuilder result = new StringBuilder(source.length());
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf("{{>", pos);
+            if (open < 0) {
+                result.append(source, pos, source.length());
+                return result.toString();
+            }
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed partial at offset " + open);
+            }
+            String name = source.substring(open + 3, close).trim();
+            String partial = partials.get(name);
+            if (partial == null) {
+                throw new IllegalArgumentException("Unknown partial: " + name);
+            }
+            result.append(source, pos, open).append(expandPartials(partial, partials, depth + 1));
+            pos = close + 2;
+        }
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static void appendTruncated(StringBuilder out, String value) {
+        if (value.length() <= TRUNCATE_LENGTH) {
+            appendEscaped(out, value);
+            return;
+        }
+        appendEscaped(out, value.substring(0, TRUNCATE_LENGTH));
+        out.append("...");
+    }
+
+    private static void appendVnd(StringBuilder out, Object value) {
+        long amount = value instanceof BigDecimal decimal ? decimal.longValue() : ((Number) value).longValue();
+        if (amount < 0) {
+            out.append('-');
+            amount = -amount;
+        }
+        String digits = Long.toString(amount);
+        int firstGroup = digits.length() % 3 == 0 ? 3 : digits.length() % 3;
+        out.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < digits.length(); i += 3) {
+            out.append(',').append(digits, i, i + 3);
+        }
+        out.append(" VND");
+    }
+}
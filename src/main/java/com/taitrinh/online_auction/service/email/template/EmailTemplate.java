@@ -0,0 +1,38 @@
+package com.taitrinh.online_auction.service.email.template;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * All email types. Each one is a content file under
+ * resources/templates/email, rendered inside layout.html.
+ * Title and button label are constants, folded into the template at compile
+ * time.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EmailTemplate {
+
+    EMAIL_VERIFICATION("email-verification.html", "Xác thực email - BidStorm", null),
+    WELCOME("welcome.html", "Chào mừng đến với BidStorm", null),
+    PASSWORD_RESET("password-reset.html", "Đặt lại mật khẩu - BidStorm", null),
+
+    BID_CONFIRMATION("bid-confirmation.html", "Xác nhận đấu giá - BidStorm", "Đi tới sản phẩm"),
+    NEW_BID_TO_SELLER("new-bid-seller.html", "Lượt đấu giá mới - BidStorm", "Đi tới sản phẩm"),
+    OUTBID("outbid.html", "Bạn đã bị vượt giá - BidStorm", "Đi tới sản phẩm"),
+    NEW_BID_DIGEST_TO_SELLER("new-bid-digest-seller.html", "Lượt đấu giá mới - BidStorm", "Đi tới sản phẩm"),
+    OUTBID_DIGEST("outbid-digest.html", "Bạn đã bị vượt giá - BidStorm", "Đi tới sản phẩm"),
+    BID_REJECTED("bid-rejected.html", "Lượt đấu giá bị từ chối - BidStorm", null),
+
+    NEW_QUESTION("new-question.html", "Câu hỏi mới - BidStorm", "Trả lời câu hỏi"),
+    SELLER_REPLY("seller-reply.html", "Người bán đã trả lời - BidStorm", "Xem câu trả lời"),
+    PRODUCT_ACTIVITY("product-activity.html", "Hoạt động mới - BidStorm", "Xem chi tiết"),
+
+    NO_WINNER("no-winner.html", "Sản phẩm đã kết thúc - BidStorm", "Xem sản phẩm"),
+    WINNER_TO_BIDDER("winner-bidder.html", "Chúc mừng bạn đã thắng! - BidStorm", "Xem sản phẩm"),
+    WINNER_TO_SELLER("winner-seller.html", "Sản phẩm đã bán - BidStorm", "Xem sản phẩm");
+
+    private final String file;
+    private final String title;
+    private final String buttonLabel;
+}
@@ -0,0 +1,85 @@
+package com.taitrinh.online_auction.service.email.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads and compiles every {@link EmailTemplate} (inside the shared layout)
+ * once at startup, then renders them into a per-thread reusable buffer.
+ * A broken or missing template fails the startup instead of the first send.
+ */
+@Component
+@Slf4j
+public class EmailTemplateEngine {
+
+    private static final String TEMPLATE_DIR = "templates/email/";
+
+    // Don't keep a buffer around that grew on an unusually large email
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    @Value("${app.name:BidStorm}")
+    private String appName;
+
+    private final Map<EmailTemplate, CompiledTemplate> templates = new EnumMap<>(EmailTemplate.class);
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(16 * 1024));
+
+    @PostConstruct
+    public void compileTemplates() {
+        String layout = load("layout.html");
+        String button = load("button.html");
+
+        for (EmailTemplate template : EmailTemplate.values()) {
+            Map<String, String> partials = Map.of(
+                    "content", load(template.getFile()),
+                    "button", button);
+
+            Map<String, String> constants = new HashMap<>();
+            constants.put("appName", appName);
+            constants.put("title", template.getTitle());
+            if (template.getButtonLabel() != null) {
+                constants.put("buttonLabel", template.getButtonLabel());
+            }
+
+            templates.put(template, CompiledTemplate.compile(layout, partials, constants));
+        }
+        log.info("Compiled {} email templates", templates.size());
+    }
+
+    /**
+     * Render an email body
+     */
+    public String render(EmailTemplate template, Map<String, ?> variables) {
+        CompiledTemplate compiled = templates.get(template);
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        buffer.ensureCapacity(compiled.getStaticLength() + 1024);
+        try {
+            compiled.render(variables, buffer);
+            return buffer.toString();
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                buffers.remove();
+            }
+        }
+    }
+
+    private String load(String file) {
+        try (InputStream in = new ClassPathResource(TEMPLATE_DIR + file).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load email template " + file, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.taitrinh.online_auction.util;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Utility class for answering conditional GETs: a request whose If-None-Match
+ * matches the ETag gets a 304 without the body being built
+ */
+public class ConditionalGetUtil {
+
+    // Always revalidated; shared caches may keep responses that are the same for everyone
+    private static final CacheControl PUBLIC = CacheControl.noCache().cachePublic();
+    private static final CacheControl PRIVATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGetUtil() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Response that is the same for every viewer
+     *
+     * @param eTag The ETag of the current data, or null to always build the body
+     */
+    public static <T> ResponseEntity<T> shared(WebRequest webRequest, String eTag, Supplier<T> body) {
+        return respond(webRequest, eTag, PUBLIC, false, body);
+    }
+
+    /**
+     * Response that depends on the viewer (null = anonymous), the ETag must
+     * include the viewer
+     *
+     * @param eTag The ETag of the current data, or null to always build the body
+     */
+    public static <T> ResponseEntity<T> forViewer(WebRequest webRequest, String eTag, Long viewerId,
+            Supplier<T> body) {
+        return respond(webRequest, eTag, viewerId != null ? PRIVATE : PUBLIC, true, body);
+    }
+
+    private static <T> ResponseEntity<T> respond(WebRequest webRequest, String eTag, CacheControl cacheControl,
+            boolean varyByViewer, Supplier<T> body) {
+        boolean notModified = eTag != null && webRequest.checkNotModified(eTag);
+
+        ResponseEntity.BodyBuilder builder = notModified ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                : ResponseEntity.ok();
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        builder.cacheControl(cacheControl);
+        if (varyByViewer) {
+            builder.varyBy(HttpHeaders.AUTHORIZATION);
+        }
+        return notModified ? builder.build() : builder.body(body.get());
+    }
+}
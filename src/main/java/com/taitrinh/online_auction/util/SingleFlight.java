@@ -0,0 +1,98 @@
+package com.taitrinh.online_auction.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key. The first caller runs the
+ * loader, callers arriving while it runs (or within the freshness window after
+ * it finished) get its result instead of running their own query.
+ *
+ * Keys should include the version of the data they load, so a change is never
+ * hidden behind a result that is still fresh.
+ *
+ * A failure is thrown to every caller that waited on it, but never reused.
+ * Results are shared between threads, so they must not be modified.
+ */
+public class SingleFlight<K, V> {
+
+    private static final class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        // System.nanoTime() until which a finished result is reused
+        volatile long freshUntil;
+        volatile boolean done;
+
+        boolean isReusable(long now) {
+            return !done || (!result.isCompletedExceptionally() && now - freshUntil < 0);
+        }
+    }
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong lastExpiry = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param freshnessMs how long a finished result is reused, 0 to only share
+     *                    loads that are still running
+     */
+    public V load(K key, long freshnessMs, Supplier<V> loader) {
+        long now = System.nanoTime();
+        Flight<V> mine = new Flight<>();
+        Flight<V> flight = flights.compute(key,
+                (k, current) -> current != null && current.isReusable(now) ? current : mine);
+        if (flight != mine) {
+            return await(flight);
+        }
+
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            mine.done = true;
+            mine.result.completeExceptionally(e);
+            flights.remove(key, mine);
+            throw e;
+        }
+        mine.freshUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(freshnessMs);
+        mine.done = true;
+        mine.result.complete(value);
+        if (freshnessMs <= 0) {
+            flights.remove(key, mine);
+        } else {
+            expire(freshnessMs);
+        }
+        return value;
+    }
+
+    int size() {
+        return flights.size();
+    }
+
+    private V await(Flight<V> flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Drops finished results no one asked for again, at most once per freshness window
+    private void expire(long freshnessMs) {
+        long now = System.nanoTime();
+        long last = lastExpiry.get();
+        if (now - last < TimeUnit.MILLISECONDS.toNanos(freshnessMs) || !lastExpiry.compareAndSet(last, now)) {
+            return;
+        }
+        flights.entrySet().removeIf(entry -> !entry.getValue().isReusable(now));
+    }
+}
@@ -1,6 +1,7 @@
 package com.taitrinh.online_auction.util;
 
 import java.text.Normalizer;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 /**
@@ -13,6 +14,7 @@ public class SlugUtils {
     private static final Pattern WHITESPACE = Pattern.compile("[\\s]");
     private static final Pattern EDGESDHASHES = Pattern.compile("(^-|-$)");
     private static final Pattern MULTIPLE_HYPHENS = Pattern.compile("-{2,}");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
 
     /**
      * Generate a URL-friendly slug from the given text.
@@ -40,7 +42,7 @@ public class SlugUtils {
         String noWhitespace = WHITESPACE.matcher(normalized).replaceAll("-");
 
         // Remove accents/diacritics
-        String noAccents = Pattern.compile("\\p{InCombiningDiacriticalMarks}+").matcher(noWhitespace).replaceAll("");
+        String noAccents = DIACRITICS.matcher(noWhitespace).replaceAll("");
 
         // Convert to lowercase
         String lowercase = noAccents.toLowerCase();
@@ -57,6 +59,24 @@ public class SlugUtils {
         return slug;
     }
 
+    /**
+     * Fold text for search matching: remove Vietnamese diacritics the same way
+     * as {@link #toSlug(String)}, map đ/Đ to d (like Postgres unaccent) and
+     * lowercase. Spaces and punctuation are kept.
+     * 
+     * @param input Text to fold
+     * @return Folded text ("Đồng hồ" → "dong ho")
+     */
+    public static String fold(String input) {
+        if (input == null || input.isEmpty()) {
+            return "";
+        }
+
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
+        String noAccents = DIACRITICS.matcher(normalized).replaceAll("");
+        return noAccents.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Generate a unique slug by appending a number if the slug already exists.
      * 
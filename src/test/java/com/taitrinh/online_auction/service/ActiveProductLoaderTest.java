@@ -0,0 +1,152 @@
+package com.taitrinh.online_auction.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+
+/**
+ * One scan feeds every read model, and rows read while their product changes
+ * are not applied stale.
+ */
+class ActiveProductLoaderTest {
+
+	private static final ZonedDateTime NOW = ZonedDateTime.parse("2026-01-01T00:00:00Z");
+
+	private ActiveProductLoader loader;
+	private JdbcTemplate jdbcTemplate;
+	private ActiveProductLoader.Subscriber subscriber;
+
+	@BeforeEach
+	void setUp() {
+		loader = new ActiveProductLoader(mock(DataSource.class), mock(PlatformTransactionManager.class));
+		jdbcTemplate = mock(JdbcTemplate.class);
+		ReflectionTestUtils.setField(loader, "jdbcTemplate", jdbcTemplate);
+		subscriber = mock(ActiveProductLoader.Subscriber.class);
+		loader.subscribe(subscriber);
+	}
+
+	@Test
+	void oneScanLoadsEverySubscriberAndReReadsChangesAfterTheSwap() throws Exception {
+		ActiveProductLoader.Load load = mock(ActiveProductLoader.Load.class);
+		when(subscriber.startLoad()).thenReturn(load);
+		ActiveProductLoader.Subscriber other = mock(ActiveProductLoader.Subscriber.class);
+		ActiveProductLoader.Load otherLoad = mock(ActiveProductLoader.Load.class);
+		when(other.startLoad()).thenReturn(otherLoad);
+		loader.subscribe(other);
+
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			handler.processRow(mock(ResultSet.class));
+			// Ends while the scan reads
+			loader.onProductChanged(ProductChangedEvent.of(5L, ProductChangedEvent.Type.ENDED));
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+		loader.load();
+
+		verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class));
+		verify(load).add(any());
+		verify(otherLoad).add(any());
+		InOrder order = inOrder(load, otherLoad, subscriber);
+		order.verify(load).complete();
+		order.verify(load).install();
+		// Read again after the swap; no row, so removed from the installed state
+		order.verify(subscriber).remove(5L);
+		verify(otherLoad).install();
+		verify(other, times(2)).remove(5L);
+	}
+
+	@Test
+	void productEndedWhileItsRowIsReadIsNotReAdded() {
+		when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<ActiveProductLoader.ActiveProduct>>any(),
+				eq(3L)))
+				.thenAnswer(invocation -> {
+					// The auction ends, and its event is handled, while the row is being read
+					loader.onProductChanged(ProductChangedEvent.of(3L, ProductChangedEvent.Type.ENDED));
+					return List.of(product(3, "1000", 0, 0));
+				});
+
+		loader.onProductChanged(ProductChangedEvent.of(3L, ProductChangedEvent.Type.CREATED));
+
+		verify(subscriber).remove(3L);
+		verify(subscriber, never()).put(any());
+	}
+
+	@Test
+	void productBidOnWhileItsRowIsReadIsReadAgain() {
+		ActiveProductLoader.ActiveProduct stale = product(3, "1000", 0, 0);
+		ActiveProductLoader.ActiveProduct fresh = product(3, "5000", 1, 1);
+		when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<ActiveProductLoader.ActiveProduct>>any(),
+				eq(3L)))
+				.thenAnswer(invocation -> {
+					loader.onProductChanged(ProductChangedEvent.bid(3L, new BigDecimal("5000"), 1,
+							NOW.plusMinutes(30), 1L));
+					return List.of(stale);
+				})
+				.thenReturn(List.of(fresh));
+
+		loader.onProductChanged(ProductChangedEvent.of(3L, ProductChangedEvent.Type.CREATED));
+
+		verify(jdbcTemplate, times(2)).query(anyString(),
+				ArgumentMatchers.<RowMapper<ActiveProductLoader.ActiveProduct>>any(), eq(3L));
+		verify(subscriber, never()).put(stale);
+		verify(subscriber).put(fresh);
+	}
+
+	@Test
+	void bidHandledAfterALaterBidIsDropped() {
+		// Committed second, its event handled first
+		loader.onProductChanged(ProductChangedEvent.bid(3L, new BigDecimal("6000"), 2, NOW.plusMinutes(30), 2L));
+		loader.onProductChanged(ProductChangedEvent.bid(3L, new BigDecimal("5000"), 1, NOW.plusMinutes(30), 1L));
+
+		verify(subscriber).updateAuctionState(3L, new BigDecimal("6000"), 2, NOW.plusMinutes(30));
+		verify(subscriber, never()).updateAuctionState(eq(3L), eq(new BigDecimal("5000")), anyInt(), any());
+	}
+
+	@Test
+	void rowOlderThanTheAppliedBidIsNotPut() {
+		when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<ActiveProductLoader.ActiveProduct>>any(),
+				eq(3L)))
+				.thenReturn(List.of(product(3, "1000", 0, 0)));
+		loader.onProductChanged(ProductChangedEvent.bid(3L, new BigDecimal("5000"), 1, NOW.plusMinutes(30), 1L));
+
+		loader.onProductChanged(ProductChangedEvent.of(3L, ProductChangedEvent.Type.DESCRIPTION_UPDATED));
+
+		verify(jdbcTemplate, times(3)).query(anyString(),
+				ArgumentMatchers.<RowMapper<ActiveProductLoader.ActiveProduct>>any(), eq(3L));
+		verify(subscriber, never()).put(any());
+	}
+
+	private static ActiveProductLoader.ActiveProduct product(long id, String price, int bidCount,
+			long stateVersion) {
+		return new ActiveProductLoader.ActiveProduct(id, "Máy ảnh Nikon", "may-anh-nikon", "", 11, 1,
+				new BigDecimal(price), bidCount, NOW.plusMinutes(30), NOW.minusDays(1), stateVersion);
+	}
+}
@@ -0,0 +1,71 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Counts roll up to parent categories and follow product events without
+ * counting a product twice.
+ */
+class CategoryActiveCountsTest {
+
+	private CategoryActiveCounts activeCounts;
+
+	@BeforeEach
+	void setUp() {
+		// 1 -> 3, 4 and 2 -> 5
+		CategoryTreeCache.Tree tree = CategoryTreeCache.build(1, List.of(
+				new CategoryTreeCache.Row(1, "Điện tử", "dien-tu", null, null),
+				new CategoryTreeCache.Row(2, "Thời trang", "thoi-trang", null, null),
+				new CategoryTreeCache.Row(3, "Điện thoại", "dien-tu/dien-thoai", 1, null),
+				new CategoryTreeCache.Row(4, "Laptop", "dien-tu/laptop", 1, null),
+				new CategoryTreeCache.Row(5, "Giày", "thoi-trang/giay", 2, null)));
+		CategoryTreeCache categoryTreeCache = mock(CategoryTreeCache.class);
+		when(categoryTreeCache.getVersion()).thenReturn(1L);
+		when(categoryTreeCache.getAll()).thenReturn(tree.byId().values());
+		for (Integer id : tree.byId().keySet()) {
+			when(categoryTreeCache.getSelfAndDescendantIds(id)).thenReturn(tree.selfAndDescendantIds().get(id));
+		}
+
+		// Start from an empty load
+		activeCounts = new CategoryActiveCounts(categoryTreeCache, mock(ActiveProductLoader.class));
+		ActiveProductLoader.Load load = activeCounts.startLoad();
+		load.complete();
+		load.install();
+	}
+
+	@Test
+	void rollsUpToParents() {
+		activeCounts.apply(10L, 3);
+		activeCounts.apply(11L, 3);
+		activeCounts.apply(12L, 4);
+		activeCounts.apply(13L, 5);
+
+		assertThat(activeCounts.getActiveCount(1)).isEqualTo(3);
+		assertThat(activeCounts.getActiveCount(3)).isEqualTo(2);
+		assertThat(activeCounts.getActiveCount(2)).isEqualTo(1);
+		assertThat(activeCounts.getActiveCount(99)).isZero();
+	}
+
+	@Test
+	void endedAndDeletedProductsAreRemovedOnce() {
+		activeCounts.apply(10L, 3);
+		activeCounts.apply(10L, 3);
+		activeCounts.apply(11L, 4);
+		long version = activeCounts.getVersion();
+
+		// Ended, then deleted
+		activeCounts.remove(10L);
+		activeCounts.remove(10L);
+
+		assertThat(activeCounts.getActiveCount(3)).isZero();
+		assertThat(activeCounts.getActiveCount(1)).isEqualTo(1);
+		assertThat(activeCounts.getVersion()).isEqualTo(version + 1);
+	}
+}
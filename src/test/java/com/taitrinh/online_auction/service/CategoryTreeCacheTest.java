@@ -0,0 +1,44 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lookups and descendant id sets built from the category rows.
+ */
+class CategoryTreeCacheTest {
+
+	private final CategoryTreeCache.Tree tree = CategoryTreeCache.build(1, List.of(
+			row(1, "Điện tử", "dien-tu", null),
+			row(2, "Thời trang", "thoi-trang", null),
+			row(3, "Điện thoại", "dien-tu/dien-thoai", 1),
+			row(4, "Laptop", "dien-tu/laptop", 1),
+			row(5, "Giày", "thoi-trang/giay", 2)));
+
+	@Test
+	void precomputesSelfAndDescendantIds() {
+		assertThat(tree.selfAndDescendantIds().get(1)).containsExactly(1, 3, 4);
+		assertThat(tree.selfAndDescendantIds().get(4)).containsExactly(4);
+		assertThat(tree.selfAndDescendantIds().get(99)).isNull();
+	}
+
+	@Test
+	void indexesByIdAndSlug() {
+		assertThat(tree.byId().get(3).parentId()).isEqualTo(1);
+		assertThat(tree.bySlug().get("thoi-trang/giay").id()).isEqualTo(5);
+		assertThat(tree.roots()).extracting(CategoryTreeCache.Node::id).containsExactly(1, 2);
+	}
+
+	@Test
+	void listsChildrenInIdOrder() {
+		assertThat(tree.byId().get(1).childIds()).containsExactly(3, 4);
+		assertThat(tree.byId().get(3).childIds()).isEmpty();
+	}
+
+	private static CategoryTreeCache.Row row(int id, String name, String slug, Integer parentId) {
+		return new CategoryTreeCache.Row(id, name, slug, parentId, null);
+	}
+}
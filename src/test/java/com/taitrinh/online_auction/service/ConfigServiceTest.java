@@ -0,0 +1,133 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.taitrinh.online_auction.entity.SystemConfig;
+import com.taitrinh.online_auction.repository.SystemConfigRepository;
+
+/**
+ * Checks that config reads are served from the in-memory snapshot: a search
+ * page maps 20 products and each one reads new_product_highlight_min, which
+ * used to cost one system_configs query per product.
+ */
+class ConfigServiceTest {
+
+	private static final ZonedDateTime LOADED_AT = ZonedDateTime.parse("2026-01-01T00:00:00Z");
+
+	private SystemConfigRepository repository;
+	private ConfigService configService;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(SystemConfigRepository.class);
+		when(repository.findAll()).thenReturn(List.of(
+				config(SystemConfig.NEW_PRODUCT_HIGHLIGHT_MIN, "30", LOADED_AT),
+				config(SystemConfig.AUTO_EXTEND_TRIGGER_MIN, "3", LOADED_AT),
+				config(SystemConfig.AUTO_EXTEND_BY_MIN, "15", LOADED_AT)));
+		when(repository.findLatestUpdatedAt()).thenReturn(Optional.of(LOADED_AT));
+		when(repository.count()).thenReturn(3L);
+		configService = new ConfigService(repository);
+		configService.loadOnStartup();
+	}
+
+	@Test
+	void searchPageRunsOneConfigQuery() {
+		for (int i = 0; i < 20; i++) {
+			assertThat(configService.getNewProductHighlightMin()).isEqualTo(30);
+		}
+		// placeBid reads two more
+		assertThat(configService.getAutoExtendTriggerMin()).isEqualTo(3);
+		assertThat(configService.getAutoExtendByMin()).isEqualTo(15);
+
+		verify(repository, times(1)).findAll();
+		verify(repository, never()).findByKey(anyString());
+	}
+
+	@Test
+	void missingKeyFallsBackToDefault() {
+		assertThat(configService.getSellerTempDurationDays()).isEqualTo(7);
+	}
+
+	@Test
+	void failedStartupLoadServesDefaultsUntilARefreshLoads() {
+		SystemConfigRepository failing = mock(SystemConfigRepository.class);
+		when(failing.findAll()).thenThrow(new IllegalStateException("database down"));
+		ConfigService service = new ConfigService(failing);
+		service.loadOnStartup();
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(service.getNewProductHighlightMin()).isEqualTo(60);
+		}
+		verify(failing, times(1)).findAll();
+
+		when(failing.findAll()).thenReturn(List.of(config(SystemConfig.NEW_PRODUCT_HIGHLIGHT_MIN, "30", LOADED_AT)));
+		when(failing.findLatestUpdatedAt()).thenReturn(Optional.of(LOADED_AT));
+		service.refreshIfChanged();
+
+		assertThat(service.getNewProductHighlightMin()).isEqualTo(30);
+	}
+
+	@Test
+	void refreshSkipsReloadWhenUnchanged() {
+		configService.refreshIfChanged();
+		configService.refreshIfChanged();
+
+		verify(repository, times(1)).findAll();
+	}
+
+	@Test
+	void refreshPicksUpChangeFromAnotherInstance() {
+		configService.refreshIfChanged();
+		assertThat(configService.getNewProductHighlightMin()).isEqualTo(30);
+
+		ZonedDateTime changedAt = LOADED_AT.plusMinutes(1);
+		when(repository.findAll()).thenReturn(List.of(
+				config(SystemConfig.NEW_PRODUCT_HIGHLIGHT_MIN, "90", changedAt),
+				config(SystemConfig.AUTO_EXTEND_TRIGGER_MIN, "3", LOADED_AT),
+				config(SystemConfig.AUTO_EXTEND_BY_MIN, "15", LOADED_AT)));
+		when(repository.findLatestUpdatedAt()).thenReturn(Optional.of(changedAt));
+		configService.refreshIfChanged();
+
+		assertThat(configService.getNewProductHighlightMin()).isEqualTo(90);
+		verify(repository, times(2)).findAll();
+	}
+
+	@Test
+	void updateConfigRefreshesSnapshot() {
+		assertThat(configService.getAutoExtendByMin()).isEqualTo(15);
+
+		SystemConfig stored = config(SystemConfig.AUTO_EXTEND_BY_MIN, "15", LOADED_AT);
+		when(repository.findByKey(SystemConfig.AUTO_EXTEND_BY_MIN)).thenReturn(Optional.of(stored));
+		when(repository.save(any(SystemConfig.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(repository.findAll()).thenReturn(List.of(
+				config(SystemConfig.NEW_PRODUCT_HIGHLIGHT_MIN, "30", LOADED_AT),
+				config(SystemConfig.AUTO_EXTEND_TRIGGER_MIN, "3", LOADED_AT),
+				config(SystemConfig.AUTO_EXTEND_BY_MIN, "20", LOADED_AT.plusMinutes(1))));
+
+		configService.updateConfig(SystemConfig.AUTO_EXTEND_BY_MIN, "20");
+
+		assertThat(configService.getAutoExtendByMin()).isEqualTo(20);
+	}
+
+	private static SystemConfig config(String key, String value, ZonedDateTime updatedAt) {
+		return SystemConfig.builder()
+				.key(key)
+				.value(value)
+				.updatedAt(updatedAt)
+				.build();
+	}
+}
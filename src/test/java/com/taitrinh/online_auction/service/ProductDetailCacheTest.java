@@ -0,0 +1,174 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.taitrinh.online_auction.dto.product.ProductDetailResponse;
+import com.taitrinh.online_auction.entity.Product;
+import com.taitrinh.online_auction.entity.User;
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+import com.taitrinh.online_auction.mapper.ProductMapper;
+import com.taitrinh.online_auction.repository.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Detail pages are loaded once per product until it changes, and every viewer
+ * gets their own copy with the names they may see.
+ */
+class ProductDetailCacheTest {
+
+	private static final long SELLER_ID = 1L;
+	private static final long BIDDER_ID = 2L;
+
+	private ProductRepository productRepository;
+	private SimpleMeterRegistry meterRegistry;
+	private ProductDetailCache detailCache;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		ProductMapper productMapper = mock(ProductMapper.class);
+		when(productMapper.toDetailResponse(any(Product.class))).thenAnswer(invocation -> {
+			Product product = invocation.getArgument(0);
+			return ProductDetailResponse.builder()
+					.id(product.getId())
+					.slug(product.getSlug())
+					.description(product.getDescription())
+					.highestBidderName("****" + product.getHighestBidder().getFullName().substring(4))
+					.createdAt(product.getCreatedAt())
+					.endTime(product.getEndTime())
+					.build();
+		});
+		doCallRealMethod().when(productMapper).unmaskNames(any(), any(), anyBoolean(), any(), any(), any(), any());
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getNewProductHighlightMin()).thenReturn(60);
+		ProductViewCounter productViewCounter = mock(ProductViewCounter.class);
+		when(productViewCounter.getPendingViews(anyLong())).thenReturn(3);
+
+		meterRegistry = new SimpleMeterRegistry();
+		detailCache = new ProductDetailCache(productRepository, productMapper, configService, productViewCounter,
+				new ResourceVersions(), mock(PlatformTransactionManager.class), meterRegistry);
+	}
+
+	@Test
+	void loadsOncePerProduct() {
+		when(productRepository.findBySlug(anyString())).thenAnswer(invocation -> Optional.of(product(10L,
+				invocation.getArgument(0), "Mô tả")));
+
+		detailCache.getBySlug("dong-ho");
+		detailCache.getBySlug("dong-ho");
+		ProductDetailCache.Detail detail = detailCache.getBySlug("dong-ho").orElseThrow();
+
+		verify(productRepository, times(1)).findBySlug("dong-ho");
+		assertThat(meterRegistry.get("product.detail.cache.requests").tag("result", "hit").counter().count())
+				.isEqualTo(2);
+
+		detail.countView();
+		assertThat(detailCache.toResponse(detail, null).getViewCount()).isEqualTo(9);
+	}
+
+	@Test
+	void viewersSeeTheirOwnNames() {
+		when(productRepository.findBySlug("dong-ho")).thenReturn(Optional.of(product(10L, "dong-ho", "Mô tả")));
+		ProductDetailCache.Detail detail = detailCache.getBySlug("dong-ho").orElseThrow();
+
+		assertThat(detailCache.toResponse(detail, SELLER_ID).getHighestBidderName()).isEqualTo("Trần Văn B");
+		assertThat(detailCache.toResponse(detail, BIDDER_ID).getHighestBidderName()).isEqualTo("Trần Văn B");
+		assertThat(detailCache.toResponse(detail, 99L).getHighestBidderName()).isEqualTo("****Văn B");
+		assertThat(detailCache.toResponse(detail, null).getHighestBidderName()).isEqualTo("****Văn B");
+	}
+
+	@Test
+	void changesDropTheEntry() {
+		when(productRepository.findBySlug("dong-ho")).thenReturn(Optional.of(product(10L, "dong-ho", "Mô tả")));
+		detailCache.getBySlug("dong-ho");
+
+		detailCache.onProductChanged(ProductChangedEvent.of(10L, ProductChangedEvent.Type.DESCRIPTION_UPDATED));
+		detailCache.getBySlug("dong-ho");
+
+		verify(productRepository, times(2)).findBySlug("dong-ho");
+	}
+
+	@Test
+	void loadRacingAChangeIsNotCached() {
+		when(productRepository.findBySlug("dong-ho")).thenAnswer(invocation -> {
+			// A bid commits after the load read the product
+			detailCache.onProductChanged(ProductChangedEvent.bid(10L, null, null, null, null));
+			return Optional.of(product(10L, "dong-ho", "Mô tả"));
+		});
+
+		detailCache.getBySlug("dong-ho");
+		detailCache.getBySlug("dong-ho");
+
+		verify(productRepository, times(2)).findBySlug("dong-ho");
+	}
+
+	@Test
+	void eTagFollowsTheCachedDetail() {
+		when(productRepository.findBySlug("dong-ho")).thenReturn(Optional.of(product(10L, "dong-ho", "Mô tả")));
+		assertThat(detailCache.getETag("dong-ho", null)).isEmpty();
+
+		detailCache.getBySlug("dong-ho");
+		String eTag = detailCache.getETag("dong-ho", null).orElseThrow();
+		assertThat(detailCache.getETag("dong-ho", SELLER_ID)).get().isNotEqualTo(eTag);
+
+		detailCache.onProductChanged(ProductChangedEvent.bid(10L, null, null, null, null));
+		assertThat(detailCache.getETag("dong-ho", null)).isEmpty();
+		detailCache.getBySlug("dong-ho");
+		assertThat(detailCache.getETag("dong-ho", null)).get().isNotEqualTo(eTag);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedBeyondMaxBytes() {
+		// Room for two entries with a 1000 character description
+		ReflectionTestUtils.setField(detailCache, "maxBytes", 7_000L);
+		when(productRepository.findBySlug(anyString())).thenAnswer(invocation -> {
+			String slug = invocation.getArgument(0);
+			return Optional.of(product(slug.length(), slug, "x".repeat(1000)));
+		});
+
+		detailCache.getBySlug("a");
+		detailCache.getBySlug("bb");
+		detailCache.getBySlug("a");
+		detailCache.getBySlug("ccc");
+
+		assertThat(detailCache.size()).isEqualTo(2);
+		assertThat(detailCache.bytes()).isLessThanOrEqualTo(7_000L);
+		detailCache.getBySlug("a");
+		detailCache.getBySlug("bb");
+		verify(productRepository, times(1)).findBySlug("a");
+		verify(productRepository, times(2)).findBySlug("bb");
+		assertThat(meterRegistry.get("product.detail.cache.evictions").counter().count()).isEqualTo(2);
+	}
+
+	private static Product product(long id, String slug, String description) {
+		Product product = Product.builder()
+				.id(id)
+				.slug(slug)
+				.description(description)
+				.seller(User.builder().id(SELLER_ID).fullName("Nguyễn Văn A").build())
+				.createdAt(ZonedDateTime.now().minusDays(1))
+				.build();
+		product.initAuctionState(ZonedDateTime.now().plusDays(1));
+		product.setHighestBidder(User.builder().id(BIDDER_ID).fullName("Trần Văn B").build());
+		product.setViewCount(5);
+		return product;
+	}
+}
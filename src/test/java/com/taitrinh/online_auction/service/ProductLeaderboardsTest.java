@@ -0,0 +1,103 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.taitrinh.online_auction.dto.product.ProductListResponse;
+import com.taitrinh.online_auction.repository.ProductCardRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Rankings follow bid and end events, and a board's response is only
+ * rendered (one card query) again when its top 5 changes.
+ */
+class ProductLeaderboardsTest {
+
+	private static final ZonedDateTime NOW = ZonedDateTime.parse("2026-01-01T00:00:00Z");
+
+	private ProductCardRepository productCardRepository;
+	private ProductLeaderboards leaderboards;
+
+	@BeforeEach
+	void setUp() {
+		productCardRepository = mock(ProductCardRepository.class);
+		when(productCardRepository.findCardsByIds(anyList(), anyInt())).thenAnswer(invocation -> {
+			List<Long> ids = invocation.getArgument(0);
+			return ids.stream()
+					.map(id -> ProductListResponse.builder().id(id).isNew(false).build())
+					.toList();
+		});
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getNewProductHighlightMin()).thenReturn(60);
+
+		leaderboards = new ProductLeaderboards(productCardRepository, configService, JsonMapper.builder().build(),
+				mock(ActiveProductLoader.class));
+
+		ProductLeaderboards.Rankings rankings = new ProductLeaderboards.Rankings();
+		for (long id = 1; id <= 8; id++) {
+			// Product 1 ends first, product 8 has the most bids and highest price
+			rankings.put(new ProductLeaderboards.Ranked(id, NOW.plusMinutes(id).toInstant().toEpochMilli(),
+					(int) id, BigDecimal.valueOf(id * 1000)));
+		}
+		leaderboards.install(rankings);
+	}
+
+	@Test
+	void ranksByEndTimeBidCountAndPrice() {
+		assertThat(leaderboards.getTopIds(ProductLeaderboards.Board.ENDING_SOON)).containsExactly(1L, 2L, 3L, 4L, 5L);
+		assertThat(leaderboards.getTopIds(ProductLeaderboards.Board.MOST_BIDS)).containsExactly(8L, 7L, 6L, 5L, 4L);
+		assertThat(leaderboards.getTopIds(ProductLeaderboards.Board.HIGHEST_PRICE))
+				.containsExactly(8L, 7L, 6L, 5L, 4L);
+	}
+
+	@Test
+	void bidsAutoExtendAndEndsReorder() {
+		// A bid on product 1 raises its price and extends it past product 6
+		leaderboards.updateAuctionState(1L, new BigDecimal("50000"), 20, NOW.plusMinutes(6).plusSeconds(30));
+		leaderboards.remove(3L);
+
+		assertThat(leaderboards.getTopIds(ProductLeaderboards.Board.ENDING_SOON)).containsExactly(2L, 4L, 5L, 6L, 1L);
+		assertThat(leaderboards.getTopIds(ProductLeaderboards.Board.MOST_BIDS)).containsExactly(1L, 8L, 7L, 6L, 5L);
+		assertThat(leaderboards.getTopIds(ProductLeaderboards.Board.HIGHEST_PRICE))
+				.containsExactly(1L, 8L, 7L, 6L, 5L);
+	}
+
+	@Test
+	void reusesTheRenderedResponseUntilTheTopChanges() {
+		byte[] first = leaderboards.getResponseBody(ProductLeaderboards.Board.MOST_BIDS, "ok");
+		for (int i = 0; i < 100; i++) {
+			assertThat(leaderboards.getResponseBody(ProductLeaderboards.Board.MOST_BIDS, "ok")).isSameAs(first);
+		}
+		verify(productCardRepository, times(1)).findCardsByIds(anyList(), anyInt());
+
+		// Outside the top 5 and still outside: same response
+		leaderboards.updateAuctionState(2L, new BigDecimal("2100"), 3, NOW.plusMinutes(2));
+		assertThat(leaderboards.getResponseBody(ProductLeaderboards.Board.MOST_BIDS, "ok")).isSameAs(first);
+
+		// A listed product's card changes: rendered again, same ids
+		leaderboards.updateAuctionState(8L, new BigDecimal("9000"), 9, NOW.plusMinutes(8));
+		byte[] second = leaderboards.getResponseBody(ProductLeaderboards.Board.MOST_BIDS, "ok");
+		assertThat(second).isNotSameAs(first);
+
+		// A product enters the top 5
+		leaderboards.updateAuctionState(1L, new BigDecimal("1100"), 30, NOW.plusMinutes(1));
+		byte[] third = leaderboards.getResponseBody(ProductLeaderboards.Board.MOST_BIDS, "ok");
+		assertThat(third).isNotSameAs(second);
+		assertThat(new String(third)).contains("\"id\":1");
+
+		verify(productCardRepository, times(3)).findCardsByIds(anyList(), anyInt());
+	}
+}
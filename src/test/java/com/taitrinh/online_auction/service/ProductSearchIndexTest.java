@@ -0,0 +1,187 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Matching, filtering and sorting of the in-memory product search index, plus
+ * a latency benchmark at 100k active products (compare with
+ * database/benchmarks/product_search.sql, which runs the current native
+ * queries on the same data shape). The benchmark only runs with -Pbenchmark.
+ */
+class ProductSearchIndexTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexTest.class);
+
+	private static final ZonedDateTime NOW = ZonedDateTime.parse("2026-01-01T00:00:00Z");
+
+	private ProductSearchIndex searchIndex;
+
+	@BeforeEach
+	void setUp() {
+		searchIndex = new ProductSearchIndex(mock(ActiveProductLoader.class), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void emptyUntilBuilt() {
+		assertThat(searchIndex.search("iphone", null, "endTime", false, 0, 20)).isEmpty();
+	}
+
+	@Test
+	void matchesFoldedTermsAndLastTermAsPrefix() {
+		ProductSearchIndex.Builder builder = new ProductSearchIndex.Builder();
+		builder.add(product(1, 11, 1, "1000", 0, 30), "Đồng hồ cơ Seiko", "Máy chạy tốt");
+		builder.add(product(2, 11, 1, "2000", 3, 10), "Đồng hồ điện tử Casio", "Pin mới");
+		builder.add(product(3, 21, 2, "3000", 1, 20), "Điện thoại iPhone 15", "Còn bảo hành");
+		searchIndex.install(builder.build());
+
+		assertThat(ids("dong ho", null, "endTime", false)).containsExactly(2L, 1L);
+		assertThat(ids("ĐỒNG HỒ", null, "endTime", false)).containsExactly(2L, 1L);
+		assertThat(ids("dong h", null, "endTime", false)).containsExactly(2L, 1L);
+		// Only the last term is a prefix
+		assertThat(ids("don ho", null, "endTime", false)).isEmpty();
+		assertThat(ids("dien", null, "currentPrice", true)).containsExactly(3L, 2L);
+		assertThat(ids("bao hanh", null, "endTime", false)).containsExactly(3L);
+	}
+
+	@Test
+	void filtersByCategoryOrParentAndCountsFacets() {
+		ProductSearchIndex.Builder builder = new ProductSearchIndex.Builder();
+		builder.add(product(1, 11, 1, "1000", 0, 30), "Đồng hồ cơ", "");
+		builder.add(product(2, 12, 1, "2000", 0, 10), "Đồng hồ treo tường", "");
+		builder.add(product(3, 21, 2, "3000", 0, 20), "Đồng hồ thông minh", "");
+		searchIndex.install(builder.build());
+
+		assertThat(ids("dong ho", 1, "endTime", false)).containsExactly(2L, 1L);
+		assertThat(ids("dong ho", 12, "endTime", false)).containsExactly(2L);
+
+		ProductSearchIndex.SearchResult result = searchIndex.search("dong ho", 21, "endTime", false, 0, 20)
+				.orElseThrow();
+		assertThat(result.total()).isEqualTo(1);
+		assertThat(result.categoryCounts()).containsEntry(11, 1L).containsEntry(12, 1L).containsEntry(21, 1L);
+	}
+
+	@Test
+	void bidsResortAndEndedProductsDisappear() {
+		ProductSearchIndex.Builder builder = new ProductSearchIndex.Builder();
+		builder.add(product(1, 11, 1, "1000", 0, 30), "Máy ảnh Canon", "");
+		builder.add(product(2, 11, 1, "2000", 0, 10), "Máy ảnh Sony", "");
+		searchIndex.install(builder.build());
+
+		searchIndex.updateAuctionState(1L, new BigDecimal("5000"), 4, NOW.plusMinutes(30));
+		assertThat(ids("may anh", null, "currentPrice", true)).containsExactly(1L, 2L);
+		assertThat(ids("may anh", null, "bidCount", true)).containsExactly(1L, 2L);
+
+		searchIndex.remove(1L);
+		ProductSearchIndex.SearchResult result = searchIndex.search("may anh", null, "endTime", false, 0, 20)
+				.orElseThrow();
+		assertThat(result.ids()).containsExactly(2L);
+		assertThat(result.total()).isEqualTo(1);
+	}
+
+	@Test
+	void createdProductsAreIndexed() {
+		searchIndex.install(new ProductSearchIndex.Builder().build());
+
+		searchIndex.put(new ActiveProductLoader.ActiveProduct(3L, "Máy ảnh Nikon", "may-anh-nikon", "Ống kính zin",
+				11, 1, new BigDecimal("1000"), 0, NOW.plusMinutes(30), NOW.minusDays(1), 0));
+
+		assertThat(ids("nikon", null, "endTime", false)).containsExactly(3L);
+		assertThat(ids("ong kinh", 1, "endTime", false)).containsExactly(3L);
+	}
+
+	@Test
+	void pagesThroughSortedHits() {
+		ProductSearchIndex.Builder builder = new ProductSearchIndex.Builder();
+		for (int i = 1; i <= 100; i++) {
+			builder.add(product(i, 11, 1, String.valueOf(i * 1000), 0, 1000 - i), "Sách cũ " + i, "");
+		}
+		searchIndex.install(builder.build());
+
+		ProductSearchIndex.SearchResult page = searchIndex.search("sach", null, "currentPrice", false, 2, 10)
+				.orElseThrow();
+		assertThat(page.ids()).containsExactly(21L, 22L, 23L, 24L, 25L, 26L, 27L, 28L, 29L, 30L);
+		assertThat(page.total()).isEqualTo(100);
+		assertThat(searchIndex.search("sach", null, "currentPrice", false, 10, 10).orElseThrow().ids()).isEmpty();
+	}
+
+	@Test
+	@Tag("benchmark")
+	void benchmarkAt100kActiveProducts() {
+		String[] words = ("dong ho may anh dien thoai laptop ban phim chuot tai nghe sach truyen tranh giay "
+				+ "ao quan tui xach nhan vang bac kim cuong tranh son dau gom su co dien hiem moi nguyen hop "
+				+ "chinh hang bao hanh xach tay nhat ban han quoc my duc phap y").split(" ");
+		Random random = new Random(42);
+
+		long buildStarted = System.nanoTime();
+		ProductSearchIndex.Builder builder = new ProductSearchIndex.Builder();
+		for (int i = 1; i <= 100_000; i++) {
+			StringBuilder title = new StringBuilder();
+			for (int w = 0; w < 6; w++) {
+				title.append(words[random.nextInt(words.length)]).append(' ');
+			}
+			StringBuilder description = new StringBuilder();
+			for (int w = 0; w < 60; w++) {
+				description.append(words[random.nextInt(words.length)]).append(' ');
+			}
+			description.append("ma so ").append(i);
+			builder.add(product(i, 10 + random.nextInt(20), 1 + random.nextInt(4),
+					String.valueOf(100_000 + random.nextInt(10_000_000)), random.nextInt(50),
+					random.nextInt(100_000)), title.toString(), description.toString());
+		}
+		searchIndex.install(builder.build());
+		long buildMs = (System.nanoTime() - buildStarted) / 1_000_000;
+
+		String[][] queries = {
+				{ "dong ho", "broad, 2 terms" },
+				{ "dong ho co dien nhat ban", "narrow, 5 terms" },
+				{ "chinh h", "prefix" },
+				{ "ma so 4242", "rare term" },
+		};
+		for (String[] query : queries) {
+			for (int warmup = 0; warmup < 200; warmup++) {
+				searchIndex.search(query[0], null, "endTime", false, 0, 20);
+			}
+			int runs = 500;
+			long[] nanos = new long[runs];
+			long total = 0;
+			for (int run = 0; run < runs; run++) {
+				long started = System.nanoTime();
+				total = searchIndex.search(query[0], run % 2 == 0 ? null : 3, "endTime", false, run % 5, 20)
+						.orElseThrow().total();
+				nanos[run] = System.nanoTime() - started;
+			}
+			Arrays.sort(nanos);
+			log.info("Search index, 100k products, '{}' ({}): {} hits, p50 {} us, p99 {} us", query[0], query[1],
+					total, nanos[runs / 2] / 1000, nanos[runs * 99 / 100] / 1000);
+		}
+		log.info("Search index built from 100k products in {} ms", buildMs);
+
+		assertThat(searchIndex.search("ma so 4242", null, "endTime", false, 0, 20).orElseThrow().ids())
+				.contains(4242L);
+	}
+
+	private List<Long> ids(String keyword, Integer categoryId, String sortBy, boolean descending) {
+		return searchIndex.search(keyword, categoryId, sortBy, descending, 0, 20).orElseThrow().ids();
+	}
+
+	private static ProductSearchIndex.IndexedProduct product(long id, int categoryId, int parentCategoryId,
+			String price, int bidCount, int endsInMinutes) {
+		return new ProductSearchIndex.IndexedProduct(id, categoryId, parentCategoryId, new BigDecimal(price),
+				bidCount, NOW.plusMinutes(endsInMinutes), NOW.minusDays(1));
+	}
+}
@@ -0,0 +1,117 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.taitrinh.online_auction.dto.product.ProductListResponse;
+import com.taitrinh.online_auction.dto.product.ProductSearchRequest;
+import com.taitrinh.online_auction.mapper.ProductMapper;
+import com.taitrinh.online_auction.repository.BidHistoryRepository;
+import com.taitrinh.online_auction.repository.CategoryRepository;
+import com.taitrinh.online_auction.repository.DescriptionLogRepository;
+import com.taitrinh.online_auction.repository.ProductCardRepository;
+import com.taitrinh.online_auction.repository.ProductCursorRepository;
+import com.taitrinh.online_auction.repository.ProductRepository;
+import com.taitrinh.online_auction.repository.UserRepository;
+
+/**
+ * List pages must cost a fixed number of statements whatever the page size:
+ * one id page query (plus its count) and one card query. Mapping entities per
+ * row used to lazy-load seller, highest bidder and images for every product.
+ *
+ * This only counts repository calls on mocks: it checks the service makes one
+ * id page call and one card call per page and never touches entities or the
+ * mapper, which is where the per-row selects came from. It does not count SQL
+ * statements; findCardsByIds being a single statement comes from its one
+ * lateral-join query, which needs PostgreSQL to run.
+ */
+class ProductServiceTest {
+
+	private ProductRepository productRepository;
+	private ProductCardRepository productCardRepository;
+	private UserRepository userRepository;
+	private ProductMapper productMapper;
+	private ConfigService configService;
+	private ProductService productService;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		productCardRepository = mock(ProductCardRepository.class);
+		userRepository = mock(UserRepository.class);
+		productMapper = mock(ProductMapper.class);
+		configService = mock(ConfigService.class);
+		when(configService.getNewProductHighlightMin()).thenReturn(60);
+		when(productCardRepository.findCardsByIds(anyList(), anyInt())).thenAnswer(invocation -> {
+			List<Long> ids = invocation.getArgument(0);
+			return ids.stream()
+					.map(id -> ProductListResponse.builder().id(id).build())
+					.toList();
+		});
+
+		productService = new ProductService(productRepository, mock(BidHistoryRepository.class),
+				mock(CategoryRepository.class), mock(CategoryTreeCache.class), userRepository,
+				mock(DescriptionLogRepository.class), productMapper, productCardRepository,
+				mock(ProductCursorRepository.class),
+				mock(ProductSearchIndex.class), mock(ProductSuggestIndex.class), mock(ProductDetailCache.class),
+				mock(ApplicationEventPublisher.class),
+				configService, mock(ProductViewCounter.class),
+				mock(S3Service.class));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 20, 100 })
+	void searchPageMakesConstantRepositoryCalls(int size) {
+		List<Long> ids = LongStream.rangeClosed(1, size).boxed().toList();
+		when(productRepository.searchIdsByTitle(eq("iphone"), any(Pageable.class)))
+				.thenAnswer(invocation -> new PageImpl<>(ids, invocation.getArgument(1), 500));
+
+		var page = productService.searchProducts(ProductSearchRequest.builder()
+				.keyword("iphone")
+				.size(size)
+				.build());
+
+		assertThat(page.getContent()).extracting(ProductListResponse::getId).containsExactlyElementsOf(ids);
+		assertThat(page.getTotalElements()).isEqualTo(500);
+
+		verify(productRepository, times(1)).searchIdsByTitle(eq("iphone"), any(Pageable.class));
+		verify(productCardRepository, times(1)).findCardsByIds(ids, 60);
+		verifyNoMoreInteractions(productRepository, productCardRepository);
+		verifyNoInteractions(userRepository, productMapper);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 20, 100 })
+	void browsePageMakesConstantRepositoryCalls(int size) {
+		List<Long> ids = LongStream.rangeClosed(1, size).boxed().toList();
+		when(productRepository.findAllIds(any(Pageable.class)))
+				.thenReturn(new PageImpl<>(ids, PageRequest.of(0, size), size));
+
+		productService.searchProducts(ProductSearchRequest.builder().size(size).build());
+
+		verify(productRepository, times(1)).findAllIds(any(Pageable.class));
+		verify(productCardRepository, times(1)).findCardsByIds(ids, 60);
+		verifyNoMoreInteractions(productRepository, productCardRepository);
+		verifyNoInteractions(userRepository, productMapper);
+	}
+}
@@ -0,0 +1,170 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.taitrinh.online_auction.dto.product.SuggestionResponse;
+
+/**
+ * Word-start prefix matching and ranking of typeahead suggestions, plus a
+ * latency benchmark at 100k active products (-Pbenchmark) against the 1 ms
+ * p99 target.
+ */
+class ProductSuggestIndexTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductSuggestIndexTest.class);
+
+	private ProductSuggestIndex suggestIndex;
+
+	@BeforeEach
+	void setUp() {
+		suggestIndex = new ProductSuggestIndex(mock(JdbcTemplate.class), mock(ActiveProductLoader.class));
+	}
+
+	@Test
+	void emptyUntilBuilt() {
+		assertThat(suggestIndex.suggest("dong", 8, ProductSuggestIndex.Ranking.BID_COUNT)).isEmpty();
+	}
+
+	@Test
+	void matchesAnyWordStartIgnoringAccents() {
+		ProductSuggestIndex.Index index = new ProductSuggestIndex.Index();
+		ProductSuggestIndex.add(index, product(1, "Đồng hồ cơ Seiko", 5, 1));
+		ProductSuggestIndex.add(index, product(2, "Vòng tay đồng", 9, 2));
+		ProductSuggestIndex.add(index, product(3, "Điện thoại iPhone 15", 1, 3));
+		install(index);
+
+		assertThat(productIds("dong", ProductSuggestIndex.Ranking.BID_COUNT)).containsExactly(2L, 1L);
+		assertThat(productIds("ĐỒNG H", ProductSuggestIndex.Ranking.BID_COUNT)).containsExactly(1L);
+		assertThat(productIds("  seiko ", ProductSuggestIndex.Ranking.BID_COUNT)).containsExactly(1L);
+		// Word starts only
+		assertThat(productIds("hone", ProductSuggestIndex.Ranking.BID_COUNT)).isEmpty();
+		// Short prefixes come from the top lists
+		assertThat(productIds("d", ProductSuggestIndex.Ranking.RECENT)).containsExactly(3L, 2L, 1L);
+	}
+
+	@Test
+	void categoriesComeFirst() {
+		ProductSuggestIndex.Index index = new ProductSuggestIndex.Index();
+		ProductSuggestIndex.add(index, product(1, "Đồng hồ cơ Seiko", 0, 1));
+		index.categories = List.of(new ProductSuggestIndex.CategoryEntry(7, "Đồng hồ", "dong-ho", "dong ho"));
+		install(index);
+
+		List<SuggestionResponse> suggestions = suggestIndex.suggest("dong h", 8,
+				ProductSuggestIndex.Ranking.BID_COUNT);
+		assertThat(suggestions).extracting(SuggestionResponse::getType)
+				.containsExactly(SuggestionResponse.Type.CATEGORY, SuggestionResponse.Type.PRODUCT);
+		assertThat(suggestions.get(0).getSlug()).isEqualTo("dong-ho");
+	}
+
+	@Test
+	void bidsRerankAndEndedProductsDisappear() {
+		ProductSuggestIndex.Index index = new ProductSuggestIndex.Index();
+		ProductSuggestIndex.add(index, product(1, "Máy ảnh Canon", 0, 1));
+		ProductSuggestIndex.add(index, product(2, "Máy ảnh Sony", 2, 2));
+		install(index);
+
+		suggestIndex.updateAuctionState(1L, new BigDecimal("5000"), 4, ZonedDateTime.parse("2026-01-02T00:00:00Z"));
+		assertThat(productIds("may", ProductSuggestIndex.Ranking.BID_COUNT)).containsExactly(1L, 2L);
+		assertThat(productIds("ma", ProductSuggestIndex.Ranking.BID_COUNT)).containsExactly(1L, 2L);
+
+		suggestIndex.remove(1L);
+		assertThat(productIds("may", ProductSuggestIndex.Ranking.BID_COUNT)).containsExactly(2L);
+		assertThat(productIds("ma", ProductSuggestIndex.Ranking.BID_COUNT)).containsExactly(2L);
+	}
+
+	@Test
+	void ranksAllMatchesOfAPrefixWithTooManyToScan() {
+		ProductSuggestIndex.Index index = new ProductSuggestIndex.Index();
+		for (int i = 1; i <= 6000; i++) {
+			ProductSuggestIndex.add(index, product(i, "Sách cũ " + String.format("%05d", i), 0, i));
+		}
+		// Sorts after the first 5000 keys of "sach"
+		ProductSuggestIndex.add(index, product(9999L, "Sách cũ zz hiếm", 40, 0));
+		install(index);
+
+		assertThat(productIds("sach", ProductSuggestIndex.Ranking.BID_COUNT)).first().isEqualTo(9999L);
+		assertThat(productIds("sach cu", ProductSuggestIndex.Ranking.BID_COUNT)).first().isEqualTo(9999L);
+		assertThat(productIds("sach", ProductSuggestIndex.Ranking.RECENT)).first().isEqualTo(6000L);
+
+		suggestIndex.remove(9999L);
+		assertThat(productIds("sach", ProductSuggestIndex.Ranking.BID_COUNT)).doesNotContain(9999L);
+	}
+
+	@Test
+	@Tag("benchmark")
+	void benchmarkAt100kActiveProducts() {
+		String[] words = ("dong ho may anh dien thoai laptop ban phim chuot tai nghe sach truyen tranh giay "
+				+ "ao quan tui xach nhan vang bac kim cuong tranh son dau gom su co dien hiem moi nguyen hop "
+				+ "chinh hang bao hanh xach tay nhat ban han quoc my duc phap y").split(" ");
+		Random random = new Random(42);
+
+		long buildStarted = System.nanoTime();
+		ProductSuggestIndex.Index index = new ProductSuggestIndex.Index();
+		for (int i = 1; i <= 100_000; i++) {
+			StringBuilder title = new StringBuilder();
+			for (int w = 0; w < 6; w++) {
+				title.append(words[random.nextInt(words.length)]).append(' ');
+			}
+			title.append(i);
+			ProductSuggestIndex.add(index, product(i, title.toString(), random.nextInt(50), random.nextInt(100_000)));
+		}
+		install(index);
+		long buildMs = (System.nanoTime() - buildStarted) / 1_000_000;
+
+		String[] queries = { "d", "do", "don", "dong h", "chinh hang bao", "424" };
+		long worstP99 = 0;
+		for (String query : queries) {
+			for (ProductSuggestIndex.Ranking ranking : ProductSuggestIndex.Ranking.values()) {
+				for (int warmup = 0; warmup < 500; warmup++) {
+					suggestIndex.suggest(query, 8, ranking);
+				}
+				int runs = 2000;
+				long[] nanos = new long[runs];
+				for (int run = 0; run < runs; run++) {
+					long started = System.nanoTime();
+					suggestIndex.suggest(query, 8, ranking);
+					nanos[run] = System.nanoTime() - started;
+				}
+				Arrays.sort(nanos);
+				worstP99 = Math.max(worstP99, nanos[runs * 99 / 100]);
+				log.info("Suggest, 100k products, '{}' ({}): p50 {} us, p99 {} us", query, ranking,
+						nanos[runs / 2] / 1000, nanos[runs * 99 / 100] / 1000);
+			}
+		}
+		log.info("Suggest index built from 100k products in {} ms", buildMs);
+
+		assertThat(productIds("dong", ProductSuggestIndex.Ranking.BID_COUNT)).hasSize(8);
+		assertThat(worstP99).as("p99 of the slowest query, ns").isLessThan(1_000_000);
+	}
+
+	private void install(ProductSuggestIndex.Index index) {
+		ProductSuggestIndex.computeTopLists(index);
+		suggestIndex.install(index);
+	}
+
+	private List<Long> productIds(String query, ProductSuggestIndex.Ranking ranking) {
+		return suggestIndex.suggest(query, 8, ranking).stream()
+				.filter(suggestion -> suggestion.getType() == SuggestionResponse.Type.PRODUCT)
+				.map(SuggestionResponse::getId)
+				.toList();
+	}
+
+	private static ProductSuggestIndex.ProductEntry product(long id, String title, int bidCount, int createdMinute) {
+		return new ProductSuggestIndex.ProductEntry(id, title, "san-pham-" + id, bidCount,
+				ZonedDateTime.parse("2026-01-01T00:00:00Z").plusMinutes(createdMinute).toInstant().toEpochMilli());
+	}
+}
@@ -0,0 +1,243 @@
+package com.taitrinh.online_auction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import com.taitrinh.online_auction.entity.ProductAuctionState;
+import com.taitrinh.online_auction.repository.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Memory load test comparing read-only watchers on STOMP (the WebSocket topic
+ * of a product) with watchers on the SSE event stream. Opens N idle
+ * connections on the same product for each and reports retained heap per
+ * connection.
+ *
+ * STOMP connections go through the real sub-protocol handler and simple broker
+ * (CONNECT + SUBSCRIBE to the bids topic) on stub sessions; SSE connections
+ * through ProductEventStreamService. Container state (socket buffers, Tomcat
+ * WebSocket session, servlet async context) and SockJS are not included, so the
+ * numbers compare what the application keeps per watcher. Scale with
+ * -Drealtime.loadtest.connections=N.
+ */
+@Tag("benchmark")
+class RealtimeConnectionMemoryTest {
+
+	private static final Logger log = LoggerFactory.getLogger(RealtimeConnectionMemoryTest.class);
+
+	private static final int CONNECTIONS = Integer.getInteger("realtime.loadtest.connections", 10_000);
+	private static final long PRODUCT_ID = 1L;
+
+	private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+	@Test
+	void retainedHeapPerIdleWatcher() {
+		long stompBytes = measureStomp();
+		long sseBytes = measureSse();
+
+		log.info("Idle watchers of one product, {} connections: STOMP {} bytes/connection, SSE {} bytes/connection",
+				CONNECTIONS, stompBytes, sseBytes);
+
+		assertThat(stompBytes).isPositive();
+		assertThat(sseBytes).isPositive();
+	}
+
+	private long measureStomp() {
+		ExecutorSubscribableChannel inbound = new ExecutorSubscribableChannel();
+		ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel();
+		ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+
+		SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(inbound, outbound, brokerChannel,
+				List.of("/topic", "/queue"));
+		SubProtocolWebSocketHandler handler = new SubProtocolWebSocketHandler(inbound, outbound);
+		handler.addProtocolHandler(new StompSubProtocolHandler());
+		broker.start();
+		handler.start();
+
+		AtomicInteger connectedFrames = new AtomicInteger();
+		long heapBefore = usedHeap();
+		try {
+			for (int i = 0; i < CONNECTIONS; i++) {
+				StubWebSocketSession session = new StubWebSocketSession("stomp-" + i, connectedFrames);
+				handler.afterConnectionEstablished(session);
+				handler.handleMessage(session, new TextMessage(
+						"CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:0,0\n\n\0"));
+				handler.handleMessage(session, new TextMessage(
+						"SUBSCRIBE\nid:sub-0\ndestination:/topic/product/" + PRODUCT_ID + "/bids\n\n\0"));
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		long heapAfter = usedHeap();
+
+		assertThat(connectedFrames.get()).isEqualTo(CONNECTIONS);
+		long perConnection = (heapAfter - heapBefore) / CONNECTIONS;
+
+		handler.stop();
+		broker.stop();
+		return perConnection;
+	}
+
+	private long measureSse() {
+		ProductAuctionState auctionState = ProductAuctionState.builder()
+				.productId(PRODUCT_ID)
+				.isEnded(false)
+				.endTime(ZonedDateTime.now().plusDays(1))
+				.build();
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findAuctionStateById(PRODUCT_ID)).thenReturn(Optional.of(auctionState));
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ProductEventStreamService streamService = new ProductEventStreamService(new ProductEventLogService(),
+				productRepository, JsonMapper.builder().build(), meterRegistry);
+		ReflectionTestUtils.setField(streamService, "timeoutMs", 1_800_000L);
+		ReflectionTestUtils.setField(streamService, "queueCapacity", 128);
+
+		List<SseEmitter> emitters = new ArrayList<>(CONNECTIONS);
+		long heapBefore = usedHeap();
+		for (int i = 0; i < CONNECTIONS; i++) {
+			emitters.add(streamService.subscribe(PRODUCT_ID, null));
+		}
+		long heapAfter = usedHeap();
+
+		assertThat(meterRegistry.get("sse.connections.active").gauge().value()).isEqualTo(CONNECTIONS);
+		long perConnection = (heapAfter - heapBefore) / emitters.size();
+
+		streamService.shutdown();
+		return perConnection;
+	}
+
+	private long usedHeap() {
+		System.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * Open session that only counts the frames sent to it
+	 */
+	private static class StubWebSocketSession implements WebSocketSession {
+
+		private final String id;
+		private final AtomicInteger sentFrames;
+		private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+		StubWebSocketSession(String id, AtomicInteger sentFrames) {
+			this.id = id;
+			this.sentFrames = sentFrames;
+		}
+
+		@Override
+		public String getId() {
+			return id;
+		}
+
+		@Override
+		public URI getUri() {
+			return URI.create("ws://localhost/ws");
+		}
+
+		@Override
+		public HttpHeaders getHandshakeHeaders() {
+			return new HttpHeaders();
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return attributes;
+		}
+
+		@Override
+		public Principal getPrincipal() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getLocalAddress() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getRemoteAddress() {
+			return null;
+		}
+
+		@Override
+		public String getAcceptedProtocol() {
+			return "v12.stomp";
+		}
+
+		@Override
+		public void setTextMessageSizeLimit(int messageSizeLimit) {
+		}
+
+		@Override
+		public int getTextMessageSizeLimit() {
+			return 65536;
+		}
+
+		@Override
+		public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+		}
+
+		@Override
+		public int getBinaryMessageSizeLimit() {
+			return 65536;
+		}
+
+		@Override
+		public List<WebSocketExtension> getExtensions() {
+			return List.of();
+		}
+
+		@Override
+		public void sendMessage(WebSocketMessage<?> message) {
+			sentFrames.incrementAndGet();
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void close(CloseStatus status) {
+		}
+	}
+}
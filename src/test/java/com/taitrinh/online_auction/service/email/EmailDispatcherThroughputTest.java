@@ -0,0 +1,124 @@
+package com.taitrinh.online_auction.service.email;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Messages per second through {@link EmailDispatcher} (a few pooled SMTP
+ * connections, batched sends) against one JavaMailSender.send, and so one SMTP
+ * connection, per message. Both send the same messages from the same number of
+ * caller threads to a local SMTP stand-in (GreenMail). Scale with
+ * -Demail.throughput.messages=N.
+ */
+@Tag("benchmark")
+class EmailDispatcherThroughputTest {
+
+	private static final Logger log = LoggerFactory.getLogger(EmailDispatcherThroughputTest.class);
+
+	private static final int MESSAGES = Integer.getInteger("email.throughput.messages", 500);
+	// Like the email executor's pool
+	private static final int CALLERS = 8;
+
+	private GreenMail greenMail;
+	private JavaMailSenderImpl mailSender;
+	private SimpleMeterRegistry meterRegistry;
+	private EmailDispatcher emailDispatcher;
+
+	@BeforeEach
+	void setUp() {
+		greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+		greenMail.start();
+
+		mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("localhost");
+		mailSender.setPort(greenMail.getSmtp().getPort());
+
+		meterRegistry = new SimpleMeterRegistry();
+		emailDispatcher = new EmailDispatcher(mailSender, meterRegistry);
+		ReflectionTestUtils.setField(emailDispatcher, "connections", 2);
+		ReflectionTestUtils.setField(emailDispatcher, "batchSize", 20);
+		ReflectionTestUtils.setField(emailDispatcher, "queueCapacity", 1000);
+		ReflectionTestUtils.setField(emailDispatcher, "maxPerSecond", 0);
+		ReflectionTestUtils.setField(emailDispatcher, "idleTimeoutMs", 30000L);
+		emailDispatcher.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		emailDispatcher.stop();
+		greenMail.stop();
+	}
+
+	@Test
+	void pooledConnectionsSendMoreMessagesPerSecondThanOneConnectionPerMessage() throws Exception {
+		double pooled = messagesPerSecond(emailDispatcher::send);
+		assertThat(greenMail.waitForIncomingEmail(5000, MESSAGES)).isTrue();
+		double connects = meterRegistry.get("email.smtp.connects").counter().count();
+
+		greenMail.purgeEmailFromAllMailboxes();
+		double perMessage = messagesPerSecond(mailSender::send);
+		assertThat(greenMail.waitForIncomingEmail(5000, MESSAGES)).isTrue();
+
+		log.info("EmailDispatcher: {} messages at {} msg/s over {} SMTP connections", MESSAGES,
+				String.format("%.1f", pooled), (long) connects);
+		log.info("One JavaMailSender.send per message: {} messages at {} msg/s over {} SMTP connections",
+				MESSAGES, String.format("%.1f", perMessage), MESSAGES);
+		log.info("EmailDispatcher sends {}x the msg/s", String.format("%.1f", pooled / perMessage));
+	}
+
+	/**
+	 * Send MESSAGES messages from CALLERS threads, each blocking until the
+	 * server accepted its message
+	 */
+	private double messagesPerSecond(Consumer<MimeMessage> send) throws Exception {
+		List<MimeMessage> messages = new ArrayList<>(MESSAGES);
+		for (int i = 0; i < MESSAGES; i++) {
+			messages.add(message(i));
+		}
+
+		ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+		try {
+			long start = System.nanoTime();
+			CompletableFuture.allOf(messages.stream()
+					.map(message -> CompletableFuture.runAsync(() -> send.accept(message), callers))
+					.toArray(CompletableFuture[]::new))
+					.join();
+			return MESSAGES / ((System.nanoTime() - start) / 1e9);
+		} finally {
+			callers.shutdown();
+		}
+	}
+
+	private MimeMessage message(int i) throws MessagingException {
+		MimeMessage message = mailSender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+		helper.setFrom("noreply@bidstorm.test");
+		helper.setTo("bidder" + i + "@test.local");
+		helper.setSubject("Xác nhận đặt giá thành công");
+		helper.setText("<p>Bạn đã đặt giá thành công cho sản phẩm <b>Đồng hồ cổ</b>.</p>", true);
+		return message;
+	}
+}
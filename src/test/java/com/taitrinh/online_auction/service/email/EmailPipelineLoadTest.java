@@ -0,0 +1,305 @@
+package com.taitrinh.online_auction.service.email;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.taitrinh.online_auction.entity.EmailOutbox;
+import com.taitrinh.online_auction.repository.EmailOutboxRepository;
+import com.taitrinh.online_auction.scheduler.EmailOutboxScheduler;
+import com.taitrinh.online_auction.service.email.template.EmailTemplateEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Email pipeline load test against an in-process SMTP server (GreenMail), so it
+ * runs offline. Drives the email services with the bursts seen in production
+ * (auction close, seller reply fan-out, bidding war, OTP trickle) through the
+ * real outbox drain, dispatcher and SMTP connections, and reports sustained
+ * messages/sec, p99 enqueue-to-delivery latency and heap growth.
+ *
+ * The outbox table is replaced by an in-memory queue behind a mocked
+ * repository. Scale with -Demail.loadtest.scale=N.
+ */
+@Tag("benchmark")
+class EmailPipelineLoadTest {
+
+	private static final Logger log = LoggerFactory.getLogger(EmailPipelineLoadTest.class);
+
+	private static final int SCALE = Integer.getInteger("email.loadtest.scale", 1);
+
+	private GreenMail greenMail;
+	private EmailDispatcher emailDispatcher;
+	private ThreadPoolTaskExecutor emailTaskExecutor;
+	private EmailOutboxScheduler emailOutboxScheduler;
+
+	private AuthEmailService authEmailService;
+	private BidEmailService bidEmailService;
+	private ProductEmailService productEmailService;
+	private CommentEmailService commentEmailService;
+
+	// In-memory stand-in for the email_outbox table
+	private final Queue<EmailOutbox> outbox = new ConcurrentLinkedQueue<>();
+	private final Map<Long, Long> enqueuedAt = new ConcurrentHashMap<>();
+	private final Queue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+	private final AtomicLong ids = new AtomicLong();
+	private final AtomicInteger enqueued = new AtomicInteger();
+	private final AtomicInteger delivered = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+		greenMail.start();
+
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("localhost");
+		mailSender.setPort(greenMail.getSmtp().getPort());
+
+		emailDispatcher = new EmailDispatcher(mailSender, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(emailDispatcher, "connections", 2);
+		ReflectionTestUtils.setField(emailDispatcher, "batchSize", 20);
+		ReflectionTestUtils.setField(emailDispatcher, "queueCapacity", 1000);
+		ReflectionTestUtils.setField(emailDispatcher, "maxPerSecond", 0);
+		ReflectionTestUtils.setField(emailDispatcher, "idleTimeoutMs", 30000L);
+		emailDispatcher.start();
+
+		EmailOutboxService emailOutboxService = new EmailOutboxService(outboxRepository(), emailDispatcher);
+		ReflectionTestUtils.setField(emailOutboxService, "fromEmail", "noreply@bidstorm.test");
+		ReflectionTestUtils.setField(emailOutboxService, "maxAttempts", 8);
+		ReflectionTestUtils.setField(emailOutboxService, "initialBackoffMs", 30000L);
+		ReflectionTestUtils.setField(emailOutboxService, "maxBackoffMs", 3600000L);
+		ReflectionTestUtils.setField(emailOutboxService, "leaseMs", 300000L);
+
+		emailTaskExecutor = new ThreadPoolTaskExecutor();
+		emailTaskExecutor.setCorePoolSize(4);
+		emailTaskExecutor.setMaxPoolSize(8);
+		emailTaskExecutor.setQueueCapacity(500);
+		emailTaskExecutor.setThreadNamePrefix("email-");
+		emailTaskExecutor.initialize();
+
+		emailOutboxScheduler = new EmailOutboxScheduler(emailOutboxService, emailTaskExecutor);
+		ReflectionTestUtils.setField(emailOutboxScheduler, "batchSize", 50);
+		ReflectionTestUtils.setField(emailOutboxScheduler, "perMinuteQuota", 0);
+
+		EmailTemplateService templateService = new EmailTemplateService();
+		ReflectionTestUtils.setField(templateService, "appName", "BidStorm");
+		ReflectionTestUtils.setField(templateService, "appUrl", "http://localhost:3000");
+
+		EmailTemplateEngine templateEngine = new EmailTemplateEngine();
+		ReflectionTestUtils.setField(templateEngine, "appName", "BidStorm");
+		templateEngine.compileTemplates();
+
+		authEmailService = new AuthEmailService(emailOutboxService, templateService, templateEngine);
+		bidEmailService = new BidEmailService(emailOutboxService, templateService, templateEngine);
+		productEmailService = new ProductEmailService(emailOutboxService, templateService, templateEngine);
+		commentEmailService = new CommentEmailService(emailOutboxService, templateService, templateEngine);
+	}
+
+	@AfterEach
+	void tearDown() {
+		emailTaskExecutor.shutdown();
+		emailDispatcher.stop();
+		greenMail.stop();
+	}
+
+	@Test
+	void sustainsBurstsThroughOutboxAndPooledSmtp() throws Exception {
+		log.info("Email pipeline (outbox + pooled SMTP): {}", runBursts());
+	}
+
+	/**
+	 * Fire all burst patterns at once and drain like the scheduled job until
+	 * every queued email was delivered
+	 */
+	private LoadResult runBursts() throws Exception {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		System.gc();
+		long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+		ExecutorService producers = Executors.newFixedThreadPool(4);
+		long start = System.nanoTime();
+		producers.submit(() -> auctionCloseBurst(100 * SCALE));
+		producers.submit(() -> sellerReplyFanOut(5 * SCALE, 40));
+		producers.submit(() -> biddingWar(50 * SCALE));
+		producers.submit(() -> otpTrickle(50 * SCALE));
+		producers.shutdown();
+
+		long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+		while ((!producers.isTerminated() || delivered.get() + failed.get() < enqueued.get())
+				&& System.nanoTime() < deadline) {
+			int before = delivered.get() + failed.get();
+			emailOutboxScheduler.drain();
+			if (delivered.get() + failed.get() == before) {
+				Thread.sleep(5);
+			}
+		}
+		double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+		System.gc();
+		long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+		assertThat(failed.get()).isZero();
+		assertThat(delivered.get()).isEqualTo(enqueued.get());
+		assertThat(greenMail.waitForIncomingEmail(5000, enqueued.get())).isTrue();
+
+		List<Long> latencies = new ArrayList<>(latenciesNanos);
+		latencies.sort(null);
+		long p50 = latencies.get(latencies.size() / 2);
+		long p99 = latencies.get((int) Math.min(latencies.size() - 1, Math.ceil(latencies.size() * 0.99) - 1));
+		return new LoadResult(delivered.get(), elapsedSeconds, TimeUnit.NANOSECONDS.toMillis(p50),
+				TimeUnit.NANOSECONDS.toMillis(p99), (heapAfter - heapBefore) / 1024);
+	}
+
+	private record LoadResult(int messages, double seconds, long p50Ms, long p99Ms, long heapGrowthKb) {
+
+		double messagesPerSecond() {
+			return messages / seconds;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d messages in %.2fs = %.1f msg/s, latency p50=%dms p99=%dms, heap growth %dKB",
+					messages, seconds, messagesPerSecond(), p50Ms, p99Ms, heapGrowthKb);
+		}
+	}
+
+	// ========== Burst patterns ==========
+
+	private void auctionCloseBurst(int products) {
+		for (int i = 0; i < products; i++) {
+			String slug = "san-pham-" + i;
+			BigDecimal price = BigDecimal.valueOf(1_500_000L + i * 10_000L);
+			if (i % 5 == 0) {
+				productEmailService.sendNoWinnerNotificationToSeller("seller" + i + "@test.local", "Người bán " + i,
+						"Sản phẩm " + i, slug);
+			} else {
+				productEmailService.sendWinnerNotificationToBidder("winner" + i + "@test.local", "Người thắng " + i,
+						"Sản phẩm " + i, price, slug);
+				productEmailService.sendWinnerNotificationToSeller("seller" + i + "@test.local", "Người bán " + i,
+						"Sản phẩm " + i, "Người thắng " + i, price, slug);
+			}
+		}
+	}
+
+	private void sellerReplyFanOut(int replies, int participants) {
+		for (int r = 0; r < replies; r++) {
+			long commentId = 1000L + r;
+			for (int p = 0; p < participants; p++) {
+				commentEmailService.sendSellerReplyNotification("participant" + p + "@test.local",
+						"Người tham gia " + p, "Sản phẩm hỏi đáp " + r,
+						"Sản phẩm còn mới 99%, bảo hành chính hãng 12 tháng.", "hoi-dap-" + r, commentId);
+			}
+		}
+	}
+
+	private void biddingWar(int bids) {
+		BigDecimal price = BigDecimal.valueOf(2_000_000L);
+		for (int i = 0; i < bids; i++) {
+			price = price.add(BigDecimal.valueOf(50_000L));
+			String bidder = "bidder" + (i % 2) + "@test.local";
+			String previous = "bidder" + ((i + 1) % 2) + "@test.local";
+			bidEmailService.sendBidConfirmationToBidder(bidder, "Người đấu giá", "Đồng hồ cổ", price, true,
+					"dong-ho-co", (long) i);
+			bidEmailService.sendOutbidNotification(previous, "Người đấu giá", "Đồng hồ cổ", price, "dong-ho-co",
+					(long) i);
+			bidEmailService.sendNewBidNotificationToSeller("seller@test.local", "Người bán", "Đồng hồ cổ",
+					"Người đấu giá", price, "dong-ho-co", (long) i);
+		}
+	}
+
+	private void otpTrickle(int users) {
+		for (int i = 0; i < users; i++) {
+			authEmailService.sendEmailVerificationOTP("user" + i + "@test.local", String.format("%06d", i), 5);
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	// ========== In-memory outbox ==========
+
+	private EmailOutboxRepository outboxRepository() {
+		EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+
+		when(repository.insertIfAbsent(anyString(), anyString(), anyString(), anyString(), anyString()))
+				.thenAnswer(invocation -> {
+					long id = ids.incrementAndGet();
+					enqueuedAt.put(id, System.nanoTime());
+					outbox.add(EmailOutbox.builder()
+							.id(id)
+							.dedupKey(invocation.getArgument(0))
+							.recipient(invocation.getArgument(1))
+							.template(invocation.getArgument(2))
+							.subject(invocation.getArgument(3))
+							.body(invocation.getArgument(4))
+							.nextAttemptAt(ZonedDateTime.now())
+							.build());
+					enqueued.incrementAndGet();
+					return 1;
+				});
+
+		when(repository.findDueForUpdate(anyInt())).thenAnswer(invocation -> {
+			int limit = invocation.getArgument(0);
+			List<EmailOutbox> due = new ArrayList<>(limit);
+			EmailOutbox email;
+			while (due.size() < limit && (email = outbox.poll()) != null) {
+				due.add(email);
+			}
+			return due;
+		});
+
+		when(repository.markSent(anyList(), any(), any())).thenAnswer(invocation -> {
+			List<Long> sent = invocation.getArgument(0);
+			long now = System.nanoTime();
+			for (Long id : sent) {
+				latenciesNanos.add(now - enqueuedAt.remove(id));
+			}
+			delivered.addAndGet(sent.size());
+			return sent.size();
+		});
+
+		when(repository.findById(any())).thenAnswer(invocation -> {
+			failed.incrementAndGet();
+			return Optional.empty();
+		});
+
+		return repository;
+	}
+}
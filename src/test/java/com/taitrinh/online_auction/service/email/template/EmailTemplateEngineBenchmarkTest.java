@@ -0,0 +1,150 @@
+package com.taitrinh.online_auction.service.email.template;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * JMH benchmark of rendering one outbid email: the precompiled template engine
+ * against the String.format text blocks it replaced. The format string is built
+ * from the same template files (partials inlined, slots turned into %s) so both
+ * produce the same page. Reports time and bytes allocated per rendered email.
+ *
+ * Runs in-process (no fork) with -Pbenchmark:
+ * mvn test -Pbenchmark -Dtest=EmailTemplateEngineBenchmarkTest
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmailTemplateEngineBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(EmailTemplateEngineBenchmarkTest.class);
+
+	private static final String APP_URL = "http://localhost:3000";
+
+	private EmailTemplateEngine templateEngine;
+	private String outbidFormat;
+
+	private final String bidderName = "Nguyễn Văn An";
+	private final String productTitle = "Đồng hồ Seiko 5 cổ, máy zin, mặt số xanh";
+	private final BigDecimal newPrice = BigDecimal.valueOf(2_350_000L);
+	private final String productSlug = "dong-ho-seiko-5-co";
+
+	@Setup
+	public void setUp() {
+		templateEngine = new EmailTemplateEngine();
+		ReflectionTestUtils.setField(templateEngine, "appName", "BidStorm");
+		templateEngine.compileTemplates();
+
+		EmailTemplate template = EmailTemplate.OUTBID;
+		outbidFormat = load("layout.html")
+				.replace("{{> content}}", load(template.getFile()))
+				.replace("{{> button}}", load("button.html"))
+				.replace("{{appName}}", "BidStorm")
+				.replace("{{title}}", template.getTitle())
+				.replace("{{buttonLabel}}", template.getButtonLabel())
+				.replace("%", "%%")
+				.replace("{{bidderName}}", "%s")
+				.replace("{{productTitle}}", "%s")
+				.replace("{{newPrice|vnd}}", "%,d VND")
+				.replace("{{buttonUrl}}", "%s");
+	}
+
+	@Benchmark
+	public String precompiledTemplate() {
+		return templateEngine.render(EmailTemplate.OUTBID, Map.of(
+				"bidderName", bidderName,
+				"productTitle", productTitle,
+				"newPrice", newPrice,
+				"buttonUrl", String.format("%s/san-pham/%s", APP_URL, productSlug)));
+	}
+
+	@Benchmark
+	public String stringFormat() {
+		String productUrl = String.format("%s/san-pham/%s", APP_URL, productSlug);
+		return String.format(outbidFormat, bidderName, productTitle, newPrice.longValue(), productUrl);
+	}
+
+	@Test
+	@Tag("benchmark")
+	void precompiledTemplateBeatsStringFormat() throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(EmailTemplateEngineBenchmarkTest.class.getName() + "\\.")
+				.forks(0)
+				.threads(1)
+				.warmupIterations(3)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.seconds(1))
+				.addProfiler(GCProfiler.class)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		RunResult precompiled = find(results, "precompiledTemplate");
+		RunResult formatted = find(results, "stringFormat");
+		double precompiledNanos = precompiled.getPrimaryResult().getScore();
+		double formattedNanos = formatted.getPrimaryResult().getScore();
+		double precompiledBytes = allocatedBytes(precompiled);
+		double formattedBytes = allocatedBytes(formatted);
+
+		log.info("Outbid email: precompiled {} ns / {} B, String.format {} ns / {} B per render",
+				String.format("%.0f", precompiledNanos), String.format("%.0f", precompiledBytes),
+				String.format("%.0f", formattedNanos), String.format("%.0f", formattedBytes));
+
+		assertThat(precompiledNanos).isLessThan(formattedNanos);
+		assertThat(precompiledBytes).isLessThan(formattedBytes);
+	}
+
+	private static RunResult find(Collection<RunResult> results, String benchmark) {
+		return results.stream()
+				.filter(result -> result.getParams().getBenchmark().endsWith("." + benchmark))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	// Normalized allocation rate of the GC profiler, in bytes per operation
+	private static double allocatedBytes(RunResult result) {
+		return result.getSecondaryResults().entrySet().stream()
+				.filter(entry -> entry.getKey().endsWith("gc.alloc.rate.norm"))
+				.map(Map.Entry::getValue)
+				.mapToDouble(Result::getScore)
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static String load(String file) {
+		try (InputStream in = new ClassPathResource("templates/email/" + file).getInputStream()) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new IllegalStateException("Email template not found: " + file, e);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.taitrinh.online_auction.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.taitrinh.online_auction.event.ProductChangedEvent;
+import com.taitrinh.online_auction.service.ResourceVersions;
+
+/**
+ * A matching If-None-Match gets a 304 without the body being built, until the
+ * product changes.
+ */
+class ConditionalGetUtilTest {
+
+	private final ResourceVersions resourceVersions = new ResourceVersions();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		// No time bucket rollover during a test
+		ReflectionTestUtils.setField(resourceVersions, "refreshIntervalMs", Long.MAX_VALUE);
+	}
+
+	@Test
+	void matchingETagIsNotModifiedWithoutLoading() {
+		ResponseEntity<String> first = get(null, 2L);
+		String eTag = first.getHeaders().getETag();
+
+		ResponseEntity<String> second = get(eTag, 2L);
+
+		assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(second.getBody()).isNull();
+		assertThat(second.getHeaders().getCacheControl()).contains("private");
+		assertThat(second.getHeaders().getVary()).containsExactly(HttpHeaders.AUTHORIZATION);
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	void changesAndOtherViewersGetTheBody() {
+		String eTag = get(null, 2L).getHeaders().getETag();
+
+		ResponseEntity<String> otherViewer = get(eTag, null);
+		assertThat(otherViewer.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(otherViewer.getHeaders().getCacheControl()).contains("public");
+
+		resourceVersions.onProductChanged(ProductChangedEvent.bid(10L, null, null, null, null));
+		ResponseEntity<String> afterBid = get(eTag, 2L);
+		assertThat(afterBid.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(afterBid.getHeaders().getETag()).isNotEqualTo(eTag);
+		assertThat(loads.get()).isEqualTo(3);
+	}
+
+	private ResponseEntity<String> get(String ifNoneMatch, Long viewerId) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/10/bids");
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+		String eTag = resourceVersions.eTagForViewer("bids", viewerId, 10L, resourceVersions.getProductVersion(10L));
+		return ConditionalGetUtil.forViewer(webRequest, eTag, viewerId, () -> "bids v" + loads.incrementAndGet());
+	}
+}
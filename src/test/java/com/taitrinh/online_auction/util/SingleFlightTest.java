@@ -0,0 +1,149 @@
+package com.taitrinh.online_auction.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Identical concurrent loads run once, plus the number of statements issued
+ * by 500 concurrent requests for the same product with and without
+ * coalescing.
+ */
+class SingleFlightTest {
+
+	private static final Logger log = LoggerFactory.getLogger(SingleFlightTest.class);
+
+	private static final int REQUESTS = 500;
+
+	private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+	@Test
+	void benchmarkStatementsFor500ConcurrentRequests() throws Exception {
+		AtomicInteger uncoalesced = new AtomicInteger();
+		long uncoalescedMs = runConcurrently(() -> query(uncoalesced));
+
+		AtomicInteger withFreshness = new AtomicInteger();
+		long withFreshnessMs = runConcurrently(() -> singleFlight.load(2L, 1000, () -> query(withFreshness)));
+
+		log.info("{} concurrent identical requests: {} statements without coalescing ({} ms), "
+				+ "{} with a 1s freshness window ({} ms)", REQUESTS,
+				uncoalesced.get(), uncoalescedMs, withFreshness.get(), withFreshnessMs);
+
+		assertThat(uncoalesced.get()).isEqualTo(REQUESTS);
+		assertThat(withFreshness.get()).isEqualTo(1);
+	}
+
+	@Test
+	void callersArrivingWhileALoadRunsShareIt() throws Exception {
+		AtomicInteger statements = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Supplier<String> gatedQuery = () -> {
+			statements.incrementAndGet();
+			loading.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "product";
+		};
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<String> first = executor.submit(() -> singleFlight.load(1L, 0, gatedQuery));
+			loading.await();
+
+			// The load can't finish until released, so every caller finds it running and
+			// parks on its result - the only place they can wait
+			List<Thread> callers = new ArrayList<>();
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 1; i < REQUESTS; i++) {
+				FutureTask<String> result = new FutureTask<>(() -> singleFlight.load(1L, 0, gatedQuery));
+				callers.add(Thread.ofVirtual().start(result));
+				results.add(result);
+			}
+			while (!callers.stream().allMatch(caller -> caller.getState() == Thread.State.WAITING)) {
+				Thread.onSpinWait();
+			}
+			release.countDown();
+
+			assertThat(first.get()).isEqualTo("product");
+			for (Future<String> result : results) {
+				assertThat(result.get()).isEqualTo("product");
+			}
+		}
+
+		assertThat(statements.get()).isEqualTo(1);
+		assertThat(singleFlight.size()).isZero();
+	}
+
+	@Test
+	void failuresAreSharedButNotReused() {
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<String> failing = () -> {
+			loads.incrementAndGet();
+			throw new IllegalStateException("Database unavailable");
+		};
+
+		assertThatThrownBy(() -> singleFlight.load(1L, 1000, failing)).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> singleFlight.load(1L, 1000, failing)).isInstanceOf(IllegalStateException.class);
+
+		assertThat(loads.get()).isEqualTo(2);
+		assertThat(singleFlight.size()).isZero();
+	}
+
+	@Test
+	void finishedLoadsAreNotReusedWithoutFreshness() {
+		AtomicInteger loads = new AtomicInteger();
+
+		singleFlight.load(1L, 0, () -> "v" + loads.incrementAndGet());
+		singleFlight.load(1L, 0, () -> "v" + loads.incrementAndGet());
+
+		assertThat(loads.get()).isEqualTo(2);
+		assertThat(singleFlight.size()).isZero();
+	}
+
+	// A detail page query taking 50 ms
+	private static String query(AtomicInteger statements) {
+		statements.incrementAndGet();
+		try {
+			Thread.sleep(50);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return "product";
+	}
+
+	private static long runConcurrently(Supplier<String> request) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>();
+		long started;
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < REQUESTS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return request.get();
+				}));
+			}
+			started = System.nanoTime();
+			start.countDown();
+			for (Future<String> result : results) {
+				assertThat(result.get()).isEqualTo("product");
+			}
+		}
+		return (System.nanoTime() - started) / 1_000_000;
+	}
+}